@@ -9,8 +9,14 @@ package org.littletonrobotics.junction;
 
 import com.squareup.javapoet.*;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import javax.annotation.processing.AbstractProcessor;
@@ -38,7 +44,31 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
       ClassName.get("org.littletonrobotics.junction", "LogTable");
   private static final TypeName LOGGABLE_INPUTS_TYPE =
       ClassName.get("org.littletonrobotics.junction.inputs", "LoggableInputs");
+  private static final TypeName OUTPUT_REGISTRAR_TYPE =
+      ClassName.get("org.littletonrobotics.junction", "AutoLogOutputManager", "Registrar");
+  private static final TypeName OUTPUT_REGISTRATION_TYPE =
+      ClassName.get("org.littletonrobotics.junction", "AutoLogOutputManager", "Registration");
+  private static final ClassName STRUCT_TYPE = ClassName.get("org.wpilib.util.struct", "Struct");
+  private static final ClassName BYTE_BUFFER_TYPE = ClassName.get("java.nio", "ByteBuffer");
+  private static final ClassName DRIVER_STATION_ERRORS_TYPE =
+      ClassName.get("org.wpilib.driverstation", "DriverStationErrors");
   private static final Map<String, String> UNLOGGABLE_TYPES_SUGGESTIONS = new HashMap<>();
+  private final Map<TypeElement, Boolean> generatedRecordStructs = new HashMap<>();
+  private static final Set<String> FIELD_ID_TYPES =
+      Set.of(
+          "boolean",
+          "int",
+          "long",
+          "float",
+          "double",
+          "java.lang.String",
+          "byte[]",
+          "boolean[]",
+          "int[]",
+          "long[]",
+          "float[]",
+          "double[]",
+          "java.lang.String[]");
 
   static {
     UNLOGGABLE_TYPES_SUGGESTIONS.put("java.lang.Byte[]", "byte[]");
@@ -56,12 +86,20 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
 
   @Override
   public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    Optional<? extends TypeElement> outputAnnotationOptional =
+        annotations.stream()
+            .filter((te) -> te.getSimpleName().toString().equals("AutoLogOutput"))
+            .findFirst();
+    if (outputAnnotationOptional.isPresent()) {
+      processOutputs(outputAnnotationOptional.get(), roundEnv);
+    }
+
     Optional<? extends TypeElement> annotationOptional =
         annotations.stream()
             .filter((te) -> te.getSimpleName().toString().equals("AutoLog"))
             .findFirst();
     if (!annotationOptional.isPresent()) {
-      return false;
+      return outputAnnotationOptional.isPresent();
     }
 
     TypeElement annotation = annotationOptional.get();
@@ -69,6 +107,11 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
         .getElementsAnnotatedWith(annotation)
         .forEach(
             classElement -> {
+              if (classElement.getKind().equals(ElementKind.RECORD)) {
+                processRecord((TypeElement) classElement, annotation);
+                return;
+              }
+
               String autologgedClassName = classElement.getSimpleName() + "AutoLogged";
               String autologgedPackage = getPackageName(classElement);
 
@@ -87,6 +130,11 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
                       .addModifiers(Modifier.PUBLIC)
                       .addCode("$L copy = new $L();\n", autologgedClassName, autologgedClassName)
                       .returns(ClassName.get(autologgedPackage, autologgedClassName));
+              CodeBlock.Builder toLogCode = CodeBlock.builder();
+              CodeBlock.Builder fromLogCode = CodeBlock.builder();
+              List<String> fieldIdNames = new ArrayList<>();
+              List<FieldSpec> lastValueFields = new ArrayList<>();
+              Set<String> logNames = new HashSet<>();
 
               Types util = processingEnv.getTypeUtils();
               TypeElement measureElement =
@@ -111,6 +159,12 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
                           String logName =
                               simpleName.substring(0, 1).toUpperCase() + simpleName.substring(1);
 
+                          // Skip fields shadowed by a subclass field, which is processed first and
+                          // is the field referenced by the generated code
+                          if (!logNames.add(logName)) {
+                            return;
+                          }
+
                           String fieldType = fieldElement.asType().toString();
                           String typeSuggestion = UNLOGGABLE_TYPES_SUGGESTIONS.get(fieldType);
 
@@ -147,16 +201,60 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
 
                           // Log data (might be serialized)
                           if (isMeasure) {
-                            toLogBuilder.addCode(
-                                "table.putMeasure($S, $L);\n", logName, simpleName);
-                            fromLogBuilder.addCode(
+                            toLogCode.add("table.putMeasure($S, $L);\n", logName, simpleName);
+                            fromLogCode.add(
                                 "$L = table.getMeasure($S, $L);\n",
                                 simpleName,
                                 logName,
                                 simpleName);
+                          } else if (FIELD_ID_TYPES.contains(fieldType)) {
+                            // Write by field ID, resolved once per table, and only when the value
+                            // differs from the last value written
+                            int index = fieldIdNames.size();
+                            fieldIdNames.add(logName);
+                            String lastName = "autoLogLast" + logName;
+                            boolean isArray =
+                                fieldElement.asType().getKind().equals(TypeKind.ARRAY);
+                            lastValueFields.add(
+                                FieldSpec.builder(
+                                        TypeName.get(fieldElement.asType()),
+                                        lastName,
+                                        Modifier.PRIVATE)
+                                    .build());
+                            toLogCode
+                                .beginControlFlow(
+                                    "if (!autoLogWritten || $L)",
+                                    getChangedCondition(fieldType, simpleName, lastName))
+                                .addStatement(
+                                    "table.putField(autoLogFieldIds[$L], $L)", index, simpleName);
+                            if (fieldType.equals("int[]")) {
+                              // The table stores a long array, so keep a copy for comparison
+                              toLogCode.addStatement(
+                                  "$L = $L == null ? null : $L.clone()",
+                                  lastName,
+                                  simpleName,
+                                  simpleName);
+                            } else if (isArray) {
+                              // Keep the copy made by the table, which is never modified
+                              CodeBlock storedValue =
+                                  CodeBlock.of(
+                                      "table.getField(autoLogFieldIds[$L], ($T) null)",
+                                      index,
+                                      TypeName.get(fieldElement.asType()));
+                              toLogCode.addStatement(
+                                  "$L = $L == null ? null : $L", lastName, simpleName, storedValue);
+                            } else {
+                              toLogCode.addStatement("$L = $L", lastName, simpleName);
+                            }
+                            toLogCode.endControlFlow();
+                            fromLogCode.add(
+                                "$L = table.getField(autoLogFieldIds[$L], $L);\n",
+                                simpleName,
+                                index,
+                                simpleName);
                           } else {
-                            toLogBuilder.addCode("table.put($S, $L);\n", logName, simpleName);
-                            fromLogBuilder.addCode(
+                            toLogCode.add("table.put($S, $L);\n", logName, simpleName);
+                            fromLogCode.add(
                                 "$L = table.get($S, $L);\n", simpleName, logName, simpleName);
                           }
                           if (fieldElement.asType().getKind().equals(TypeKind.ARRAY)) {
@@ -178,14 +276,41 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
 
               cloneBuilder.addCode("return copy;\n");
 
-              TypeSpec type =
+              TypeSpec.Builder typeBuilder =
                   TypeSpec.classBuilder(autologgedClassName)
                       .addModifiers(Modifier.PUBLIC)
                       .addSuperinterface(LOGGABLE_INPUTS_TYPE)
                       .addSuperinterface(ClassName.get("java.lang", "Cloneable"))
-                      .superclass(classElement.asType())
-                      .addMethod(toLogBuilder.build())
-                      .addMethod(fromLogBuilder.build())
+                      .superclass(classElement.asType());
+
+              // Resolve field IDs when first used with a table
+              if (!fieldIdNames.isEmpty()) {
+                CodeBlock keys =
+                    fieldIdNames.stream()
+                        .map(name -> CodeBlock.of("$S", name))
+                        .collect(CodeBlock.joining(", "));
+                CodeBlock bindCode =
+                    CodeBlock.builder()
+                        .beginControlFlow("if (table != autoLogTable)")
+                        .addStatement("autoLogFieldIds = table.getFieldIds($L)", keys)
+                        .addStatement("autoLogTable = table")
+                        .addStatement("autoLogWritten = false")
+                        .endControlFlow()
+                        .build();
+                toLogBuilder.addCode(bindCode);
+                fromLogBuilder.addCode(bindCode);
+                toLogCode.addStatement("autoLogWritten = true");
+                typeBuilder
+                    .addField(LOG_TABLE_TYPE, "autoLogTable", Modifier.PRIVATE)
+                    .addField(int[].class, "autoLogFieldIds", Modifier.PRIVATE)
+                    .addField(boolean.class, "autoLogWritten", Modifier.PRIVATE)
+                    .addFields(lastValueFields);
+              }
+
+              TypeSpec type =
+                  typeBuilder
+                      .addMethod(toLogBuilder.addCode(toLogCode.build()).build())
+                      .addMethod(fromLogBuilder.addCode(fromLogCode.build()).build())
                       .addMethod(cloneBuilder.build())
                       .build();
 
@@ -202,6 +327,515 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
     return true;
   }
 
+  /**
+   * Generates a struct for a record annotated with {@code @AutoLog}, which packs and unpacks the
+   * record through its accessors and canonical constructor. The struct matches the schema of the
+   * reflective struct used for records without a generated struct. If the record cannot be
+   * accessed from generated code or has an unsupported component, a warning is reported and the
+   * reflective struct is used instead.
+   *
+   * @return Whether the struct was generated.
+   */
+  private boolean processRecord(TypeElement recordElement, TypeElement annotation) {
+    Boolean generated = generatedRecordStructs.get(recordElement);
+    if (generated != null) {
+      return generated;
+    }
+    generatedRecordStructs.put(recordElement, false);
+
+    String structPackage = getPackageName(recordElement);
+    if (!recordElement.getTypeParameters().isEmpty()
+        || !isNamed(recordElement)
+        || !isAccessible(recordElement, structPackage)) {
+      processingEnv
+          .getMessager()
+          .printMessage(
+              Diagnostic.Kind.WARNING,
+              "[AutoLog] Cannot generate a struct for a generic or private record",
+              recordElement);
+      return false;
+    }
+
+    String structClassName = getNestedName(recordElement) + "AutoLogStruct";
+    TypeName recordType = TypeName.get(recordElement.asType());
+    TypeSpec.Builder typeBuilder =
+        TypeSpec.classBuilder(structClassName)
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addSuperinterface(ParameterizedTypeName.get(STRUCT_TYPE, recordType));
+
+    int size = 0;
+    CodeBlock.Builder sizeCode = CodeBlock.builder();
+    List<CodeBlock> schemaParts = new ArrayList<>();
+    StringBuilder schemaText = new StringBuilder();
+    List<CodeBlock> nestedStructs = new ArrayList<>();
+    CodeBlock.Builder packCode = CodeBlock.builder();
+    List<CodeBlock> unpackArgs = new ArrayList<>();
+    boolean hasObjectComponents = false;
+    Types util = processingEnv.getTypeUtils();
+    TypeElement serializableElement =
+        processingEnv.getElementUtils().getTypeElement("org.wpilib.util.struct.StructSerializable");
+    for (RecordComponentElement component : recordElement.getRecordComponents()) {
+      String name = component.getSimpleName().toString();
+      TypeMirror type = component.asType();
+      Element typeElement = util.asElement(type);
+      switch (type.getKind()) {
+        case BOOLEAN -> {
+          size += 1;
+          schemaText.append("bool " + name + ";");
+          packCode.addStatement("bb.put(value.$L() ? (byte) 1 : (byte) 0)", name);
+          unpackArgs.add(CodeBlock.of("bb.get() != 0"));
+        }
+        case SHORT -> {
+          size += 2;
+          schemaText.append("int16 " + name + ";");
+          packCode.addStatement("bb.putShort(value.$L())", name);
+          unpackArgs.add(CodeBlock.of("bb.getShort()"));
+        }
+        case INT -> {
+          size += 4;
+          schemaText.append("int32 " + name + ";");
+          packCode.addStatement("bb.putInt(value.$L())", name);
+          unpackArgs.add(CodeBlock.of("bb.getInt()"));
+        }
+        case LONG -> {
+          size += 8;
+          schemaText.append("int64 " + name + ";");
+          packCode.addStatement("bb.putLong(value.$L())", name);
+          unpackArgs.add(CodeBlock.of("bb.getLong()"));
+        }
+        case FLOAT -> {
+          size += 4;
+          schemaText.append("float " + name + ";");
+          packCode.addStatement("bb.putFloat(value.$L())", name);
+          unpackArgs.add(CodeBlock.of("bb.getFloat()"));
+        }
+        case DOUBLE -> {
+          size += 8;
+          schemaText.append("double " + name + ";");
+          packCode.addStatement("bb.putDouble(value.$L())", name);
+          unpackArgs.add(CodeBlock.of("bb.getDouble()"));
+        }
+        case DECLARED -> {
+          TypeElement componentElement = (TypeElement) typeElement;
+          if (!isAccessible(componentElement, structPackage)) {
+            reportUnsupportedComponent(recordElement, name);
+            return false;
+          }
+          TypeName componentType = TypeName.get(util.erasure(type));
+          if (componentElement.getKind().equals(ElementKind.ENUM)) {
+            // Enums are stored by ordinal
+            size += 4;
+            List<String> constants = new ArrayList<>();
+            for (Element e : componentElement.getEnclosedElements()) {
+              if (e.getKind().equals(ElementKind.ENUM_CONSTANT)) {
+                constants.add(e.getSimpleName() + "=" + constants.size());
+              }
+            }
+            schemaText.append("enum {" + String.join(", ", constants) + "} int32 " + name + ";");
+            typeBuilder.addField(
+                FieldSpec.builder(
+                        ArrayTypeName.of(componentType),
+                        name + "Values",
+                        Modifier.PRIVATE,
+                        Modifier.STATIC,
+                        Modifier.FINAL)
+                    .initializer("$T.values()", componentType)
+                    .build());
+            packCode
+                .beginControlFlow("if (value.$L() == null)", name)
+                .addStatement("reportNull($S)", name)
+                .addStatement("bb.putInt(0)")
+                .nextControlFlow("else")
+                .addStatement("bb.putInt(value.$L().ordinal())", name)
+                .endControlFlow();
+            unpackArgs.add(CodeBlock.of("$LValues[bb.getInt()]", name));
+            hasObjectComponents = true;
+          } else {
+            // Nested structs come from the type or from a generated record struct
+            CodeBlock initializer;
+            if (componentElement.getKind().equals(ElementKind.RECORD)
+                && getAnnotationMirror(componentElement, annotation) != null
+                && processRecord(componentElement, annotation)) {
+              initializer =
+                  CodeBlock.of(
+                      "new $T()",
+                      ClassName.get(
+                          getPackageName(componentElement),
+                          getNestedName(componentElement) + "AutoLogStruct"));
+            } else if (serializableElement != null
+                && util.isAssignable(util.erasure(type), util.erasure(serializableElement.asType()))
+                && componentElement.getEnclosedElements().stream()
+                    .anyMatch(
+                        e ->
+                            e.getKind().equals(ElementKind.FIELD)
+                                && e.getSimpleName().contentEquals("struct")
+                                && e.getModifiers().contains(Modifier.PUBLIC)
+                                && e.getModifiers().contains(Modifier.STATIC))) {
+              initializer = CodeBlock.of("$T.struct", componentType);
+            } else {
+              reportUnsupportedComponent(recordElement, name);
+              return false;
+            }
+            String structName = name + "Struct";
+            typeBuilder.addField(
+                FieldSpec.builder(
+                        ParameterizedTypeName.get(STRUCT_TYPE, componentType),
+                        structName,
+                        Modifier.PRIVATE,
+                        Modifier.STATIC,
+                        Modifier.FINAL)
+                    .initializer(initializer)
+                    .build());
+            sizeCode.add(" + $L.getSize()", structName);
+            if (schemaText.length() > 0) {
+              schemaParts.add(CodeBlock.of("$S", schemaText.toString()));
+            }
+            schemaParts.add(CodeBlock.of("$L.getTypeName()", structName));
+            schemaText.setLength(0);
+            schemaText.append(" " + name + ";");
+            nestedStructs.add(CodeBlock.of("$L", structName));
+            packCode
+                .beginControlFlow("if (value.$L() == null)", name)
+                .addStatement("reportNull($S)", name)
+                .addStatement("bb.put(new byte[$L.getSize()])", structName)
+                .nextControlFlow("else")
+                .addStatement("$L.pack(bb, value.$L())", structName, name)
+                .endControlFlow();
+            unpackArgs.add(CodeBlock.of("$L.unpack(bb)", structName));
+            hasObjectComponents = true;
+          }
+        }
+        default -> {
+          reportUnsupportedComponent(recordElement, name);
+          return false;
+        }
+      }
+    }
+    if (schemaText.length() > 0 || schemaParts.isEmpty()) {
+      schemaParts.add(CodeBlock.of("$S", schemaText.toString()));
+    }
+    if (hasObjectComponents) {
+      // Null components are packed as zeros so the layout stays valid, reported once per type
+      typeBuilder
+          .addField(
+              FieldSpec.builder(boolean.class, "nullReported", Modifier.PRIVATE, Modifier.STATIC)
+                  .initializer("false")
+                  .build())
+          .addMethod(
+              MethodSpec.methodBuilder("reportNull")
+                  .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                  .addParameter(String.class, "component")
+                  .beginControlFlow("if (!nullReported)")
+                  .addStatement("nullReported = true")
+                  .addStatement(
+                      "$T.reportError($S + component + $S, false)",
+                      DRIVER_STATION_ERRORS_TYPE,
+                      "[AdvantageKit] Field \"",
+                      "\" for record type \""
+                          + recordElement.getSimpleName()
+                          + "\" is null and will be logged as zero. Later null fields of this"
+                          + " type are not reported.")
+                  .endControlFlow()
+                  .build());
+    }
+
+    TypeSpec type =
+        typeBuilder
+            .addField(
+                FieldSpec.builder(
+                        int.class, "size", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("$L$L", size, sizeCode.build())
+                    .build())
+            .addField(
+                FieldSpec.builder(
+                        String.class, "schema", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializer(CodeBlock.join(schemaParts, " + "))
+                    .build())
+            .addMethod(
+                MethodSpec.methodBuilder("getTypeClass")
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(ParameterizedTypeName.get(ClassName.get(Class.class), recordType))
+                    .addStatement("return $T.class", recordType)
+                    .build())
+            .addMethod(
+                MethodSpec.methodBuilder("getTypeName")
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(String.class)
+                    .addStatement("return $S", recordElement.getSimpleName().toString())
+                    .build())
+            .addMethod(
+                MethodSpec.methodBuilder("getSize")
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(int.class)
+                    .addStatement("return size")
+                    .build())
+            .addMethod(
+                MethodSpec.methodBuilder("getSchema")
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(String.class)
+                    .addStatement("return schema")
+                    .build())
+            .addMethod(
+                MethodSpec.methodBuilder("getNested")
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(
+                        ArrayTypeName.of(
+                            ParameterizedTypeName.get(
+                                STRUCT_TYPE, WildcardTypeName.subtypeOf(Object.class))))
+                    .addStatement(
+                        "return new $T<?>[] {$L}",
+                        STRUCT_TYPE,
+                        CodeBlock.join(nestedStructs, ", "))
+                    .build())
+            .addMethod(
+                MethodSpec.methodBuilder("unpack")
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .addParameter(BYTE_BUFFER_TYPE, "bb")
+                    .returns(recordType)
+                    .addStatement(
+                        "return new $T($L)", recordType, CodeBlock.join(unpackArgs, ", "))
+                    .build())
+            .addMethod(
+                MethodSpec.methodBuilder("pack")
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .addParameter(BYTE_BUFFER_TYPE, "bb")
+                    .addParameter(recordType, "value")
+                    .addCode(packCode.build())
+                    .build())
+            .addMethod(
+                MethodSpec.methodBuilder("isImmutable")
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(boolean.class)
+                    .addStatement("return true")
+                    .build())
+            .build();
+
+    JavaFile file = JavaFile.builder(structPackage, type).build();
+    try {
+      file.writeTo(processingEnv.getFiler());
+    } catch (IOException e) {
+      processingEnv
+          .getMessager()
+          .printMessage(Diagnostic.Kind.ERROR, "Failed to write class", recordElement);
+      e.printStackTrace();
+      return false;
+    }
+    generatedRecordStructs.put(recordElement, true);
+    return true;
+  }
+
+  /** Reports a record component that cannot be packed by a generated struct. */
+  private void reportUnsupportedComponent(TypeElement recordElement, String name) {
+    processingEnv
+        .getMessager()
+        .printMessage(
+            Diagnostic.Kind.WARNING,
+            "[AutoLog] Cannot generate a struct for \""
+                + recordElement.getSimpleName()
+                + "\" because \""
+                + name
+                + "\" uses an unsupported type",
+            recordElement);
+  }
+
+  /** Returns whether a class and all enclosing classes can be accessed from a package. */
+  private static boolean isAccessible(TypeElement element, String packageName) {
+    boolean samePackage = packageName.equals(getPackageName(element));
+    Element e = element;
+    while (e instanceof TypeElement typeElement) {
+      Set<Modifier> modifiers = typeElement.getModifiers();
+      if (samePackage
+          ? modifiers.contains(Modifier.PRIVATE)
+          : !modifiers.contains(Modifier.PUBLIC)) {
+        return false;
+      }
+      e = e.getEnclosingElement();
+    }
+    return true;
+  }
+
+  /**
+   * Returns the condition for whether a field differs from the last value written. Floating point
+   * values are compared by their bits, matching how they are compared by the table.
+   */
+  private static CodeBlock getChangedCondition(String fieldType, String name, String lastName) {
+    return switch (fieldType) {
+      case "boolean", "int", "long" -> CodeBlock.of("$L != $L", name, lastName);
+      case "float" ->
+          CodeBlock.of(
+              "$T.floatToIntBits($L) != $T.floatToIntBits($L)",
+              Float.class,
+              name,
+              Float.class,
+              lastName);
+      case "double" ->
+          CodeBlock.of(
+              "$T.doubleToLongBits($L) != $T.doubleToLongBits($L)",
+              Double.class,
+              name,
+              Double.class,
+              lastName);
+      case "java.lang.String" -> CodeBlock.of("!$T.equals($L, $L)", Objects.class, name, lastName);
+      default -> CodeBlock.of("!$T.equals($L, $L)", Arrays.class, name, lastName);
+    };
+  }
+
+  /**
+   * Generates a registrar for each class with members annotated with {@code @AutoLogOutput}, which
+   * registers the members without scanning the class at runtime.
+   */
+  private void processOutputs(TypeElement annotation, RoundEnvironment roundEnv) {
+    Set<TypeElement> classElements = new LinkedHashSet<>();
+    roundEnv
+        .getElementsAnnotatedWith(annotation)
+        .forEach(
+            memberElement -> {
+              Element enclosing = memberElement.getEnclosingElement();
+              if (enclosing instanceof TypeElement typeElement
+                  && !typeElement.getKind().isInterface()
+                  && isNamed(typeElement)) {
+                classElements.add(typeElement);
+              }
+            });
+
+    for (TypeElement classElement : classElements) {
+      String registrarPackage = getPackageName(classElement);
+      String registrarClassName = getNestedName(classElement) + "AutoLogOutputs";
+      MethodSpec.Builder registerBuilder =
+          MethodSpec.methodBuilder("register")
+              .addAnnotation(Override.class)
+              .addModifiers(Modifier.PUBLIC)
+              .addParameter(OUTPUT_REGISTRATION_TYPE, "registration")
+              .addException(ReflectiveOperationException.class);
+
+      // Add annotated methods, followed by fields in declaration order
+      for (Element memberElement : classElement.getEnclosedElements()) {
+        if (memberElement.getKind().equals(ElementKind.METHOD)
+            && ((ExecutableElement) memberElement).getParameters().isEmpty()) {
+          AnnotationMirror mirror = getAnnotationMirror(memberElement, annotation);
+          if (mirror != null) {
+            addOutput(registerBuilder, "addMethod", classElement, memberElement, mirror);
+          }
+        }
+      }
+      for (Element memberElement : classElement.getEnclosedElements()) {
+        if (memberElement.getKind().equals(ElementKind.FIELD)) {
+          AnnotationMirror mirror = getAnnotationMirror(memberElement, annotation);
+          if (mirror != null) {
+            addOutput(registerBuilder, "addField", classElement, memberElement, mirror);
+          } else if (!memberElement.asType().getKind().isPrimitive()) {
+            // Scan value for more outputs
+            registerBuilder.addCode(
+                "registration.addChild($S);\n", memberElement.getSimpleName().toString());
+          }
+        }
+      }
+
+      TypeSpec type =
+          TypeSpec.classBuilder(registrarClassName)
+              .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+              .addSuperinterface(OUTPUT_REGISTRAR_TYPE)
+              .addMethod(registerBuilder.build())
+              .build();
+
+      JavaFile file = JavaFile.builder(registrarPackage, type).build();
+      try {
+        file.writeTo(processingEnv.getFiler());
+      } catch (IOException e) {
+        processingEnv
+            .getMessager()
+            .printMessage(Diagnostic.Kind.ERROR, "Failed to write class", classElement);
+        e.printStackTrace();
+      }
+    }
+  }
+
+  /** Adds the code to register an annotated field or method. */
+  private void addOutput(
+      MethodSpec.Builder registerBuilder,
+      String registrationMethod,
+      TypeElement classElement,
+      Element memberElement,
+      AnnotationMirror mirror) {
+    String name = memberElement.getSimpleName().toString();
+    String key = "";
+    boolean forceSerializable = false;
+    String unit = "";
+    for (var entry :
+        processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+      Object value = entry.getValue().getValue();
+      switch (entry.getKey().getSimpleName().toString()) {
+        case "key" -> key = (String) value;
+        case "forceSerializable" -> forceSerializable = (Boolean) value;
+        case "unit" -> unit = (String) value;
+        default -> {}
+      }
+    }
+
+    // Generate default key from class and member names
+    if (key.isEmpty()) {
+      String valueName = name;
+      if (valueName.startsWith("get") && valueName.length() > 3) {
+        valueName = valueName.substring(3);
+      }
+      key =
+          classElement.getSimpleName()
+              + "/"
+              + valueName.substring(0, 1).toUpperCase()
+              + valueName.substring(1);
+    }
+
+    registerBuilder.addCode(
+        "registration.$L($S, $S, $L, $S);\n",
+        registrationMethod,
+        name,
+        key,
+        forceSerializable,
+        unit);
+  }
+
+  /** Returns the mirror of an annotation on an element, or null if not present. */
+  private static AnnotationMirror getAnnotationMirror(Element element, TypeElement annotation) {
+    for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+      if (mirror.getAnnotationType().asElement().equals(annotation)) {
+        return mirror;
+      }
+    }
+    return null;
+  }
+
+  /** Returns whether a class and all enclosing classes are top-level or member classes. */
+  private static boolean isNamed(TypeElement element) {
+    Element e = element;
+    while (e instanceof TypeElement typeElement) {
+      NestingKind nesting = typeElement.getNestingKind();
+      if (nesting != NestingKind.TOP_LEVEL && nesting != NestingKind.MEMBER) {
+        return false;
+      }
+      e = e.getEnclosingElement();
+    }
+    return true;
+  }
+
+  /** Returns the names of a class and its enclosing classes, separated by underscores. */
+  private static String getNestedName(TypeElement element) {
+    String name = element.getSimpleName().toString();
+    Element e = element.getEnclosingElement();
+    while (e instanceof TypeElement typeElement) {
+      name = typeElement.getSimpleName() + "_" + name;
+      e = e.getEnclosingElement();
+    }
+    return name;
+  }
+
   @Override
   public SourceVersion getSupportedSourceVersion() {
     return SourceVersion.latestSupported();
@@ -209,6 +843,7 @@ public class AutoLogAnnotationProcessor extends AbstractProcessor {
 
   @Override
   public Set<String> getSupportedAnnotationTypes() {
-    return Set.of("org.littletonrobotics.junction.AutoLog");
+    return Set.of(
+        "org.littletonrobotics.junction.AutoLog", "org.littletonrobotics.junction.AutoLogOutput");
   }
 }
@@ -14,7 +14,8 @@ import java.lang.annotation.Target;
 
 /**
  * Generate a corresponding auto-logged inputs class implementing {@link
- * org.littletonrobotics.junction.inputs.LoggableInputs LoggableInputs}. Check the <a href=
+ * org.littletonrobotics.junction.inputs.LoggableInputs LoggableInputs}. When applied to a record,
+ * generate a struct implementation for logging the record instead. Check the <a href=
  * "https://docs.advantagekit.org/data-flow/recording-inputs/annotation-logging">documentation</a>
  * for details.
  */
@@ -7,13 +7,18 @@
 
 package org.littletonrobotics.junction;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Member;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.BooleanSupplier;
 import java.util.function.DoubleSupplier;
@@ -30,11 +35,17 @@ import org.wpilib.util.struct.StructSerializable;
 /**
  * Manages objects and packages for annotation logging of outputs with {@link
  * org.littletonrobotics.junction.AutoLogOutput AutoLogOutput}.
+ *
+ * <p>Values are read using method handles resolved when each object is registered. Primitive values
+ * are read without boxing, and the logging method for each type is selected once during
+ * registration.
  */
 public class AutoLogOutputManager {
   private static final List<Runnable> callbacks = new ArrayList<>();
   private static final List<Integer> scannedObjectHashes = new ArrayList<>();
   private static final Set<String> allowedPackages = new HashSet<>();
+  private static final Map<Class<?>, Registrar> registrars = new HashMap<>();
+  private static final Set<Member> inaccessibleMembers = new HashSet<>(); // Already reported
 
   private AutoLogOutputManager() {}
 
@@ -101,136 +112,240 @@ public class AutoLogOutputManager {
       return;
     }
 
-    // Loop over declared methods
-    getAllMethods(root.getClass())
-        .forEach(
-            (methodAndDeclaringClass) -> {
-              Method method = methodAndDeclaringClass.method;
-              Class<?> declaringClass = methodAndDeclaringClass.declaringClass;
-              if (!method.trySetAccessible()) return;
-
-              // If annotated, try to add
-              if (method.isAnnotationPresent(AutoLogOutput.class)) {
-                // Exit if invalid signature
-                if (method.getReturnType().equals(Void.TYPE)
-                    || method.getParameterCount() > 0
-                    || method.getExceptionTypes().length > 0) {
-                  return;
-                }
+    // Register members declared by each class, using the generated registrar if available
+    Class<?> type = root.getClass();
+    while (type != null && type != Object.class) {
+      if (!registerGenerated(root, type)) {
+        scanClass(root, type);
+      }
+      type = type.getSuperclass();
+    }
+  }
 
-                // Get parameters
-                AutoLogOutput annotation = method.getAnnotation(AutoLogOutput.class);
-                String key = makeKey(annotation.key(), method.getName(), declaringClass, root);
-                boolean forceSerializable = annotation.forceSerializable();
-                String unit = annotation.unit();
-
-                // Register method
-                registerField(
-                    key,
-                    method.getReturnType(),
-                    () -> {
-                      try {
-                        return method.invoke(root);
-                      } catch (IllegalAccessException
-                          | IllegalArgumentException
-                          | InvocationTargetException e) {
-                        e.printStackTrace();
-                        return null;
-                      }
-                    },
-                    forceSerializable,
-                    unit);
-              }
-            });
+  /**
+   * Registers the members declared by a class using the registrar generated by the AutoLog
+   * annotation processor.
+   *
+   * @return Whether a registrar was found and completed successfully.
+   */
+  private static boolean registerGenerated(Object root, Class<?> type) {
+    Registrar registrar = getRegistrar(type);
+    if (registrar == null) {
+      return false;
+    }
+    int callbackCount = callbacks.size();
+    Registration registration = new Registration(root, type);
+    try {
+      registrar.register(registration);
+    } catch (ReflectiveOperationException e) {
+      // Registrar is out of date, remove its callbacks and scan the class instead
+      callbacks.subList(callbackCount, callbacks.size()).clear();
+      return false;
+    }
 
-    // Loop over declared fields
-    getAllFields(root.getClass())
-        .forEach(
-            (fieldAndDeclaringClass) -> {
-              Field field = fieldAndDeclaringClass.field;
-              Class<?> declaringClass = fieldAndDeclaringClass.declaringClass;
-              if (!field.trySetAccessible()) return;
-
-              // If annotated, try to add
-              if (field.isAnnotationPresent(AutoLogOutput.class)) {
-                // Get parameters
-                AutoLogOutput annotation = field.getAnnotation(AutoLogOutput.class);
-                String key = makeKey(annotation.key(), field.getName(), declaringClass, root);
-                boolean forceSerializable = annotation.forceSerializable();
-                String unit = annotation.unit();
-
-                // Register field
-                registerField(
-                    key,
-                    field.getType(),
-                    () -> {
-                      try {
-                        return field.get(root);
-                      } catch (IllegalArgumentException | IllegalAccessException e) {
-                        e.printStackTrace();
-                        return null;
-                      }
-                    },
-                    forceSerializable,
-                    unit);
-                return;
-              }
+    // Scan child objects
+    for (Field field : registration.children) {
+      scanField(root, field);
+    }
+    return true;
+  }
 
-              // Scan field value
-              Object fieldValue = null;
-              try {
-                fieldValue = field.get(root);
-              } catch (IllegalArgumentException | IllegalAccessException e) {
-                return;
-              }
-              if (fieldValue != null) {
-                addObjectImpl(fieldValue);
-              }
-            });
+  /** Returns the generated registrar for a class, or null if none exists. */
+  private static Registrar getRegistrar(Class<?> type) {
+    if (registrars.containsKey(type)) {
+      return registrars.get(type);
+    }
+    Registrar registrar = null;
+    String packageName = type.getPackageName();
+    String className =
+        type.getName().substring(packageName.isEmpty() ? 0 : packageName.length() + 1);
+    String registrarName =
+        (packageName.isEmpty() ? "" : packageName + ".")
+            + className.replace('$', '_')
+            + "AutoLogOutputs";
+    try {
+      Class<?> registrarClass = Class.forName(registrarName, true, type.getClassLoader());
+      if (Registrar.class.isAssignableFrom(registrarClass)) {
+        registrar = (Registrar) registrarClass.getDeclaredConstructor().newInstance();
+      }
+    } catch (ReflectiveOperationException | LinkageError e) {
+      // No registrar, use reflection
+    }
+    registrars.put(type, registrar);
+    return registrar;
   }
 
-  /** Returns the set of all methods on the class and its superclasses (public and private). */
-  private static List<MethodAndDeclaringClass> getAllMethods(Class<?> type) {
-    List<MethodAndDeclaringClass> methods = new ArrayList<>();
-    while (type != null && type != Object.class) {
-      for (Method method : type.getDeclaredMethods()) {
-        methods.add(new MethodAndDeclaringClass(method, type));
+  /** Registers the members declared by a class by scanning all fields and methods. */
+  private static void scanClass(Object root, Class<?> type) {
+    // Loop over declared methods
+    for (Method method : type.getDeclaredMethods()) {
+      AutoLogOutput annotation = method.getAnnotation(AutoLogOutput.class);
+      if (annotation != null) {
+        String key = makeKey(annotation.key(), method.getName(), type, root);
+        registerMethod(root, method, key, annotation.forceSerializable(), annotation.unit());
+      }
+    }
+
+    // Loop over declared fields
+    for (Field field : type.getDeclaredFields()) {
+      AutoLogOutput annotation = field.getAnnotation(AutoLogOutput.class);
+      if (annotation != null) {
+        String key = makeKey(annotation.key(), field.getName(), type, root);
+        registerField(root, field, key, annotation.forceSerializable(), annotation.unit());
+      } else {
+        scanField(root, field);
       }
-      type = type.getSuperclass();
     }
-    return methods;
   }
 
-  private static class MethodAndDeclaringClass {
-    public final Method method;
-    public final Class<?> declaringClass;
+  /** Registers an annotated method. */
+  private static void registerMethod(
+      Object root, Method method, String key, boolean forceSerializable, String unit) {
+    if (!method.trySetAccessible()) {
+      reportInaccessible(method);
+      return;
+    }
 
-    public MethodAndDeclaringClass(Method method, Class<?> declaringClass) {
-      this.method = method;
-      this.declaringClass = declaringClass;
+    // Exit if invalid signature
+    if (method.getReturnType().equals(Void.TYPE)
+        || method.getParameterCount() > 0
+        || method.getExceptionTypes().length > 0) {
+      return;
     }
+
+    // Register method
+    MethodHandle getter;
+    try {
+      getter = MethodHandles.lookup().unreflect(method);
+    } catch (IllegalAccessException e) {
+      reportInaccessible(method);
+      return;
+    }
+    if (!Modifier.isStatic(method.getModifiers())) {
+      getter = getter.bindTo(root);
+    }
+    registerField(key, method.getReturnType(), getter, forceSerializable, unit);
   }
-  ;
 
-  /** Returns the set of all fields in the class and its superclasses (public and private). */
-  private static List<FieldAndDeclaringClass> getAllFields(Class<?> type) {
-    List<FieldAndDeclaringClass> fields = new ArrayList<>();
-    while (type != null && type != Object.class) {
-      for (Field field : type.getDeclaredFields()) {
-        fields.add(new FieldAndDeclaringClass(field, type));
-      }
-      type = type.getSuperclass();
+  /** Registers an annotated field. */
+  private static void registerField(
+      Object root, Field field, String key, boolean forceSerializable, String unit) {
+    if (!field.trySetAccessible()) {
+      reportInaccessible(field);
+      return;
+    }
+    MethodHandle getter;
+    try {
+      getter = MethodHandles.lookup().unreflectGetter(field);
+    } catch (IllegalAccessException e) {
+      reportInaccessible(field);
+      return;
+    }
+    if (!Modifier.isStatic(field.getModifiers())) {
+      getter = getter.bindTo(root);
+    }
+    registerField(key, field.getType(), getter, forceSerializable, unit);
+  }
+
+  /** Reports an annotated member that can't be read, once per member. */
+  private static void reportInaccessible(Member member) {
+    if (inaccessibleMembers.add(member)) {
+      DriverStationErrors.reportWarning(
+          "[AdvantageKit] Cannot access \""
+              + member.getDeclaringClass().getSimpleName()
+              + "."
+              + member.getName()
+              + "\" for @AutoLogOutput, it will not be logged.",
+          false);
+    }
+  }
+
+  /** Scans the value of a field that is not annotated. */
+  private static void scanField(Object root, Field field) {
+    if (!field.trySetAccessible()) return;
+    Object fieldValue = null;
+    try {
+      fieldValue = field.get(root);
+    } catch (IllegalArgumentException | IllegalAccessException e) {
+      return;
     }
-    return fields;
+    if (fieldValue != null) {
+      addObjectImpl(fieldValue);
+    }
+  }
+
+  /**
+   * Registers the {@code @AutoLogOutput} members declared by a single class. Implementations are
+   * generated by the AutoLog annotation processor and named after the class with the suffix
+   * "AutoLogOutputs". This interface is not intended for use in robot code.
+   */
+  public interface Registrar {
+    /**
+     * Registers the members of the class.
+     *
+     * @param registration The registration for an instance of the class.
+     * @throws ReflectiveOperationException If a member cannot be found.
+     */
+    void register(Registration registration) throws ReflectiveOperationException;
   }
 
-  private static class FieldAndDeclaringClass {
-    public final Field field;
-    public final Class<?> declaringClass;
+  /**
+   * The registration of the members declared by a class for a single object, used by generated
+   * registrars. This class is not intended for use in robot code.
+   */
+  public static final class Registration {
+    private final Object root;
+    private final Class<?> type;
+    private final List<Field> children = new ArrayList<>();
+
+    private Registration(Object root, Class<?> type) {
+      this.root = root;
+      this.type = type;
+    }
+
+    /**
+     * Registers an annotated method with no parameters.
+     *
+     * @param name The name of the method.
+     * @param key The log key, which may reference fields using {...}.
+     * @param forceSerializable Whether or not to always use a serialized data method.
+     * @param unit The unit metadata.
+     * @throws NoSuchMethodException If the method cannot be found.
+     */
+    public void addMethod(String name, String key, boolean forceSerializable, String unit)
+        throws NoSuchMethodException {
+      Method method = type.getDeclaredMethod(name);
+      registerMethod(root, method, fillKey(key), forceSerializable, unit);
+    }
+
+    /**
+     * Registers an annotated field.
+     *
+     * @param name The name of the field.
+     * @param key The log key, which may reference fields using {...}.
+     * @param forceSerializable Whether or not to always use a serialized data method.
+     * @param unit The unit metadata.
+     * @throws NoSuchFieldException If the field cannot be found.
+     */
+    public void addField(String name, String key, boolean forceSerializable, String unit)
+        throws NoSuchFieldException {
+      Field field = type.getDeclaredField(name);
+      registerField(root, field, fillKey(key), forceSerializable, unit);
+    }
+
+    /**
+     * Registers a field that is not annotated, whose value is scanned for more outputs.
+     *
+     * @param name The name of the field.
+     * @throws NoSuchFieldException If the field cannot be found.
+     */
+    public void addChild(String name) throws NoSuchFieldException {
+      children.add(type.getDeclaredField(name));
+    }
 
-    public FieldAndDeclaringClass(Field field, Class<?> declaringClass) {
-      this.field = field;
-      this.declaringClass = declaringClass;
+    /** Fills in the field values referenced by a key. */
+    private String fillKey(String key) {
+      return key.indexOf('{') == -1 ? key : makeKey(key, null, type, root);
     }
   }
 
@@ -311,17 +426,39 @@ public class AutoLogOutputManager {
     }
   }
 
+  /**
+   * Creates a supplier for the values of a reference type from a getter. Returns null if the getter
+   * throws an exception.
+   */
+  private static Supplier<?> createSupplier(MethodHandle getter) {
+    MethodHandle handle = getter.asType(MethodType.methodType(Object.class));
+    return () -> {
+      try {
+        return (Object) handle.invokeExact();
+      } catch (Throwable e) {
+        e.printStackTrace();
+        return null;
+      }
+    };
+  }
+
   /**
    * Registers the periodic callback for a single field.
    *
    * @param key The string key to use for logging.
    * @param type The type of object being logged.
-   * @param supplier A supplier for the field values.
+   * @param getter A method handle with no parameters that returns the field values.
    * @param forceSerializable Whether or not to always use a serialized data method.
    * @param unit The unit metadata.
    */
   private static void registerField(
-      String key, Class<?> type, Supplier<?> supplier, boolean forceSerializable, String unit) {
+      String key, Class<?> type, MethodHandle getter, boolean forceSerializable, String unit) {
+    // Primitive types are read without boxing
+    if (!forceSerializable && registerPrimitiveField(key, type, getter, unit)) {
+      return;
+    }
+
+    Supplier<?> supplier = createSupplier(getter);
     if (forceSerializable) {
       callbacks.add(
           () -> {
@@ -341,54 +478,7 @@ public class AutoLogOutputManager {
 
     if (!type.isArray()) {
       // Single types
-      if (type.equals(boolean.class)) {
-        callbacks.add(
-            () -> {
-              Object value = supplier.get();
-              if (value != null) Logger.recordOutput(key, (boolean) value);
-            });
-      } else if (type.equals(int.class)) {
-        callbacks.add(
-            () -> {
-              Object value = supplier.get();
-              if (value != null) Logger.recordOutput(key, (int) value);
-            });
-      } else if (type.equals(long.class)) {
-        callbacks.add(
-            () -> {
-              Object value = supplier.get();
-              if (value != null) Logger.recordOutput(key, (long) value);
-            });
-      } else if (type.equals(float.class)) {
-        if (unit.length() > 0) {
-          callbacks.add(
-              () -> {
-                Object value = supplier.get();
-                if (value != null) Logger.recordOutput(key, (float) value, unit);
-              });
-        } else {
-          callbacks.add(
-              () -> {
-                Object value = supplier.get();
-                if (value != null) Logger.recordOutput(key, (float) value);
-              });
-        }
-
-      } else if (type.equals(double.class)) {
-        if (unit.length() > 0) {
-          callbacks.add(
-              () -> {
-                Object value = supplier.get();
-                if (value != null) Logger.recordOutput(key, (double) value, unit);
-              });
-        } else {
-          callbacks.add(
-              () -> {
-                Object value = supplier.get();
-                if (value != null) Logger.recordOutput(key, (double) value);
-              });
-        }
-      } else if (type.equals(String.class)) {
+      if (type.equals(String.class)) {
         callbacks.add(
             () -> {
               Object value = supplier.get();
@@ -633,4 +723,93 @@ public class AutoLogOutputManager {
       }
     }
   }
+
+  /**
+   * Registers the periodic callback for a single field with a primitive type. Values are skipped if
+   * the getter throws an exception.
+   *
+   * @return Whether the type is a supported primitive type.
+   */
+  private static boolean registerPrimitiveField(
+      String key, Class<?> type, MethodHandle getter, String unit) {
+    if (type.equals(boolean.class)) {
+      MethodHandle handle = getter.asType(MethodType.methodType(boolean.class));
+      callbacks.add(
+          () -> {
+            boolean value;
+            try {
+              value = (boolean) handle.invokeExact();
+            } catch (Throwable e) {
+              e.printStackTrace();
+              return;
+            }
+            Logger.recordOutput(key, value);
+          });
+    } else if (type.equals(int.class)) {
+      MethodHandle handle = getter.asType(MethodType.methodType(int.class));
+      callbacks.add(
+          () -> {
+            int value;
+            try {
+              value = (int) handle.invokeExact();
+            } catch (Throwable e) {
+              e.printStackTrace();
+              return;
+            }
+            Logger.recordOutput(key, value);
+          });
+    } else if (type.equals(long.class)) {
+      MethodHandle handle = getter.asType(MethodType.methodType(long.class));
+      callbacks.add(
+          () -> {
+            long value;
+            try {
+              value = (long) handle.invokeExact();
+            } catch (Throwable e) {
+              e.printStackTrace();
+              return;
+            }
+            Logger.recordOutput(key, value);
+          });
+    } else if (type.equals(float.class)) {
+      MethodHandle handle = getter.asType(MethodType.methodType(float.class));
+      boolean hasUnit = unit.length() > 0;
+      callbacks.add(
+          () -> {
+            float value;
+            try {
+              value = (float) handle.invokeExact();
+            } catch (Throwable e) {
+              e.printStackTrace();
+              return;
+            }
+            if (hasUnit) {
+              Logger.recordOutput(key, value, unit);
+            } else {
+              Logger.recordOutput(key, value);
+            }
+          });
+    } else if (type.equals(double.class)) {
+      MethodHandle handle = getter.asType(MethodType.methodType(double.class));
+      boolean hasUnit = unit.length() > 0;
+      callbacks.add(
+          () -> {
+            double value;
+            try {
+              value = (double) handle.invokeExact();
+            } catch (Throwable e) {
+              e.printStackTrace();
+              return;
+            }
+            if (hasUnit) {
+              Logger.recordOutput(key, value, unit);
+            } else {
+              Logger.recordOutput(key, value);
+            }
+          });
+    } else {
+      return false;
+    }
+    return true;
+  }
 }
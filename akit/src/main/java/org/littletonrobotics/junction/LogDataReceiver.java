@@ -32,4 +32,16 @@ public interface LogDataReceiver {
    * @throws InterruptedException If interrupted while processing.
    */
   public void putTable(LogTable table) throws InterruptedException;
+
+  /**
+   * Returns whether this receiver stops using each table, including any values read from it, once
+   * the following call to {@link #putTable(LogTable)} returns. If every receiver does, the arrays
+   * of struct and protobuf values are reused once no receiver can reference them, so logging those
+   * values does not allocate.
+   *
+   * @return Whether each table is released after the next call to putTable. False by default.
+   */
+  public default boolean releasesPreviousTable() {
+    return false;
+  }
 }
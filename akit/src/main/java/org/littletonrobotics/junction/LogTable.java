@@ -12,13 +12,18 @@ import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.littletonrobotics.junction.inputs.LoggableInputs;
 import org.wpilib.driverstation.DriverStationErrors;
 import org.wpilib.units.Measure;
@@ -38,162 +43,1081 @@ public class LogTable {
   private final String prefix;
   private final int depth;
   private final SharedTimestamp timestamp;
-  private final Map<String, LogValue> data;
-  private final Map<String, StructBuffer<?>> structBuffers;
+  private final FieldStore data;
+  private final Map<String, Integer> fieldIds = new ConcurrentHashMap<>();
+  private final Map<String, LogTable> subtables = new ConcurrentHashMap<>();
+  private final Map<String, StructEntry> structEntries;
   private final Map<String, ProtobufBuffer<?, ?>> protoBuffers;
   private final Map<String, Struct<?>> structTypeCache;
   private final Map<String, Protobuf<?, ?>> protoTypeCache;
 
+  /**
+   * Cached serialization state for a struct type, keyed by the type string. Keying by type rather
+   * than by struct instance bounds the cache when a new struct object is created for each write.
+   */
+  private static class StructEntry {
+    public final Struct<?> struct;
+    public final StructBuffer<?> buffer;
+    public final String typeStr;
+    public final String arrayTypeStr;
+    public boolean schemaAdded = false;
+
+    public StructEntry(Struct<?> struct, String typeStr) {
+      this.struct = struct;
+      buffer = StructBuffer.create(struct);
+      this.typeStr = typeStr;
+      arrayTypeStr = typeStr + "[]";
+    }
+
+    /** Returns whether the struct serializes the same class as the struct for this entry. */
+    public boolean matches(Struct<?> other) {
+      return other == struct
+          || (other.getClass() == struct.getClass()
+              && other.getTypeClass() == struct.getTypeClass());
+    }
+  }
+
   /** Timestamp wrapper to enable passing by reference to subtables. */
   private static class SharedTimestamp {
     public long value = 0;
 
-    public SharedTimestamp(long value) {
-      this.value = value;
+    public SharedTimestamp(long value) {
+      this.value = value;
+    }
+  }
+
+  /**
+   * Assigns a dense integer ID to each full key. IDs are never reused, so the index can be shared
+   * between a table and all of its copies. Lookups are safe from any thread.
+   */
+  private static class KeyIndex {
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] keys = new String[256];
+    private volatile int size = 0;
+
+    /** Returns the ID for the key, or -1 if the key has never been written. */
+    public int find(String key) {
+      Integer id = ids.get(key);
+      return id == null ? -1 : id;
+    }
+
+    /** Returns the ID for the key, assigning a new ID if necessary. */
+    public synchronized int intern(String key) {
+      Integer id = ids.get(key);
+      if (id != null) {
+        return id;
+      }
+      if (size == keys.length) {
+        String[] newKeys = Arrays.copyOf(keys, size * 2);
+        newKeys[size] = key;
+        keys = newKeys;
+      } else {
+        keys[size] = key;
+      }
+      ids.put(key, size);
+      return size++;
+    }
+
+    public String getKey(int id) {
+      return keys[id];
+    }
+
+    public int size() {
+      return size;
+    }
+  }
+
+  /**
+   * Field values stored by ID. Values are split into fixed-size chunks which are shared between a
+   * store and its copies, and a chunk is only duplicated when it is first written after a copy.
+   * Copying therefore costs one pointer per chunk, and the chunks that are never written again are
+   * never duplicated.
+   *
+   * <p>Scalars are stored as a LogValue holding the type and unit, plus the bits of the current
+   * value in a primitive slot of the chunk. Writing a new scalar value only updates the slot (which
+   * is duplicated along with its chunk), so no LogValue is allocated. Stored values are never
+   * modified, and a LogValue with the current bits is created when a changed scalar is read.
+   *
+   * <p>Writes of a value equal to the current value are skipped, so an unchanged field keeps the
+   * same value object across copies. The IDs of changed fields are recorded until the next copy,
+   * which takes ownership of the list.
+   */
+  private static class FieldStore {
+    private static final int chunkShift = 6;
+    private static final int chunkSize = 1 << chunkShift;
+    private static final int chunkMask = chunkSize - 1;
+
+    public final KeyIndex index;
+    private LogValue[][] chunks;
+    private long[][] bitChunks; // Current value of each scalar, parallel to chunks
+    private long[] chunkGenerations; // Chunks from an older generation are shared with a copy
+    private long generation;
+
+    private int[] changedIds = new int[64];
+    private int changedCount = 0;
+    private long[] changedGenerations = new long[0]; // Generation + 1 when last recorded, by ID
+
+    private ValuePool pool = null; // Replaced serialized values, or null if not recycled
+
+    private final FieldStore source; // The store this was copied from, or null
+    private final long sourceGeneration; // The generation of the source when copied
+    private final int[] sourceChangedIds; // IDs changed in the source since its previous copy
+
+    public FieldStore(KeyIndex index) {
+      this(index, new LogValue[4][], new long[4][], new long[4], 0, null, 0, null);
+    }
+
+    private FieldStore(
+        KeyIndex index,
+        LogValue[][] chunks,
+        long[][] bitChunks,
+        long[] chunkGenerations,
+        long generation,
+        FieldStore source,
+        long sourceGeneration,
+        int[] sourceChangedIds) {
+      this.index = index;
+      this.chunks = chunks;
+      this.bitChunks = bitChunks;
+      this.chunkGenerations = chunkGenerations;
+      this.generation = generation;
+      this.source = source;
+      this.sourceGeneration = sourceGeneration;
+      this.sourceChangedIds = sourceChangedIds;
+    }
+
+    /**
+     * Returns the stored value, without the current value of a scalar. Used to check the type of a
+     * field without creating a LogValue.
+     */
+    public LogValue getStored(int id) {
+      if (id < 0) {
+        return null;
+      }
+      int chunk = id >>> chunkShift;
+      if (chunk >= chunks.length || chunks[chunk] == null) {
+        return null;
+      }
+      return chunks[chunk][id & chunkMask];
+    }
+
+    /** Returns the current value of a scalar field, which must be present. */
+    public long getBits(int id) {
+      return bitChunks[id >>> chunkShift][id & chunkMask];
+    }
+
+    public LogValue get(int id) {
+      LogValue value = getStored(id);
+      if (value != null && value.isScalar()) {
+        long bits = getBits(id);
+        if (bits != value.bits) {
+          return new LogValue(value, bits);
+        }
+      }
+      return value;
+    }
+
+    public void set(int id, LogValue value) {
+      LogValue currentValue = getStored(id);
+      boolean unchanged =
+          currentValue != null && currentValue.isScalar()
+              ? value.equalsScalar(currentValue, getBits(id))
+              : currentValue == value || value.equals(currentValue);
+      if (unchanged) {
+        return;
+      }
+      int chunk = getWritableChunk(id);
+      chunks[chunk][id & chunkMask] = value;
+      bitChunks[chunk][id & chunkMask] = value.bits;
+      recordChange(id);
+    }
+
+    /**
+     * Writes a new value to a scalar field, if the field already holds a scalar of the same type
+     * and unit. No LogValue is created.
+     *
+     * @return Whether the field holds a matching scalar, so the value was written or unchanged.
+     */
+    public boolean setScalar(int id, LoggableType type, long bits, String unitStr) {
+      LogValue currentValue = getStored(id);
+      if (currentValue == null
+          || currentValue.type != type
+          || currentValue.customTypeStr != null
+          || !Objects.equals(currentValue.unitStr, unitStr)) {
+        return false;
+      }
+      if (getBits(id) != bits) {
+        int chunk = getWritableChunk(id);
+        bitChunks[chunk][id & chunkMask] = bits;
+        recordChange(id);
+      }
+      return true;
+    }
+
+    /** Returns the index of the chunk containing an ID, duplicating it if shared with a copy. */
+    private int getWritableChunk(int id) {
+      int chunk = id >>> chunkShift;
+      if (chunk >= chunks.length) {
+        int length = Math.max(chunk + 1, chunks.length * 2);
+        chunks = Arrays.copyOf(chunks, length);
+        bitChunks = Arrays.copyOf(bitChunks, length);
+        chunkGenerations = Arrays.copyOf(chunkGenerations, length);
+      }
+      if (chunks[chunk] == null) {
+        chunks[chunk] = new LogValue[chunkSize];
+        bitChunks[chunk] = new long[chunkSize];
+        chunkGenerations[chunk] = generation;
+      } else if (chunkGenerations[chunk] != generation) {
+        chunks[chunk] = chunks[chunk].clone();
+        bitChunks[chunk] = bitChunks[chunk].clone();
+        chunkGenerations[chunk] = generation;
+      }
+      return chunk;
+    }
+
+    private void recordChange(int id) {
+      if (id >= changedGenerations.length) {
+        changedGenerations =
+            Arrays.copyOf(changedGenerations, Math.max(id + 1, changedGenerations.length * 2));
+      }
+      if (changedGenerations[id] != generation + 1) {
+        changedGenerations[id] = generation + 1;
+        if (changedCount == changedIds.length) {
+          changedIds = Arrays.copyOf(changedIds, changedCount * 2);
+        }
+        changedIds[changedCount++] = id;
+      }
+    }
+
+    public FieldStore copy() {
+      FieldStore copy =
+          new FieldStore(
+              index,
+              chunks.clone(),
+              bitChunks.clone(),
+              new long[chunks.length],
+              1,
+              this,
+              generation,
+              Arrays.copyOf(changedIds, changedCount));
+
+      // Advance the generation so that every existing chunk is treated as shared
+      changedCount = 0;
+      generation++;
+      return copy;
+    }
+
+    /** Returns the index of this store among the copies of its source, or -1 if not a copy. */
+    public long getCopyIndex() {
+      return source == null ? -1 : sourceGeneration;
+    }
+
+    /** Returns whether this store is the next copy of the same source after the other store. */
+    public boolean isNextCopyAfter(FieldStore other) {
+      return source != null
+          && source == other.source
+          && sourceGeneration == other.sourceGeneration + 1;
+    }
+  }
+
+  /**
+   * Serialized values which have been replaced in a table, kept for reuse by later writes to the
+   * same field. Each value is tagged with the latest copy of the table which may reference it, and
+   * is only reused once every receiver has released that copy.
+   */
+  private static class ValuePool {
+    private static final int capacity = 16; // Per field, older values are dropped when full
+
+    /** The replaced values of a single field, oldest first. */
+    private static class Ring {
+      private final PooledValue[] values = new PooledValue[capacity];
+      private final long[] lastCopies = new long[capacity];
+      private int head = 0;
+      private int count = 0;
+
+      private PooledValue remove() {
+        PooledValue value = values[head];
+        values[head] = null;
+        head = (head + 1) % capacity;
+        count--;
+        return value;
+      }
+    }
+
+    private Ring[] rings = new Ring[0]; // Indexed by field ID
+    private long releasedCopy = -1; // Copies up to this index are no longer referenced
+
+    /** Removes and returns the oldest released value of a field, if it has the given length. */
+    public PooledValue take(int id, int length) {
+      Ring ring = id < rings.length ? rings[id] : null;
+      if (ring == null || ring.count == 0 || ring.lastCopies[ring.head] > releasedCopy) {
+        return null;
+      }
+      PooledValue value = ring.remove();
+      return value.getRaw(null).length == length ? value : null;
+    }
+
+    /** Adds a value which was replaced, and may be referenced by copies up to the given index. */
+    public void retire(int id, PooledValue value, long lastCopy) {
+      if (id >= rings.length) {
+        rings = Arrays.copyOf(rings, Math.max(id + 1, rings.length * 2));
+      }
+      Ring ring = rings[id];
+      if (ring == null) {
+        ring = new Ring();
+        rings[id] = ring;
+      } else if (ring.count == capacity) {
+        ring.remove();
+      }
+      int index = (ring.head + ring.count) % capacity;
+      ring.values[index] = value;
+      ring.lastCopies[index] = lastCopy;
+      ring.count++;
+    }
+  }
+
+  /** A serialized value owned by a table, whose array is reused once the value is replaced. */
+  private static final class PooledValue extends LogValue {
+    private PooledValue(byte[] value, String typeStr) {
+      super(value, typeStr);
+    }
+  }
+
+  /** Creates a new LogTable. */
+  private LogTable(
+      String prefix,
+      int depth,
+      SharedTimestamp timestamp,
+      FieldStore data,
+      Map<String, StructEntry> structEntries,
+      Map<String, ProtobufBuffer<?, ?>> protoBuffers,
+      Map<String, Struct<?>> structTypeCache,
+      Map<String, Protobuf<?, ?>> protoTypeCache) {
+    this.prefix = prefix;
+    this.depth = depth;
+    this.timestamp = timestamp;
+    this.data = data;
+    this.structEntries = structEntries;
+    this.protoBuffers = protoBuffers;
+    this.structTypeCache = structTypeCache;
+    this.protoTypeCache = protoTypeCache;
+  }
+
+  /**
+   * Creates a new LogTable, to serve as the root table.
+   *
+   * @param timestamp The timestamp for the table.
+   */
+  public LogTable(long timestamp) {
+    this(
+        "/",
+        0,
+        new SharedTimestamp(timestamp),
+        new FieldStore(new KeyIndex()),
+        new HashMap<>(),
+        new HashMap<>(),
+        new HashMap<>(),
+        new HashMap<>());
+  }
+
+  /**
+   * Creates a new LogTable, to reference a subtable.
+   *
+   * @param prefix The subtable prefix.
+   * @param parent The parent table.
+   */
+  private LogTable(String prefix, LogTable parent) {
+    this(
+        prefix,
+        parent.depth + 1,
+        parent.timestamp,
+        parent.data,
+        parent.structEntries,
+        parent.protoBuffers,
+        parent.structTypeCache,
+        parent.protoTypeCache);
+  }
+
+  /**
+   * Creates a new LogTable, copying data from the given source. The original table can be safely
+   * modified without affecting the copy. Unchanged data is shared between the tables rather than
+   * duplicated.
+   *
+   * @param source The source table.
+   * @return The new table.
+   */
+  public static LogTable clone(LogTable source) {
+    source.data.pool = null; // Other copies aren't tracked, so values can't be reused safely
+    return cloneForReceivers(source);
+  }
+
+  /**
+   * Creates a copy of the table to pass to data receivers. Unlike {@link #clone(LogTable)}, this
+   * does not disable recycling, so receivers must report when each copy is released.
+   */
+  static LogTable cloneForReceivers(LogTable source) {
+    return new LogTable(
+        source.prefix,
+        source.depth,
+        new SharedTimestamp(source.timestamp.value),
+        source.data.copy(),
+        new HashMap<>(),
+        new HashMap<>(),
+        new HashMap<>(),
+        new HashMap<>());
+  }
+
+  /**
+   * Enables or disables reuse of serialized values which have been replaced. When enabled, copies
+   * must be created with {@link #cloneForReceivers(LogTable)} and released with {@link
+   * #releaseCopies(long)}. Creating any other copy disables recycling.
+   */
+  void setRecycling(boolean enabled) {
+    data.pool = enabled ? new ValuePool() : null;
+  }
+
+  /** Reports that no receiver references copies up to the specified index. */
+  void releaseCopies(long copyIndex) {
+    if (data.pool != null) {
+      data.pool.releasedCopy = copyIndex;
+    }
+  }
+
+  /** Returns the index of this table among the copies of its source, or -1 if not a copy. */
+  long getCopyIndex() {
+    return data.getCopyIndex();
+  }
+
+  /**
+   * Updates the timestamp of the table.
+   *
+   * @param timestamp The new timestamp.
+   */
+  public void setTimestamp(long timestamp) {
+    this.timestamp.value = timestamp;
+  }
+
+  /**
+   * Returns the timestamp of the table.
+   *
+   * @return The timestamp.
+   */
+  public long getTimestamp() {
+    return timestamp.value;
+  }
+
+  /**
+   * Creates a new LogTable for referencing a single subtable. Modifications to the subtable will be
+   * reflected in the original object.
+   *
+   * @param tableName The name of the subtable. Do not include a trailing slash.
+   * @return The subtable object.
+   */
+  public LogTable getSubtable(String tableName) {
+    LogTable subtable = subtables.get(tableName);
+    if (subtable == null) {
+      subtable = new LogTable(prefix + tableName + "/", this);
+      subtables.put(tableName, subtable);
+    }
+    return subtable;
+  }
+
+  /**
+   * Returns a set of all values from the table. If reading a single subtable, the data will be a
+   * copy. Otherwise, it will be a read-only view of the table.
+   *
+   * @param subtableOnly If true, include only values in the subtable (no prefix). If false, include
+   *     all values.
+   * @return Map of the requested data.
+   */
+  public Map<String, LogValue> getAll(boolean subtableOnly) {
+    if (subtableOnly) {
+      Map<String, LogValue> result = new HashMap<String, LogValue>();
+      for (int id = 0; id < data.index.size(); id++) {
+        LogValue value = data.get(id);
+        String key = data.index.getKey(id);
+        if (value != null && key.startsWith(prefix)) {
+          result.put(key.substring(prefix.length()), value);
+        }
+      }
+      return result;
+    } else {
+      return new FieldMapView();
+    }
+  }
+
+  /** Read-only map view of all fields, backed by the field store. */
+  private class FieldMapView extends AbstractMap<String, LogValue> {
+    @Override
+    public LogValue get(Object key) {
+      return key instanceof String stringKey ? data.get(data.index.find(stringKey)) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return get(key) != null;
+    }
+
+    @Override
+    public Set<Map.Entry<String, LogValue>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Map.Entry<String, LogValue>> iterator() {
+          return new Iterator<>() {
+            private final int size = data.index.size();
+            private int nextId = advance(0);
+
+            private int advance(int id) {
+              while (id < size && data.getStored(id) == null) {
+                id++;
+              }
+              return id;
+            }
+
+            @Override
+            public boolean hasNext() {
+              return nextId < size;
+            }
+
+            @Override
+            public Map.Entry<String, LogValue> next() {
+              if (nextId >= size) {
+                throw new NoSuchElementException();
+              }
+              int id = nextId;
+              nextId = advance(id + 1);
+              return new AbstractMap.SimpleImmutableEntry<>(data.index.getKey(id), data.get(id));
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          int count = 0;
+          for (int id = 0; id < data.index.size(); id++) {
+            if (data.getStored(id) != null) {
+              count++;
+            }
+          }
+          return count;
+        }
+      };
+    }
+  }
+
+  /**
+   * Returns the number of field IDs assigned so far. Field IDs are dense integers assigned to each
+   * full key when it is first written, and are shared by a table, its subtables, and all copies
+   * created with {@link #clone(LogTable)}. Valid IDs range from zero to this value (exclusive).
+   *
+   * @return The number of field IDs.
+   */
+  public int getFieldCount() {
+    return data.index.size();
+  }
+
+  /**
+   * Returns the full key for a field ID, including the leading slash.
+   *
+   * @param fieldId The field ID.
+   * @return The full key.
+   */
+  public String getFieldKey(int fieldId) {
+    return data.index.getKey(fieldId);
+  }
+
+  /**
+   * Returns the value for a field ID.
+   *
+   * @param fieldId The field ID.
+   * @return The field value, or null if the field is not present in this table.
+   */
+  public LogValue getField(int fieldId) {
+    return data.get(fieldId);
+  }
+
+  /**
+   * Returns the IDs of all fields whose values differ from the previous table. If both tables were
+   * created by consecutive calls to {@link #clone(LogTable)} on the same source, this is the list
+   * of fields written with a new value in between, which was recorded as the values were written.
+   * Otherwise, the values of every field are compared.
+   *
+   * <p>The returned array may be shared with this table and must not be modified.
+   *
+   * @param previous The previous table, or null to include every field.
+   * @return The IDs of the changed fields.
+   */
+  public int[] getChangedFields(LogTable previous) {
+    if (previous != null && data.isNextCopyAfter(previous.data)) {
+      return data.sourceChangedIds;
+    }
+    int[] changedIds = new int[data.index.size()];
+    int changedCount = 0;
+    for (int id = 0; id < changedIds.length; id++) {
+      LogValue value = data.get(id);
+      if (value == null) {
+        continue;
+      }
+      LogValue previousValue = null;
+      if (previous != null) {
+        previousValue =
+            previous.data.index == data.index
+                ? previous.data.get(id)
+                : previous.data.get(previous.data.index.find(data.index.getKey(id)));
+      }
+      if (value != previousValue && !value.equals(previousValue)) {
+        changedIds[changedCount++] = id;
+      }
+    }
+    return Arrays.copyOf(changedIds, changedCount);
+  }
+
+  /**
+   * Returns the field IDs for keys in this subtable, assigning new IDs if necessary. The IDs can be
+   * used with {@link #putField} and {@link #getField} to write and read values without resolving
+   * the key each time. They remain valid for this table and for copies created with {@link
+   * #clone(LogTable)}.
+   *
+   * @param keys The field names.
+   * @return The field IDs, in the same order as the keys.
+   */
+  public int[] getFieldIds(String... keys) {
+    int[] ids = new int[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      ids[i] = internId(keys[i]);
+    }
+    return ids;
+  }
+
+  /**
+   * Writes a new Raw value to the table by field ID. Skipped if the field already exists as a
+   * different type.
+   *
+   * @param fieldId The field ID.
+   * @param value The field value.
+   */
+  public void putField(int fieldId, byte[] value) {
+    if (value == null) return;
+    byte[] valueClone = new byte[value.length];
+    System.arraycopy(value, 0, valueClone, 0, value.length);
+    putValue(fieldId, new LogValue(valueClone, null));
+  }
+
+  /**
+   * Writes a new Boolean value to the table by field ID. Skipped if the field already exists as a
+   * different type.
+   *
+   * @param fieldId The field ID.
+   * @param value The field value.
+   */
+  public void putField(int fieldId, boolean value) {
+    if (data.setScalar(fieldId, LoggableType.Boolean, value ? 1 : 0, null)) return;
+    putValue(fieldId, new LogValue(value, null));
+  }
+
+  /**
+   * Writes a new BooleanArray value to the table by field ID. Skipped if the field already exists
+   * as a different type.
+   *
+   * @param fieldId The field ID.
+   * @param value The field value.
+   */
+  public void putField(int fieldId, boolean[] value) {
+    if (value == null) return;
+    boolean[] valueClone = new boolean[value.length];
+    System.arraycopy(value, 0, valueClone, 0, value.length);
+    putValue(fieldId, new LogValue(valueClone, null));
+  }
+
+  /**
+   * Writes a new Integer value to the table by field ID. Skipped if the field already exists as a
+   * different type.
+   *
+   * @param fieldId The field ID.
+   * @param value The field value.
+   */
+  public void putField(int fieldId, int value) {
+    putField(fieldId, (long) value);
+  }
+
+  /**
+   * Writes a new IntegerArray value to the table by field ID. Skipped if the field already exists
+   * as a different type.
+   *
+   * @param fieldId The field ID.
+   * @param value The field value.
+   */
+  public void putField(int fieldId, int[] value) {
+    if (value == null) return;
+    long[] valueClone = new long[value.length];
+    for (int i = 0; i < value.length; i++) {
+      valueClone[i] = value[i];
+    }
+    putValue(fieldId, new LogValue(valueClone, null));
+  }
+
+  /**
+   * Writes a new Integer value to the table by field ID. Skipped if the field already exists as a
+   * different type.
+   *
+   * @param fieldId The field ID.
+   * @param value The field value.
+   */
+  public void putField(int fieldId, long value) {
+    if (data.setScalar(fieldId, LoggableType.Integer, value, null)) return;
+    putValue(fieldId, new LogValue(value, null));
+  }
+
+  /**
+   * Writes a new IntegerArray value to the table by field ID. Skipped if the field already exists
+   * as a different type.
+   *
+   * @param fieldId The field ID.
+   * @param value The field value.
+   */
+  public void putField(int fieldId, long[] value) {
+    if (value == null) return;
+    long[] valueClone = new long[value.length];
+    System.arraycopy(value, 0, valueClone, 0, value.length);
+    putValue(fieldId, new LogValue(valueClone, null));
+  }
+
+  /**
+   * Writes a new Float value to the table by field ID. Skipped if the field already exists as a
+   * different type.
+   *
+   * @param fieldId The field ID.
+   * @param value The field value.
+   */
+  public void putField(int fieldId, float value) {
+    if (data.setScalar(fieldId, LoggableType.Float, Float.floatToIntBits(value), null)) return;
+    putValue(fieldId, new LogValue(value, null));
+  }
+
+  /**
+   * Writes a new FloatArray value to the table by field ID. Skipped if the field already exists as
+   * a different type.
+   *
+   * @param fieldId The field ID.
+   * @param value The field value.
+   */
+  public void putField(int fieldId, float[] value) {
+    if (value == null) return;
+    float[] valueClone = new float[value.length];
+    System.arraycopy(value, 0, valueClone, 0, value.length);
+    putValue(fieldId, new LogValue(valueClone, null));
+  }
+
+  /**
+   * Writes a new Double value to the table by field ID. Skipped if the field already exists as a
+   * different type.
+   *
+   * @param fieldId The field ID.
+   * @param value The field value.
+   */
+  public void putField(int fieldId, double value) {
+    if (data.setScalar(fieldId, LoggableType.Double, Double.doubleToLongBits(value), null)) return;
+    putValue(fieldId, new LogValue(value, null));
+  }
+
+  /**
+   * Writes a new DoubleArray value to the table by field ID. Skipped if the field already exists as
+   * a different type.
+   *
+   * @param fieldId The field ID.
+   * @param value The field value.
+   */
+  public void putField(int fieldId, double[] value) {
+    if (value == null) return;
+    double[] valueClone = new double[value.length];
+    System.arraycopy(value, 0, valueClone, 0, value.length);
+    putValue(fieldId, new LogValue(valueClone, null));
+  }
+
+  /**
+   * Writes a new String value to the table by field ID. Skipped if the field already exists as a
+   * different type.
+   *
+   * @param fieldId The field ID.
+   * @param value The field value.
+   */
+  public void putField(int fieldId, String value) {
+    if (value == null) return;
+    putValue(fieldId, new LogValue(value, null));
+  }
+
+  /**
+   * Writes a new StringArray value to the table by field ID. Skipped if the field already exists as
+   * a different type.
+   *
+   * @param fieldId The field ID.
+   * @param value The field value.
+   */
+  public void putField(int fieldId, String[] value) {
+    if (value == null) return;
+    String[] valueClone = new String[value.length];
+    System.arraycopy(value, 0, valueClone, 0, value.length);
+    putValue(fieldId, new LogValue(valueClone, null));
+  }
+
+  /**
+   * Reads a Raw value from the table by field ID.
+   *
+   * @param fieldId The field ID.
+   * @param defaultValue The default field value.
+   * @return The field value.
+   */
+  public byte[] getField(int fieldId, byte[] defaultValue) {
+    LogValue value = data.get(fieldId);
+    if (value != null) {
+      return value.getRaw(defaultValue);
+    } else {
+      return defaultValue;
+    }
+  }
+
+  /**
+   * Reads a Boolean value from the table by field ID.
+   *
+   * @param fieldId The field ID.
+   * @param defaultValue The default field value.
+   * @return The field value.
+   */
+  public boolean getField(int fieldId, boolean defaultValue) {
+    LogValue value = data.getStored(fieldId);
+    if (value != null && value.type == LoggableType.Boolean) {
+      return data.getBits(fieldId) != 0;
+    } else {
+      return defaultValue;
+    }
+  }
+
+  /**
+   * Reads a BooleanArray value from the table by field ID.
+   *
+   * @param fieldId The field ID.
+   * @param defaultValue The default field value.
+   * @return The field value.
+   */
+  public boolean[] getField(int fieldId, boolean[] defaultValue) {
+    LogValue value = data.get(fieldId);
+    if (value != null) {
+      return value.getBooleanArray(defaultValue);
+    } else {
+      return defaultValue;
+    }
+  }
+
+  /**
+   * Reads an Integer value from the table by field ID.
+   *
+   * @param fieldId The field ID.
+   * @param defaultValue The default field value.
+   * @return The field value.
+   */
+  public int getField(int fieldId, int defaultValue) {
+    LogValue value = data.getStored(fieldId);
+    if (value != null && value.type == LoggableType.Integer) {
+      return (int) data.getBits(fieldId);
+    } else {
+      return defaultValue;
+    }
+  }
+
+  /**
+   * Reads an IntegerArray value from the table by field ID.
+   *
+   * @param fieldId The field ID.
+   * @param defaultValue The default field value.
+   * @return The field value.
+   */
+  public int[] getField(int fieldId, int[] defaultValue) {
+    LogValue value = data.get(fieldId);
+    if (value != null) {
+      long[] defaultValueLong = new long[defaultValue.length];
+      for (int i = 0; i < defaultValue.length; i++) {
+        defaultValueLong[i] = defaultValue[i];
+      }
+      long[] valueLong = value.getIntegerArray(defaultValueLong);
+      int[] valueInt = new int[valueLong.length];
+      for (int i = 0; i < valueLong.length; i++) {
+        valueInt[i] = (int) valueLong[i];
+      }
+      return valueInt;
+    } else {
+      return defaultValue;
     }
   }
 
-  /** Creates a new LogTable. */
-  private LogTable(
-      String prefix,
-      int depth,
-      SharedTimestamp timestamp,
-      Map<String, LogValue> data,
-      Map<String, StructBuffer<?>> structBuffers,
-      Map<String, ProtobufBuffer<?, ?>> protoBuffers,
-      Map<String, Struct<?>> structTypeCache,
-      Map<String, Protobuf<?, ?>> protoTypeCache) {
-    this.prefix = prefix;
-    this.depth = depth;
-    this.timestamp = timestamp;
-    this.data = data;
-    this.structBuffers = structBuffers;
-    this.protoBuffers = protoBuffers;
-    this.structTypeCache = structTypeCache;
-    this.protoTypeCache = protoTypeCache;
+  /**
+   * Reads an Integer value from the table by field ID.
+   *
+   * @param fieldId The field ID.
+   * @param defaultValue The default field value.
+   * @return The field value.
+   */
+  public long getField(int fieldId, long defaultValue) {
+    LogValue value = data.getStored(fieldId);
+    if (value != null && value.type == LoggableType.Integer) {
+      return data.getBits(fieldId);
+    } else {
+      return defaultValue;
+    }
   }
 
   /**
-   * Creates a new LogTable, to serve as the root table.
+   * Reads an IntegerArray value from the table by field ID.
    *
-   * @param timestamp The timestamp for the table.
+   * @param fieldId The field ID.
+   * @param defaultValue The default field value.
+   * @return The field value.
    */
-  public LogTable(long timestamp) {
-    this(
-        "/",
-        0,
-        new SharedTimestamp(timestamp),
-        new HashMap<>(),
-        new HashMap<>(),
-        new HashMap<>(),
-        new HashMap<>(),
-        new HashMap<>());
+  public long[] getField(int fieldId, long[] defaultValue) {
+    LogValue value = data.get(fieldId);
+    if (value != null) {
+      return value.getIntegerArray(defaultValue);
+    } else {
+      return defaultValue;
+    }
   }
 
   /**
-   * Creates a new LogTable, to reference a subtable.
+   * Reads a Float value from the table by field ID.
    *
-   * @param prefix The subtable prefix.
-   * @param parent The parent table.
+   * @param fieldId The field ID.
+   * @param defaultValue The default field value.
+   * @return The field value.
    */
-  private LogTable(String prefix, LogTable parent) {
-    this(
-        prefix,
-        parent.depth + 1,
-        parent.timestamp,
-        parent.data,
-        parent.structBuffers,
-        parent.protoBuffers,
-        parent.structTypeCache,
-        parent.protoTypeCache);
+  public float getField(int fieldId, float defaultValue) {
+    LogValue value = data.getStored(fieldId);
+    if (value != null && value.type == LoggableType.Float) {
+      return Float.intBitsToFloat((int) data.getBits(fieldId));
+    } else {
+      return defaultValue;
+    }
   }
 
   /**
-   * Creates a new LogTable, copying data from the given source. The original table can be safely
-   * modified without affecting the copy.
+   * Reads a FloatArray value from the table by field ID.
    *
-   * @param source The source table.
-   * @return The new table.
+   * @param fieldId The field ID.
+   * @param defaultValue The default field value.
+   * @return The field value.
    */
-  public static LogTable clone(LogTable source) {
-    Map<String, LogValue> data = new HashMap<String, LogValue>();
-    data.putAll(source.data);
-    return new LogTable(
-        source.prefix,
-        source.depth,
-        new SharedTimestamp(source.timestamp.value),
-        data,
-        new HashMap<>(),
-        new HashMap<>(),
-        new HashMap<>(),
-        new HashMap<>());
+  public float[] getField(int fieldId, float[] defaultValue) {
+    LogValue value = data.get(fieldId);
+    if (value != null) {
+      return value.getFloatArray(defaultValue);
+    } else {
+      return defaultValue;
+    }
   }
 
   /**
-   * Updates the timestamp of the table.
+   * Reads a Double value from the table by field ID.
    *
-   * @param timestamp The new timestamp.
+   * @param fieldId The field ID.
+   * @param defaultValue The default field value.
+   * @return The field value.
    */
-  public void setTimestamp(long timestamp) {
-    this.timestamp.value = timestamp;
+  public double getField(int fieldId, double defaultValue) {
+    LogValue value = data.getStored(fieldId);
+    if (value != null && value.type == LoggableType.Double) {
+      return Double.longBitsToDouble(data.getBits(fieldId));
+    } else {
+      return defaultValue;
+    }
   }
 
   /**
-   * Returns the timestamp of the table.
+   * Reads a DoubleArray value from the table by field ID.
    *
-   * @return The timestamp.
+   * @param fieldId The field ID.
+   * @param defaultValue The default field value.
+   * @return The field value.
    */
-  public long getTimestamp() {
-    return timestamp.value;
+  public double[] getField(int fieldId, double[] defaultValue) {
+    LogValue value = data.get(fieldId);
+    if (value != null) {
+      return value.getDoubleArray(defaultValue);
+    } else {
+      return defaultValue;
+    }
   }
 
   /**
-   * Creates a new LogTable for referencing a single subtable. Modifications to the subtable will be
-   * reflected in the original object.
+   * Reads a String value from the table by field ID.
    *
-   * @param tableName The name of the subtable. Do not include a trailing slash.
-   * @return The subtable object.
+   * @param fieldId The field ID.
+   * @param defaultValue The default field value.
+   * @return The field value.
    */
-  public LogTable getSubtable(String tableName) {
-    return new LogTable(prefix + tableName + "/", this);
+  public String getField(int fieldId, String defaultValue) {
+    LogValue value = data.get(fieldId);
+    if (value != null) {
+      return value.getString(defaultValue);
+    } else {
+      return defaultValue;
+    }
   }
 
   /**
-   * Returns a set of all values from the table. If reading a single subtable, the data will be a
-   * copy. Otherwise, it will be a reference.
+   * Reads a StringArray value from the table by field ID.
    *
-   * @param subtableOnly If true, include only values in the subtable (no prefix). If false, include
-   *     all values.
-   * @return Map of the requested data.
+   * @param fieldId The field ID.
+   * @param defaultValue The default field value.
+   * @return The field value.
    */
-  public Map<String, LogValue> getAll(boolean subtableOnly) {
-    if (subtableOnly) {
-      Map<String, LogValue> result = new HashMap<String, LogValue>();
-      for (Map.Entry<String, LogValue> field : data.entrySet()) {
-        if (field.getKey().startsWith(prefix)) {
-          result.put(field.getKey().substring(prefix.length()), field.getValue());
-        }
-      }
-      return result;
+  public String[] getField(int fieldId, String[] defaultValue) {
+    LogValue value = data.get(fieldId);
+    if (value != null) {
+      return value.getStringArray(defaultValue);
     } else {
-      return data;
+      return defaultValue;
+    }
+  }
+
+  /** Returns the ID for a key in this subtable, assigning a new ID if necessary. */
+  private int internId(String key) {
+    Integer id = fieldIds.get(key);
+    if (id == null) {
+      id = data.index.intern(prefix + key);
+      fieldIds.put(key, id);
+    }
+    return id;
+  }
+
+  /** Returns the ID for a key in this subtable, or -1 if the key has never been written. */
+  private int findId(String key) {
+    Integer id = fieldIds.get(key);
+    if (id == null) {
+      int foundId = data.index.find(prefix + key);
+      if (foundId != -1) {
+        fieldIds.put(key, foundId);
+      }
+      return foundId;
     }
+    return id;
+  }
+
+  /** Returns whether a value is present for a key in this subtable. */
+  private boolean containsKey(String key) {
+    return data.getStored(findId(key)) != null;
   }
 
   /**
    * Checks whether the field can be updated with the specified type (it doesn't exist or is already
    * the correct type). Sends a warning to the Driver Station if the existing type is different.
    */
-  private boolean writeAllowed(String key, LoggableType type, String customTypeStr) {
-    LogValue currentValue = data.get(prefix + key);
+  private boolean writeAllowed(int id, LoggableType type, String customTypeStr) {
+    LogValue currentValue = data.getStored(id);
     if (currentValue == null) {
       return true;
     }
     if (!currentValue.type.equals(type)) {
       DriverStationErrors.reportWarning(
           "[AdvantageKit] Failed to write to field \""
-              + prefix
-              + key
+              + data.index.getKey(id)
               + "\" - attempted to write "
               + type
               + " value but expected "
@@ -205,8 +1129,7 @@ public class LogTable {
         && !currentValue.customTypeStr.equals(customTypeStr)) {
       DriverStationErrors.reportWarning(
           "[AdvantageKit] Failed to write to field \""
-              + prefix
-              + key
+              + data.index.getKey(id)
               + "\" - attempted to write "
               + customTypeStr
               + " value but expected "
@@ -225,8 +1148,17 @@ public class LogTable {
    */
   public void put(String key, LogValue value) {
     if (value == null) return;
-    if (writeAllowed(key, value.type, value.customTypeStr)) {
-      data.put(prefix + key, value);
+    if (value instanceof PooledValue) {
+      // Pooled arrays are reused once replaced, so each belongs to a single field
+      value = new LogValue(value.getRaw().clone(), value.customTypeStr);
+    }
+    putValue(internId(key), value);
+  }
+
+  /** Writes a new value to the field with the specified ID, if the type is allowed. */
+  private void putValue(int id, LogValue value) {
+    if (writeAllowed(id, value.type, value.customTypeStr)) {
+      data.set(id, value);
     }
   }
 
@@ -238,9 +1170,7 @@ public class LogTable {
    */
   public void put(String key, byte[] value) {
     if (value == null) return;
-    byte[] valueClone = new byte[value.length];
-    System.arraycopy(value, 0, valueClone, 0, value.length);
-    put(key, new LogValue(valueClone, null));
+    putField(internId(key), value);
   }
 
   /**
@@ -264,7 +1194,7 @@ public class LogTable {
    * @param value The field value.
    */
   public void put(String key, boolean value) {
-    put(key, new LogValue(value, null));
+    putField(internId(key), value);
   }
 
   /**
@@ -276,9 +1206,7 @@ public class LogTable {
    */
   public void put(String key, boolean[] value) {
     if (value == null) return;
-    boolean[] valueClone = new boolean[value.length];
-    System.arraycopy(value, 0, valueClone, 0, value.length);
-    put(key, new LogValue(valueClone, null));
+    putField(internId(key), value);
   }
 
   /**
@@ -303,7 +1231,7 @@ public class LogTable {
    * @param value The field value.
    */
   public void put(String key, int value) {
-    put(key, (long) value);
+    putField(internId(key), value);
   }
 
   /**
@@ -315,11 +1243,7 @@ public class LogTable {
    */
   public void put(String key, int[] value) {
     if (value == null) return;
-    long[] valueClone = new long[value.length];
-    for (int i = 0; i < value.length; i++) {
-      valueClone[i] = value[i];
-    }
-    put(key, new LogValue(valueClone, null));
+    putField(internId(key), value);
   }
 
   /**
@@ -344,7 +1268,7 @@ public class LogTable {
    * @param value The field value.
    */
   public void put(String key, long value) {
-    put(key, new LogValue(value, null));
+    putField(internId(key), value);
   }
 
   /**
@@ -356,9 +1280,7 @@ public class LogTable {
    */
   public void put(String key, long[] value) {
     if (value == null) return;
-    long[] valueClone = new long[value.length];
-    System.arraycopy(value, 0, valueClone, 0, value.length);
-    put(key, new LogValue(valueClone, null));
+    putField(internId(key), value);
   }
 
   /**
@@ -383,7 +1305,7 @@ public class LogTable {
    * @param value The field value.
    */
   public void put(String key, float value) {
-    put(key, new LogValue(value, null));
+    putField(internId(key), value);
   }
 
   /**
@@ -395,7 +1317,9 @@ public class LogTable {
    * @param unit The unit to save as metadata.
    */
   public void put(String key, float value, String unit) {
-    put(key, new LogValue(value, null, unit));
+    int id = internId(key);
+    if (data.setScalar(id, LoggableType.Float, Float.floatToIntBits(value), unit)) return;
+    putValue(id, new LogValue(value, null, unit));
   }
 
   /**
@@ -407,9 +1331,7 @@ public class LogTable {
    */
   public void put(String key, float[] value) {
     if (value == null) return;
-    float[] valueClone = new float[value.length];
-    System.arraycopy(value, 0, valueClone, 0, value.length);
-    put(key, new LogValue(valueClone, null));
+    putField(internId(key), value);
   }
 
   /**
@@ -434,7 +1356,7 @@ public class LogTable {
    * @param value The field value.
    */
   public void put(String key, double value) {
-    put(key, new LogValue(value, null));
+    putField(internId(key), value);
   }
 
   /**
@@ -446,7 +1368,9 @@ public class LogTable {
    * @param unit The unit to save as metadata.
    */
   public void put(String key, double value, String unit) {
-    put(key, new LogValue(value, null, unit));
+    int id = internId(key);
+    if (data.setScalar(id, LoggableType.Double, Double.doubleToLongBits(value), unit)) return;
+    putValue(id, new LogValue(value, null, unit));
   }
 
   /**
@@ -458,9 +1382,7 @@ public class LogTable {
    */
   public void put(String key, double[] value) {
     if (value == null) return;
-    double[] valueClone = new double[value.length];
-    System.arraycopy(value, 0, valueClone, 0, value.length);
-    put(key, new LogValue(valueClone, null));
+    putField(internId(key), value);
   }
 
   /**
@@ -486,7 +1408,7 @@ public class LogTable {
    */
   public void put(String key, String value) {
     if (value == null) return;
-    put(key, new LogValue(value, null));
+    putField(internId(key), value);
   }
 
   /**
@@ -498,9 +1420,7 @@ public class LogTable {
    */
   public void put(String key, String[] value) {
     if (value == null) return;
-    String[] valueClone = new String[value.length];
-    System.arraycopy(value, 0, valueClone, 0, value.length);
-    put(key, new LogValue(valueClone, null));
+    putField(internId(key), value);
   }
 
   /**
@@ -610,17 +1530,37 @@ public class LogTable {
     value.toLog(getSubtable(key));
   }
 
+  /**
+   * Returns the cached serialization state for a struct, creating it on first use. If requested,
+   * the schemas for the struct and its nested structs are added once per struct type.
+   */
+  private StructEntry getStructEntry(Struct<?> struct, boolean addSchema) {
+    String typeStr = struct.getTypeString();
+    StructEntry entry = structEntries.get(typeStr);
+    if (entry == null || !entry.matches(struct)) {
+      entry = new StructEntry(struct, typeStr);
+      structEntries.put(typeStr, entry);
+    }
+    if (addSchema && !entry.schemaAdded) {
+      addStructSchema(struct, new HashSet<>());
+      entry.schemaAdded = true;
+    }
+    return entry;
+  }
+
   private void addStructSchema(Struct<?> struct, Set<String> seen) {
     String typeString = struct.getTypeString();
     String key = "/.schema/" + typeString;
-    if (data.containsKey(key)) {
+    if (data.getStored(data.index.find(key)) != null) {
       return;
     }
     if (!seen.add(typeString)) {
       throw new UnsupportedOperationException(typeString + ": circular reference with " + seen);
     }
     try {
-      data.put(key, new LogValue(struct.getSchema().getBytes("UTF-8"), "structschema"));
+      data.set(
+          data.index.intern(key),
+          new LogValue(struct.getSchema().getBytes("UTF-8"), "structschema"));
     } catch (UnsupportedEncodingException e) {
       e.printStackTrace();
     }
@@ -641,16 +1581,9 @@ public class LogTable {
   @SuppressWarnings("unchecked")
   public <T> void put(String key, Struct<T> struct, T value) {
     if (value == null) return;
-    addStructSchema(struct, new HashSet<>());
-    if (!structBuffers.containsKey(struct.getTypeString())) {
-      structBuffers.put(struct.getTypeString(), StructBuffer.create(struct));
-    }
-    StructBuffer<T> buffer = (StructBuffer<T>) structBuffers.get(struct.getTypeString());
-    ByteBuffer bb = buffer.write(value);
-    byte[] array = new byte[bb.position()];
-    bb.position(0);
-    bb.get(array);
-    put(key, new LogValue(array, struct.getTypeString()));
+    StructEntry entry = getStructEntry(struct, true);
+    StructBuffer<T> buffer = (StructBuffer<T>) entry.buffer;
+    putSerialized(key, buffer.write(value), entry.typeStr);
   }
 
   /**
@@ -665,16 +1598,9 @@ public class LogTable {
   @SuppressWarnings("unchecked")
   public <T> void put(String key, Struct<T> struct, T... value) {
     if (value == null) return;
-    addStructSchema(struct, new HashSet<>());
-    if (!structBuffers.containsKey(struct.getTypeString())) {
-      structBuffers.put(struct.getTypeString(), StructBuffer.create(struct));
-    }
-    StructBuffer<T> buffer = (StructBuffer<T>) structBuffers.get(struct.getTypeString());
-    ByteBuffer bb = buffer.writeArray(value);
-    byte[] array = new byte[bb.position()];
-    bb.position(0);
-    bb.get(array);
-    put(key, new LogValue(array, struct.getTypeString() + "[]"));
+    StructEntry entry = getStructEntry(struct, true);
+    StructBuffer<T> buffer = (StructBuffer<T>) entry.buffer;
+    putSerialized(key, buffer.writeArray(value), entry.arrayTypeStr);
   }
 
   /**
@@ -709,26 +1635,66 @@ public class LogTable {
       String key, Protobuf<T, MessageType> proto, T value) {
     if (value == null) return;
     proto.forEachDescriptor(
-        (name) -> data.containsKey("/.schema/" + name),
+        (name) -> data.getStored(data.index.find("/.schema/" + name)) != null,
         (typeString, schema) ->
-            data.put("/.schema/" + typeString, new LogValue(schema, "proto:FileDescriptorProto")));
+            data.set(
+                data.index.intern("/.schema/" + typeString),
+                new LogValue(schema, "proto:FileDescriptorProto")));
     if (!protoBuffers.containsKey(proto.getTypeString())) {
       protoBuffers.put(proto.getTypeString(), ProtobufBuffer.create(proto));
     }
     ProtobufBuffer<T, MessageType> buffer =
         (ProtobufBuffer<T, MessageType>) protoBuffers.get(proto.getTypeString());
-    ByteBuffer bb;
     try {
-      bb = buffer.write(value);
-      byte[] array = new byte[bb.position()];
-      bb.position(0);
-      bb.get(array);
-      put(key, new LogValue(array, proto.getTypeString()));
+      putSerialized(key, buffer.write(value), proto.getTypeString());
     } catch (IOException e) {
       e.printStackTrace();
     }
   }
 
+  /**
+   * Writes a serialized value from a reusable struct or protobuf buffer. The serialized bytes are
+   * compared with the stored value first, so nothing is written (or allocated) when the value is
+   * unchanged. If recycling is enabled, the array of a replaced value is reused once no receiver
+   * references it.
+   */
+  private void putSerialized(String key, ByteBuffer bb, String typeStr) {
+    int length = bb.position();
+    int id = internId(key);
+    LogValue currentValue = data.getStored(id);
+    if (currentValue != null
+        && currentValue.type == LoggableType.Raw
+        && typeStr.equals(currentValue.customTypeStr)) {
+      byte[] currentArray = currentValue.getRaw(null);
+      if (currentArray.length == length) {
+        int i = 0;
+        while (i < length && currentArray[i] == bb.get(i)) {
+          i++;
+        }
+        if (i == length) {
+          return;
+        }
+      }
+    }
+    ValuePool pool = data.pool;
+    LogValue value;
+    if (pool != null) {
+      value = pool.take(id, length);
+      if (value == null || !typeStr.equals(value.customTypeStr)) {
+        value = new PooledValue(new byte[length], typeStr);
+      }
+    } else {
+      value = new LogValue(new byte[length], typeStr);
+    }
+    bb.get(0, value.getRaw(null));
+    putValue(id, value);
+
+    // Retire the replaced value, which copies up to the current one may reference
+    if (pool != null && currentValue instanceof PooledValue && data.getStored(id) == value) {
+      pool.retire(id, (PooledValue) currentValue, data.generation - 1);
+    }
+  }
+
   private Struct<?> findStructType(Class<?> classObj) {
     if (!structTypeCache.containsKey(classObj.getName())) {
       structTypeCache.put(classObj.getName(), null);
@@ -835,7 +1801,7 @@ public class LogTable {
 
   private Struct<?> findRecordStructType(Class<?> classObj) {
     if (!structTypeCache.containsKey(classObj.getName())) {
-      structTypeCache.put(classObj.getName(), new RecordStruct(classObj));
+      structTypeCache.put(classObj.getName(), RecordStruct.create(classObj));
     }
     return structTypeCache.get(classObj.getName());
   }
@@ -902,7 +1868,7 @@ public class LogTable {
    * @return The field value.
    */
   public LogValue get(String key) {
-    return data.get(prefix + key);
+    return data.get(findId(key));
   }
 
   /**
@@ -913,11 +1879,7 @@ public class LogTable {
    * @return The field value.
    */
   public byte[] get(String key, byte[] defaultValue) {
-    if (data.containsKey(prefix + key)) {
-      return get(key).getRaw(defaultValue);
-    } else {
-      return defaultValue;
-    }
+    return getField(findId(key), defaultValue);
   }
 
   /**
@@ -928,7 +1890,7 @@ public class LogTable {
    * @return The field value.
    */
   public byte[][] get(String key, byte[][] defaultValue) {
-    if (data.containsKey(prefix + key + "/length")) {
+    if (containsKey(key + "/length")) {
       byte[][] value = new byte[get(key + "/length", 0)][];
       for (int i = 0; i < value.length; i++) {
         value[i] = get(key + "/" + Integer.toString(i), new byte[0]);
@@ -947,11 +1909,7 @@ public class LogTable {
    * @return The field value.
    */
   public boolean get(String key, boolean defaultValue) {
-    if (data.containsKey(prefix + key)) {
-      return get(key).getBoolean(defaultValue);
-    } else {
-      return defaultValue;
-    }
+    return getField(findId(key), defaultValue);
   }
 
   /**
@@ -962,11 +1920,7 @@ public class LogTable {
    * @return The field value.
    */
   public boolean[] get(String key, boolean[] defaultValue) {
-    if (data.containsKey(prefix + key)) {
-      return get(key).getBooleanArray(defaultValue);
-    } else {
-      return defaultValue;
-    }
+    return getField(findId(key), defaultValue);
   }
 
   /**
@@ -977,7 +1931,7 @@ public class LogTable {
    * @return The field value.
    */
   public boolean[][] get(String key, boolean[][] defaultValue) {
-    if (data.containsKey(prefix + key + "/length")) {
+    if (containsKey(key + "/length")) {
       boolean[][] value = new boolean[get(key + "/length", 0)][];
       for (int i = 0; i < value.length; i++) {
         value[i] = get(key + "/" + Integer.toString(i), new boolean[0]);
@@ -996,11 +1950,7 @@ public class LogTable {
    * @return The field value.
    */
   public int get(String key, int defaultValue) {
-    if (data.containsKey(prefix + key)) {
-      return (int) get(key).getInteger(defaultValue);
-    } else {
-      return defaultValue;
-    }
+    return getField(findId(key), defaultValue);
   }
 
   /**
@@ -1011,20 +1961,7 @@ public class LogTable {
    * @return The field value.
    */
   public int[] get(String key, int[] defaultValue) {
-    if (data.containsKey(prefix + key)) {
-      long[] defaultValueLong = new long[defaultValue.length];
-      for (int i = 0; i < defaultValue.length; i++) {
-        defaultValueLong[i] = defaultValue[i];
-      }
-      long[] valueLong = get(key).getIntegerArray(defaultValueLong);
-      int[] valueInt = new int[valueLong.length];
-      for (int i = 0; i < valueLong.length; i++) {
-        valueInt[i] = (int) valueLong[i];
-      }
-      return valueInt;
-    } else {
-      return defaultValue;
-    }
+    return getField(findId(key), defaultValue);
   }
 
   /**
@@ -1035,7 +1972,7 @@ public class LogTable {
    * @return The field value.
    */
   public int[][] get(String key, int[][] defaultValue) {
-    if (data.containsKey(prefix + key + "/length")) {
+    if (containsKey(key + "/length")) {
       int[][] value = new int[get(key + "/length", 0)][];
       for (int i = 0; i < value.length; i++) {
         value[i] = get(key + "/" + Integer.toString(i), new int[0]);
@@ -1054,11 +1991,7 @@ public class LogTable {
    * @return The field value.
    */
   public long get(String key, long defaultValue) {
-    if (data.containsKey(prefix + key)) {
-      return get(key).getInteger(defaultValue);
-    } else {
-      return defaultValue;
-    }
+    return getField(findId(key), defaultValue);
   }
 
   /**
@@ -1069,11 +2002,7 @@ public class LogTable {
    * @return The field value.
    */
   public long[] get(String key, long[] defaultValue) {
-    if (data.containsKey(prefix + key)) {
-      return get(key).getIntegerArray(defaultValue);
-    } else {
-      return defaultValue;
-    }
+    return getField(findId(key), defaultValue);
   }
 
   /**
@@ -1084,7 +2013,7 @@ public class LogTable {
    * @return The field value.
    */
   public long[][] get(String key, long[][] defaultValue) {
-    if (data.containsKey(prefix + key + "/length")) {
+    if (containsKey(key + "/length")) {
       long[][] value = new long[get(key + "/length", 0)][];
       for (int i = 0; i < value.length; i++) {
         value[i] = get(key + "/" + Integer.toString(i), new long[0]);
@@ -1103,11 +2032,7 @@ public class LogTable {
    * @return The field value.
    */
   public float get(String key, float defaultValue) {
-    if (data.containsKey(prefix + key)) {
-      return get(key).getFloat(defaultValue);
-    } else {
-      return defaultValue;
-    }
+    return getField(findId(key), defaultValue);
   }
 
   /**
@@ -1118,11 +2043,7 @@ public class LogTable {
    * @return The field value.
    */
   public float[] get(String key, float[] defaultValue) {
-    if (data.containsKey(prefix + key)) {
-      return get(key).getFloatArray(defaultValue);
-    } else {
-      return defaultValue;
-    }
+    return getField(findId(key), defaultValue);
   }
 
   /**
@@ -1133,7 +2054,7 @@ public class LogTable {
    * @return The field value.
    */
   public float[][] get(String key, float[][] defaultValue) {
-    if (data.containsKey(prefix + key + "/length")) {
+    if (containsKey(key + "/length")) {
       float[][] value = new float[get(key + "/length", 0)][];
       for (int i = 0; i < value.length; i++) {
         value[i] = get(key + "/" + Integer.toString(i), new float[0]);
@@ -1152,11 +2073,7 @@ public class LogTable {
    * @return The field value.
    */
   public double get(String key, double defaultValue) {
-    if (data.containsKey(prefix + key)) {
-      return get(key).getDouble(defaultValue);
-    } else {
-      return defaultValue;
-    }
+    return getField(findId(key), defaultValue);
   }
 
   /**
@@ -1167,11 +2084,7 @@ public class LogTable {
    * @return The field value.
    */
   public double[] get(String key, double[] defaultValue) {
-    if (data.containsKey(prefix + key)) {
-      return get(key).getDoubleArray(defaultValue);
-    } else {
-      return defaultValue;
-    }
+    return getField(findId(key), defaultValue);
   }
 
   /**
@@ -1182,7 +2095,7 @@ public class LogTable {
    * @return The field value.
    */
   public double[][] get(String key, double[][] defaultValue) {
-    if (data.containsKey(prefix + key + "/length")) {
+    if (containsKey(key + "/length")) {
       double[][] value = new double[get(key + "/length", 0)][];
       for (int i = 0; i < value.length; i++) {
         value[i] = get(key + "/" + Integer.toString(i), new double[0]);
@@ -1201,11 +2114,7 @@ public class LogTable {
    * @return The field value.
    */
   public String get(String key, String defaultValue) {
-    if (data.containsKey(prefix + key)) {
-      return get(key).getString(defaultValue);
-    } else {
-      return defaultValue;
-    }
+    return getField(findId(key), defaultValue);
   }
 
   /**
@@ -1216,11 +2125,7 @@ public class LogTable {
    * @return The field value.
    */
   public String[] get(String key, String[] defaultValue) {
-    if (data.containsKey(prefix + key)) {
-      return get(key).getStringArray(defaultValue);
-    } else {
-      return defaultValue;
-    }
+    return getField(findId(key), defaultValue);
   }
 
   /**
@@ -1231,7 +2136,7 @@ public class LogTable {
    * @return The field value.
    */
   public String[][] get(String key, String[][] defaultValue) {
-    if (data.containsKey(prefix + key + "/length")) {
+    if (containsKey(key + "/length")) {
       String[][] value = new String[get(key + "/length", 0)][];
       for (int i = 0; i < value.length; i++) {
         value[i] = get(key + "/" + Integer.toString(i), new String[0]);
@@ -1252,7 +2157,7 @@ public class LogTable {
    */
   @SuppressWarnings("unchecked")
   public <E extends Enum<E>> E get(String key, E defaultValue) {
-    if (data.containsKey(prefix + key)) {
+    if (containsKey(key)) {
       String name = get(key).getString(defaultValue.name());
       return (E) Enum.valueOf(defaultValue.getClass(), name);
     } else {
@@ -1270,7 +2175,7 @@ public class LogTable {
    */
   @SuppressWarnings({"unchecked", "rawtypes"})
   public <E extends Enum<E>> E[] get(String key, E[] defaultValue) {
-    if (data.containsKey(prefix + key)) {
+    if (containsKey(key)) {
       String[] names = get(key).getStringArray(null);
       if (names == null) return defaultValue;
       Class<? extends Enum> enumClass =
@@ -1295,7 +2200,7 @@ public class LogTable {
    */
   @SuppressWarnings("unchecked")
   public <E extends Enum<E>> E[][] get(String key, E[][] defaultValue) {
-    if (data.containsKey(prefix + key + "/length")) {
+    if (containsKey(key + "/length")) {
       int length = get(key + "/length", 0);
       E[][] value = (E[][]) Array.newInstance(defaultValue.getClass().getComponentType(), length);
       for (int i = 0; i < length; i++) {
@@ -1321,7 +2226,7 @@ public class LogTable {
    */
   @SuppressWarnings("unchecked")
   public <U extends Unit, M extends Measure<U>> M getMeasure(String key, M defaultValue) {
-    if (data.containsKey(prefix + key)) {
+    if (containsKey(key)) {
       double value = get(key).getDouble(defaultValue.baseUnitMagnitude());
       return (M) defaultValue.unit().ofBaseUnits(value);
     } else {
@@ -1337,7 +2242,7 @@ public class LogTable {
    * @return The field value.
    */
   public Color get(String key, Color defaultValue) {
-    if (data.containsKey(prefix + key)) {
+    if (containsKey(key)) {
       return new Color(new Color8Bit(get(key).getString(defaultValue.toHexString())));
     } else {
       return defaultValue;
@@ -1369,11 +2274,8 @@ public class LogTable {
    */
   @SuppressWarnings("unchecked")
   public <T> T get(String key, Struct<T> struct, T defaultValue) {
-    if (data.containsKey(prefix + key)) {
-      if (!structBuffers.containsKey(struct.getTypeString())) {
-        structBuffers.put(struct.getTypeString(), StructBuffer.create(struct));
-      }
-      StructBuffer<T> buffer = (StructBuffer<T>) structBuffers.get(struct.getTypeString());
+    if (containsKey(key)) {
+      StructBuffer<T> buffer = (StructBuffer<T>) getStructEntry(struct, false).buffer;
       return buffer.read(get(key).getRaw());
     } else {
       return defaultValue;
@@ -1391,11 +2293,8 @@ public class LogTable {
    */
   @SuppressWarnings("unchecked")
   public <T> T[] get(String key, Struct<T> struct, T... defaultValue) {
-    if (data.containsKey(prefix + key)) {
-      if (!structBuffers.containsKey(struct.getTypeString())) {
-        structBuffers.put(struct.getTypeString(), StructBuffer.create(struct));
-      }
-      StructBuffer<T> buffer = (StructBuffer<T>) structBuffers.get(struct.getTypeString());
+    if (containsKey(key)) {
+      StructBuffer<T> buffer = (StructBuffer<T>) getStructEntry(struct, false).buffer;
       return buffer.readArray(get(key).getRaw());
     } else {
       return defaultValue;
@@ -1413,7 +2312,7 @@ public class LogTable {
    */
   @SuppressWarnings("unchecked")
   public <T> T[][] get(String key, Struct<T> struct, T[][] defaultValue) {
-    if (data.containsKey(prefix + key + "/length")) {
+    if (containsKey(key + "/length")) {
       int length = get(key + "/length", 0);
       T[][] value = (T[][]) Array.newInstance(defaultValue.getClass().getComponentType(), length);
       for (int i = 0; i < length; i++) {
@@ -1441,7 +2340,7 @@ public class LogTable {
   @SuppressWarnings("unchecked")
   public <T, MessageType extends ProtoMessage<?>> T get(
       String key, Protobuf<T, MessageType> proto, T defaultValue) {
-    if (data.containsKey(prefix + key)) {
+    if (containsKey(key)) {
       if (!protoBuffers.containsKey(proto.getTypeString())) {
         protoBuffers.put(proto.getTypeString(), ProtobufBuffer.create(proto));
       }
@@ -1468,8 +2367,8 @@ public class LogTable {
    */
   @SuppressWarnings("unchecked")
   public <T extends WPISerializable> T get(String key, T defaultValue) {
-    if (data.containsKey(prefix + key)) {
-      String typeString = data.get(prefix + key).customTypeStr;
+    if (containsKey(key)) {
+      String typeString = get(key).customTypeStr;
       if (typeString.startsWith("struct:")) {
         Struct<T> struct = (Struct<T>) findStructType(defaultValue.getClass());
         if (struct != null) {
@@ -1496,8 +2395,8 @@ public class LogTable {
    */
   @SuppressWarnings("unchecked")
   public <T extends StructSerializable> T[] get(String key, T... defaultValue) {
-    if (data.containsKey(prefix + key)) {
-      String typeString = data.get(prefix + key).customTypeStr;
+    if (containsKey(key)) {
+      String typeString = get(key).customTypeStr;
       if (typeString.startsWith("struct:")) {
         Struct<T> struct = (Struct<T>) findStructType(defaultValue.getClass().getComponentType());
         if (struct != null) {
@@ -1518,7 +2417,7 @@ public class LogTable {
    */
   @SuppressWarnings("unchecked")
   public <T extends StructSerializable> T[][] get(String key, T[][] defaultValue) {
-    if (data.containsKey(prefix + key + "/length")) {
+    if (containsKey(key + "/length")) {
       int length = get(key + "/length", 0);
       T[][] value = (T[][]) Array.newInstance(defaultValue.getClass().getComponentType(), length);
       for (int i = 0; i < length; i++) {
@@ -1546,8 +2445,8 @@ public class LogTable {
     if (defaultValue instanceof Measure<?> measure) {
       return (R) getMeasure(key, (Measure<?>) measure);
     }
-    if (data.containsKey(prefix + key)) {
-      String typeString = data.get(prefix + key).customTypeStr;
+    if (containsKey(key)) {
+      String typeString = get(key).customTypeStr;
       if (typeString.startsWith("struct:")) {
         Struct<R> struct = (Struct<R>) findRecordStructType(defaultValue.getClass());
         if (struct != null) {
@@ -1568,8 +2467,8 @@ public class LogTable {
    */
   @SuppressWarnings("unchecked")
   public <R extends Record> R[] get(String key, R... defaultValue) {
-    if (data.containsKey(prefix + key)) {
-      String typeString = data.get(prefix + key).customTypeStr;
+    if (containsKey(key)) {
+      String typeString = get(key).customTypeStr;
       if (typeString.startsWith("struct:")) {
         Struct<R> struct =
             (Struct<R>) findRecordStructType(defaultValue.getClass().getComponentType());
@@ -1591,7 +2490,7 @@ public class LogTable {
    */
   @SuppressWarnings("unchecked")
   public <R extends Record> R[][] get(String key, R[][] defaultValue) {
-    if (data.containsKey(prefix + key + "/length")) {
+    if (containsKey(key + "/length")) {
       int length = get(key + "/length", 0);
       R[][] value = (R[][]) Array.newInstance(defaultValue.getClass().getComponentType(), length);
       for (int i = 0; i < length; i++) {
@@ -1670,7 +2569,9 @@ public class LogTable {
 
   /** Represents a value stored in a LogTable, including type and value. */
   public static class LogValue {
+    // Scalars are held unboxed in "bits", all other types in "value"
     private final Object value;
+    private final long bits;
 
     /** The log value type. */
     public final LoggableType type;
@@ -1692,6 +2593,7 @@ public class LogTable {
       customTypeStr = typeStr;
       unitStr = null;
       this.value = value;
+      bits = 0;
     }
 
     /**
@@ -1704,7 +2606,8 @@ public class LogTable {
       type = LoggableType.Boolean;
       customTypeStr = typeStr;
       unitStr = null;
-      this.value = value;
+      this.value = null;
+      bits = value ? 1 : 0;
     }
 
     /**
@@ -1717,7 +2620,8 @@ public class LogTable {
       type = LoggableType.Integer;
       customTypeStr = typeStr;
       unitStr = null;
-      this.value = value;
+      this.value = null;
+      bits = value;
     }
 
     /**
@@ -1730,7 +2634,8 @@ public class LogTable {
       type = LoggableType.Float;
       customTypeStr = typeStr;
       unitStr = null;
-      this.value = value;
+      this.value = null;
+      bits = Float.floatToIntBits(value);
     }
 
     /**
@@ -1744,7 +2649,8 @@ public class LogTable {
       type = LoggableType.Float;
       customTypeStr = typeStr;
       this.unitStr = unitStr;
-      this.value = value;
+      this.value = null;
+      bits = Float.floatToIntBits(value);
     }
 
     /**
@@ -1757,7 +2663,8 @@ public class LogTable {
       type = LoggableType.Double;
       customTypeStr = typeStr;
       unitStr = null;
-      this.value = value;
+      this.value = null;
+      bits = Double.doubleToLongBits(value);
     }
 
     /**
@@ -1771,7 +2678,8 @@ public class LogTable {
       type = LoggableType.Double;
       customTypeStr = typeStr;
       this.unitStr = unitStr;
-      this.value = value;
+      this.value = null;
+      bits = Double.doubleToLongBits(value);
     }
 
     /**
@@ -1789,6 +2697,7 @@ public class LogTable {
       } else {
         this.value = "";
       }
+      bits = 0;
     }
 
     /**
@@ -1802,6 +2711,7 @@ public class LogTable {
       customTypeStr = typeStr;
       unitStr = null;
       this.value = value;
+      bits = 0;
     }
 
     /**
@@ -1815,6 +2725,7 @@ public class LogTable {
       customTypeStr = typeStr;
       unitStr = null;
       this.value = value;
+      bits = 0;
     }
 
     /**
@@ -1828,6 +2739,7 @@ public class LogTable {
       customTypeStr = typeStr;
       unitStr = null;
       this.value = value;
+      bits = 0;
     }
 
     /**
@@ -1841,6 +2753,7 @@ public class LogTable {
       customTypeStr = typeStr;
       unitStr = null;
       this.value = value;
+      bits = 0;
     }
 
     /**
@@ -1854,6 +2767,31 @@ public class LogTable {
       customTypeStr = typeStr;
       unitStr = null;
       this.value = value;
+      bits = 0;
+    }
+
+    /** Creates a copy of a scalar value with different bits. */
+    private LogValue(LogValue scalar, long bits) {
+      type = scalar.type;
+      customTypeStr = scalar.customTypeStr;
+      unitStr = scalar.unitStr;
+      value = null;
+      this.bits = bits;
+    }
+
+    private boolean isScalar() {
+      return type == LoggableType.Boolean
+          || type == LoggableType.Integer
+          || type == LoggableType.Float
+          || type == LoggableType.Double;
+    }
+
+    /** Returns whether this value equals a stored scalar with the given bits. */
+    private boolean equalsScalar(LogValue scalar, long bits) {
+      return type == scalar.type
+          && this.bits == bits
+          && Objects.equals(customTypeStr, scalar.customTypeStr)
+          && Objects.equals(unitStr, scalar.unitStr);
     }
 
     /**
@@ -1972,7 +2910,7 @@ public class LogTable {
      * @return The value.
      */
     public boolean getBoolean(boolean defaultValue) {
-      return type == LoggableType.Boolean ? (boolean) value : defaultValue;
+      return type == LoggableType.Boolean ? bits != 0 : defaultValue;
     }
 
     /**
@@ -1982,7 +2920,7 @@ public class LogTable {
      * @return The value.
      */
     public long getInteger(long defaultValue) {
-      return type == LoggableType.Integer ? (long) value : defaultValue;
+      return type == LoggableType.Integer ? bits : defaultValue;
     }
 
     /**
@@ -1992,7 +2930,7 @@ public class LogTable {
      * @return The value.
      */
     public float getFloat(float defaultValue) {
-      return type == LoggableType.Float ? (float) value : defaultValue;
+      return type == LoggableType.Float ? Float.intBitsToFloat((int) bits) : defaultValue;
     }
 
     /**
@@ -2002,7 +2940,7 @@ public class LogTable {
      * @return The value.
      */
     public double getDouble(double defaultValue) {
-      return type == LoggableType.Double ? (double) value : defaultValue;
+      return type == LoggableType.Double ? Double.longBitsToDouble(bits) : defaultValue;
     }
 
     /**
@@ -2105,6 +3043,7 @@ public class LogTable {
             case Integer:
             case Float:
             case Double:
+              return bits == otherValue.bits;
             case String:
               return value.equals(otherValue.value);
             case BooleanArray:
@@ -2125,7 +3064,10 @@ public class LogTable {
 
     @Override
     public int hashCode() {
-      return Objects.hash(type, customTypeStr, value);
+      int result = type.hashCode();
+      result = 31 * result + Objects.hashCode(customTypeStr);
+      result = 31 * result + (value != null ? value.hashCode() : Long.hashCode(bits));
+      return result;
     }
   }
 
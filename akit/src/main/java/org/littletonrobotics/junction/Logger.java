@@ -8,25 +8,14 @@
 package org.littletonrobotics.junction;
 
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
 import java.util.function.BooleanSupplier;
 import java.util.function.DoubleSupplier;
 import java.util.function.IntSupplier;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
-import org.littletonrobotics.conduit.ConduitApi;
-import org.littletonrobotics.junction.LogTable.LogValue;
 import org.littletonrobotics.junction.inputs.LoggableInputs;
 import org.littletonrobotics.junction.mechanism.LoggedMechanism2d;
 import org.littletonrobotics.junction.networktables.LoggedNetworkInput;
-import org.wpilib.driverstation.DriverStationErrors;
-import org.wpilib.framework.RobotBase;
-import org.wpilib.system.RobotController;
 import org.wpilib.units.Measure;
 import org.wpilib.units.Unit;
 import org.wpilib.util.Color;
@@ -38,24 +27,29 @@ import us.hebi.quickbuf.ProtoMessage;
 
 /** Central class for recording and replaying log data. */
 public class Logger {
-  private static final int receiverQueueCapacity = 500; // 10s at 50Hz
-
-  private static boolean running = false;
-  private static long cycleCount = 0;
-  private static LogTable entry = new LogTable(0);
-  private static LogTable outputTable;
-  private static Map<String, String> metadata = new HashMap<>();
-  private static ConsoleSource console = null;
-  private static List<LoggedNetworkInput> dashboardInputs = new ArrayList<>();
-  private static Supplier<ByteBuffer[]> urclSupplier = null;
-  private static boolean enableConsole = true;
-  private static boolean checkRobotBase = true;
-
-  private static LogReplaySource replaySource;
-  private static final BlockingQueue<LogTable> receiverQueue =
-      new ArrayBlockingQueue<LogTable>(receiverQueueCapacity);
-  private static final ReceiverThread receiverThread = new ReceiverThread(receiverQueue);
-  private static boolean receiverQueueFault = false;
+  /** Strategy used by a thread waiting on a receiver queue. */
+  public enum QueueWaitStrategy {
+    /** Park the thread until data or space is available. Uses the least CPU time. */
+    Park,
+    /** Spin briefly before parking, reducing latency for short waits. */
+    SpinThenPark,
+    /** Spin continuously. Lowest latency, but occupies a full CPU core. */
+    BusySpin
+  }
+
+  /** Behavior when a cycle is sent to a receiver queue while it is full. */
+  public enum QueueOverflowPolicy {
+    /** Drop the new cycle, keeping all queued data. */
+    DropNewest,
+    /** Drop the oldest queued cycle to make room for the new cycle. */
+    DropOldest,
+    /**
+     * Wait for space until the block timeout expires, then drop the new cycle. The main loop waits
+     * for each receiver with a full queue, so a cycle can be delayed by up to the number of
+     * receivers multiplied by the block timeout.
+     */
+    Block
+  }
 
   private Logger() {}
 
@@ -66,8 +60,9 @@ public class Logger {
    * @param replaySource The supplier for incoming replay data.
    */
   public static void setReplaySource(LogReplaySource replaySource) {
-    if (!running) {
-      Logger.replaySource = replaySource;
+    LoggerContext context = LoggerContext.current();
+    if (!context.running) {
+      context.replaySource = replaySource;
     }
   }
 
@@ -75,11 +70,90 @@ public class Logger {
    * Adds a new data receiver to process real or replayed data. This method only works during setup
    * before starting to log.
    *
+   * <p>Each data receiver runs on its own thread with its own queue, so a slow receiver does not
+   * delay the others.
+   *
    * @param dataReceiver The target for outgoing data.
    */
   public static void addDataReceiver(LogDataReceiver dataReceiver) {
-    if (!running) {
-      receiverThread.addDataReceiver(dataReceiver);
+    LoggerContext context = LoggerContext.current();
+    if (!context.running) {
+      context.dataReceivers.add(dataReceiver);
+    }
+  }
+
+  /**
+   * Adds a new data receiver to process real or replayed data, with an overflow policy that
+   * replaces the default set by {@link #setReceiverQueueOverflowPolicy(QueueOverflowPolicy)}. This
+   * method only works during setup before starting to log.
+   *
+   * @param dataReceiver The target for outgoing data.
+   * @param overflowPolicy The behavior when this receiver's queue is full.
+   */
+  public static void addDataReceiver(
+      LogDataReceiver dataReceiver, QueueOverflowPolicy overflowPolicy) {
+    LoggerContext context = LoggerContext.current();
+    if (!context.running) {
+      context.dataReceivers.add(dataReceiver);
+      if (overflowPolicy != null) {
+        context.dataReceiverOverflowPolicies.put(dataReceiver, overflowPolicy);
+      }
+    }
+  }
+
+  /**
+   * Sets the number of cycles that can be queued for each data receiver. The default is 500 cycles
+   * (10 seconds at 50Hz). This method only works during setup before starting to log.
+   *
+   * @param capacity The queue capacity in cycles.
+   */
+  public static void setReceiverQueueCapacity(int capacity) {
+    LoggerContext context = LoggerContext.current();
+    if (!context.running && capacity > 0) {
+      context.receiverQueueCapacity = capacity;
+    }
+  }
+
+  /**
+   * Sets the strategy used to wait on the receiver queues. The default is {@link
+   * QueueWaitStrategy#Park}. This method only works during setup before starting to log.
+   *
+   * @param waitStrategy The wait strategy.
+   */
+  public static void setReceiverQueueWaitStrategy(QueueWaitStrategy waitStrategy) {
+    LoggerContext context = LoggerContext.current();
+    if (!context.running && waitStrategy != null) {
+      context.receiverQueueWaitStrategy = waitStrategy;
+    }
+  }
+
+  /**
+   * Sets the behavior when a receiver queue is full. The default is {@link
+   * QueueOverflowPolicy#DropNewest}. This method only works during setup before starting to log.
+   *
+   * @param overflowPolicy The overflow policy.
+   */
+  public static void setReceiverQueueOverflowPolicy(QueueOverflowPolicy overflowPolicy) {
+    LoggerContext context = LoggerContext.current();
+    if (!context.running && overflowPolicy != null) {
+      context.receiverQueueOverflowPolicy = overflowPolicy;
+    }
+  }
+
+  /**
+   * Sets the maximum time to wait for space in a receiver queue when using {@link
+   * QueueOverflowPolicy#Block}. The default is 10ms. This method only works during setup before
+   * starting to log.
+   *
+   * <p>The timeout applies to each receiver separately, so if several queues are full, the main
+   * loop may be stalled for up to the number of receivers multiplied by the timeout every cycle.
+   *
+   * @param timeoutSecs The timeout in seconds.
+   */
+  public static void setReceiverQueueBlockTimeout(double timeoutSecs) {
+    LoggerContext context = LoggerContext.current();
+    if (!context.running && timeoutSecs >= 0.0) {
+      context.receiverQueueBlockTimeoutSecs = timeoutSecs;
     }
   }
 
@@ -90,7 +164,7 @@ public class Logger {
    * @param dashboardInput The input to register.
    */
   public static void registerDashboardInput(LoggedNetworkInput dashboardInput) {
-    dashboardInputs.add(dashboardInput);
+    LoggerContext.current().dashboardInputs.add(dashboardInput);
   }
 
   /**
@@ -106,7 +180,7 @@ public class Logger {
    * @param logSupplier The supplier returned from the {@code URCL.startExternal()} method.
    */
   public static void registerURCL(Supplier<ByteBuffer[]> logSupplier) {
-    urclSupplier = logSupplier;
+    LoggerContext.current().urclSupplier = logSupplier;
   }
 
   /**
@@ -117,14 +191,15 @@ public class Logger {
    * @param value The value of the metadata field.
    */
   public static void recordMetadata(String key, String value) {
-    if (!running) {
-      metadata.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (!context.running) {
+      context.metadata.put(key, value);
     }
   }
 
   /** Disables automatic console capture. */
   public static void disableConsoleCapture() {
-    enableConsole = false;
+    LoggerContext.current().enableConsole = false;
   }
 
   /**
@@ -133,109 +208,17 @@ public class Logger {
    * @return True if a replay source is being used, false otherwise.
    */
   public static boolean hasReplaySource() {
-    return replaySource != null;
+    return LoggerContext.current().replaySource != null;
   }
 
   /** Starts running the logging system, including any data receivers or the replay source. */
   public static void start() {
-    if (!running) {
-      running = true;
-
-      // Exit if LoggedRobot not present
-      if (checkRobotBase) {
-        var stackTrace = Thread.currentThread().getStackTrace();
-        boolean isValid = false;
-        for (var element : stackTrace) {
-          try {
-            Class<?> elementClass = Class.forName(element.getClassName());
-            if (LoggedRobot.class.isAssignableFrom(elementClass)) {
-              isValid = true;
-              break;
-            }
-          } catch (ClassNotFoundException e) {
-          }
-        }
-        if (!isValid) {
-          DriverStationErrors.reportError(
-              "The main robot class must inherit from LoggedRobot when using AdvantageKit. For more details, check the AdvantageKit installation documentation: https://docs.advantagekit.org/getting-started/installation\n\n*** EXITING DUE TO INVALID ADVANTAGEKIT INSTALLATION, SEE ABOVE. ***",
-              false);
-          System.exit(1);
-        }
-      }
-
-      // In replay, check that HAL sim extensions are not loaded
-      if (replaySource != null) {
-        String halSimEnv = System.getenv("HALSIM_EXTENSIONS");
-        if (halSimEnv != null && halSimEnv.length() > 0) {
-          DriverStationErrors.reportError(
-              "All HAL simulation extensions must be disabled when running AdvantageKit replay, including the simulation GUI and DriverStation connection. Check the configuration in \"build.gradle\" and ensure that all checkboxes are disabled in the VSCode simulation popup.\n\n*** EXITING DUE TO INVALID SIMULATION CONFIGURATION, SEE ABOVE. ***",
-              false);
-          System.exit(1);
-        }
-      }
-
-      // Start console capture
-      if (enableConsole && console == null) {
-        if (RobotBase.isReal()) {
-          console = new ConsoleSource.Systemcore();
-        } else {
-          console = new ConsoleSource.Simulator();
-        }
-      }
-
-      // Start replay source
-      if (replaySource != null) {
-        replaySource.start();
-      }
-
-      // Create output table
-      if (replaySource == null) {
-        outputTable = entry.getSubtable("RealOutputs");
-      } else {
-        outputTable = entry.getSubtable("ReplayOutputs");
-      }
-
-      // Record metadata
-      LogTable metadataTable =
-          entry.getSubtable(replaySource == null ? "RealMetadata" : "ReplayMetadata");
-      for (Map.Entry<String, String> item : metadata.entrySet()) {
-        metadataTable.put(item.getKey(), item.getValue());
-      }
-
-      // Start receiver thread
-      receiverThread.start();
-
-      // Update RobotController to AdvantageKit timestamp
-      RobotController.setTimeSource(Logger::getTimestamp);
-
-      // Start first periodic cycle
-      periodicBeforeUser();
-    }
+    LoggerContext.current().start();
   }
 
   /** Ends the logging system, including any data receivers or the replay source. */
   public static void end() {
-    if (running) {
-      running = false;
-      if (console != null) {
-        try {
-          console.close();
-        } catch (Exception e) {
-          DriverStationErrors.reportError("[AdvantageKit] Failed to stop console capture.", true);
-        }
-      }
-      if (replaySource != null) {
-        replaySource.end();
-      }
-      receiverThread.interrupt();
-      try {
-        receiverThread.join();
-      } catch (InterruptedException e) {
-        e.printStackTrace();
-      }
-      RobotController.setTimeSource(RobotController::getMonotonicTime);
-      RobotController.getTime();
-    }
+    LoggerContext.current().end();
   }
 
   /**
@@ -243,42 +226,7 @@ public class Logger {
    * timestamp, replay entry, and dashboard inputs.
    */
   static void periodicBeforeUser() {
-    cycleCount++;
-    if (running) {
-      // Get next entry
-      long entryUpdateStart = RobotController.getMonotonicTime();
-      if (replaySource == null) {
-        synchronized (entry) {
-          entry.setTimestamp(RobotController.getMonotonicTime());
-        }
-      } else {
-        if (!replaySource.updateTable(entry)) {
-          end();
-          System.exit(0);
-        }
-      }
-
-      // Update Driver Station
-      long dsStart = RobotController.getMonotonicTime();
-      if (hasReplaySource()) {
-        LoggedDriverStation.replayFromLog(entry.getSubtable("DriverStation"));
-      }
-
-      // Update dashboard inputs
-      long dashboardInputsStart = RobotController.getMonotonicTime();
-      for (int i = 0; i < dashboardInputs.size(); i++) {
-        dashboardInputs.get(i).periodic();
-      }
-      long dashboardInputsEnd = RobotController.getMonotonicTime();
-
-      // Record timing data
-      recordOutput("Logger/EntryUpdateMS", (dsStart - entryUpdateStart) / 1000.0);
-      if (hasReplaySource()) {
-        recordOutput("Logger/DriverStationMS", (dashboardInputsStart - dsStart) / 1000.0);
-      }
-      recordOutput(
-          "Logger/DashboardInputsMS", (dashboardInputsEnd - dashboardInputsStart) / 1000.0);
-    }
+    LoggerContext.current().periodicBeforeUser();
   }
 
   /**
@@ -297,101 +245,8 @@ public class Logger {
    */
   static void periodicAfterUser(
       long userCodeLength, long periodicBeforeLength, String extraConsoleData) {
-    if (running) {
-      // Capture conduit data
-      ConduitApi conduit = ConduitApi.getInstance();
-      long conduitCaptureStart = RobotController.getMonotonicTime();
-      conduit.captureData();
-
-      // Update Driver Station
-      long dsStart = RobotController.getMonotonicTime();
-      if (!hasReplaySource()) {
-        LoggedDriverStation.saveToLog(entry.getSubtable("DriverStation"));
-      }
-
-      // Save other conduit inputs
-      long conduitSaveStart = RobotController.getMonotonicTime();
-      if (!hasReplaySource()) {
-        LoggedSystemStats.saveToLog(entry.getSubtable("SystemStats"));
-        LoggedPowerDistribution loggedPowerDistribution = LoggedPowerDistribution.getInstance();
-        if (loggedPowerDistribution != null) {
-          loggedPowerDistribution.saveToLog(entry.getSubtable("PowerDistribution"));
-        }
-        if (urclSupplier != null && RobotBase.isReal()) {
-          ByteBuffer[] buffers = urclSupplier.get();
-          if (buffers.length == 3) {
-            for (int i = 0; i < 3; i++) {
-              buffers[i].rewind();
-              byte[] bytes = new byte[buffers[i].remaining()];
-              buffers[i].get(bytes);
-              switch (i) {
-                case 0:
-                  entry.put("URCL/Raw/Persistent", new LogValue(bytes, "URCLr3_persistent"));
-                  break;
-                case 1:
-                  entry.put("URCL/Raw/Periodic", new LogValue(bytes, "URCLr3_periodic"));
-                  break;
-                case 2:
-                  entry.put("URCL/Raw/Aliases", new LogValue(bytes, "URCLr3_aliases"));
-                  break;
-              }
-            }
-          }
-        }
-      }
-
-      // Update automatic outputs from user code
-      long autoLogStart = RobotController.getMonotonicTime();
-      AutoLogOutputManager.periodic();
-      long alertLogStart = RobotController.getMonotonicTime();
-      AlertLogger.periodic();
-      long radioLogStart = RobotController.getMonotonicTime();
-      if (!hasReplaySource()) {
-        RadioLogger.periodic(
-            entry.getSubtable("RadioStatus"), entry.get("SystemStats/TeamNumber", -1));
-      }
-      long consoleCaptureStart = RobotController.getMonotonicTime();
-      if (enableConsole) {
-        String consoleData = console.getNewData();
-        if (extraConsoleData != null) {
-          consoleData += extraConsoleData;
-        }
-        if (!consoleData.isEmpty()) {
-          recordOutput("Console", consoleData.trim());
-        }
-      }
-      long consoleCaptureEnd = RobotController.getMonotonicTime();
-
-      // Record timing data
-      recordOutput("Logger/ConduitCaptureMS", (dsStart - conduitCaptureStart) / 1000.0);
-      if (!hasReplaySource()) {
-        recordOutput("Logger/DriverStationMS", (conduitSaveStart - dsStart) / 1000.0);
-      }
-      recordOutput("Logger/ConduitSaveMS", (autoLogStart - conduitSaveStart) / 1000.0);
-      recordOutput("Logger/AutoLogMS", (alertLogStart - autoLogStart) / 1000.0);
-      recordOutput("Logger/AlertLogMS", (radioLogStart - alertLogStart) / 1000.0);
-      recordOutput("Logger/RadioLogMS", (consoleCaptureStart - radioLogStart) / 1000.0);
-      recordOutput("Logger/ConsoleMS", (consoleCaptureEnd - consoleCaptureStart) / 1000.0);
-      recordOutput("LoggedRobot/UserCodeMS", userCodeLength / 1000.0);
-      long periodicAfterLength = consoleCaptureEnd - conduitCaptureStart;
-      recordOutput(
-          "LoggedRobot/LogPeriodicMS", (periodicBeforeLength + periodicAfterLength) / 1000.0);
-      recordOutput(
-          "LoggedRobot/FullCycleMS",
-          (periodicBeforeLength + userCodeLength + periodicAfterLength) / 1000.0);
-      recordOutput("Logger/QueuedCycles", receiverQueue.size());
-
-      try {
-        // Send a copy of the data to the receivers. The original object will be
-        // kept and updated with the next timestamp (and new data if replaying).
-        receiverQueue.add(LogTable.clone(entry));
-        receiverQueueFault = false;
-      } catch (IllegalStateException exception) {
-        receiverQueueFault = true;
-        DriverStationErrors.reportError(
-            "[AdvantageKit] Capacity of receiver queue exceeded, data will NOT be logged.", false);
-      }
-    }
+    LoggerContext.current()
+        .periodicAfterUser(userCodeLength, periodicBeforeLength, extraConsoleData);
   }
 
   /**
@@ -401,7 +256,7 @@ public class Logger {
   public static class AdvancedHooks {
     /** Disable the robot base class check. */
     public static void disableRobotBaseCheck() {
-      checkRobotBase = false;
+      LoggerContext.current().checkRobotBase = false;
     }
 
     /** Invoke the "before user" periodic method. */
@@ -437,20 +292,20 @@ public class Logger {
      * @param console The console source to use
      */
     public static void setConsoleSource(ConsoleSource console) {
-      Logger.console = console;
+      LoggerContext.current().console = console;
     }
 
     private AdvancedHooks() {}
   }
 
   /**
-   * Returns the state of the receiver queue fault. This is tripped when the receiver queue fills
-   * up, meaning that data is no longer being saved.
+   * Returns the state of the receiver queue fault. This is tripped when the queue for any data
+   * receiver fills up, meaning that data is no longer being saved by that receiver.
    *
-   * @return Whether the receiver queue is full.
+   * @return Whether a receiver queue is full.
    */
   public static boolean getReceiverQueueFault() {
-    return receiverQueueFault;
+    return LoggerContext.current().receiverQueueFault;
   }
 
   /**
@@ -459,13 +314,7 @@ public class Logger {
    * @return The timestamp.
    */
   public static long getTimestamp() {
-    synchronized (entry) {
-      if (!running || entry == null) {
-        return RobotController.getMonotonicTime();
-      } else {
-        return entry.getTimestamp();
-      }
-    }
+    return LoggerContext.current().getTimestamp();
   }
 
   /**
@@ -479,7 +328,7 @@ public class Logger {
    * @param function The function to run.
    */
   public static void runEveryN(int n, Runnable function) {
-    if (cycleCount % n == 0) {
+    if (LoggerContext.current().cycleCount % n == 0) {
       function.run();
     }
   }
@@ -498,11 +347,12 @@ public class Logger {
    * @param inputs The inputs to log or update.
    */
   public static void processInputs(String key, LoggableInputs inputs) {
-    if (running) {
-      if (replaySource == null) {
-        inputs.toLog(entry.getSubtable(key));
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      if (context.replaySource == null) {
+        inputs.toLog(context.entry.getSubtable(key));
       } else {
-        inputs.fromLog(entry.getSubtable(key));
+        inputs.fromLog(context.entry.getSubtable(key));
       }
     }
   }
@@ -521,8 +371,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, byte[] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -540,8 +391,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, byte[][] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -559,8 +411,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, boolean value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -578,8 +431,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, BooleanSupplier value) {
-    if (running) {
-      outputTable.put(key, value.getAsBoolean());
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value.getAsBoolean());
     }
   }
 
@@ -597,8 +451,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, boolean[] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -616,8 +471,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, boolean[][] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -635,8 +491,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, int value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -654,8 +511,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, IntSupplier value) {
-    if (running) {
-      outputTable.put(key, value.getAsInt());
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value.getAsInt());
     }
   }
 
@@ -673,8 +531,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, int[] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -692,8 +551,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, int[][] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -711,8 +571,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, long value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -730,8 +591,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, LongSupplier value) {
-    if (running) {
-      outputTable.put(key, value.getAsLong());
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value.getAsLong());
     }
   }
 
@@ -749,8 +611,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, long[] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -768,8 +631,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, long[][] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -787,8 +651,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, float value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -810,8 +675,9 @@ public class Logger {
    * @param unit The unit to save as metadata.
    */
   public static void recordOutput(String key, float value, Unit unit) {
-    if (running) {
-      outputTable.put(key, value, unit.name());
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value, unit.name());
     }
   }
 
@@ -833,8 +699,9 @@ public class Logger {
    * @param unit The unit to save as metadata.
    */
   public static void recordOutput(String key, float value, String unit) {
-    if (running) {
-      outputTable.put(key, value, unit);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value, unit);
     }
   }
 
@@ -852,8 +719,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, float[] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -871,8 +739,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, float[][] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -890,8 +759,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, double value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -913,8 +783,9 @@ public class Logger {
    * @param unit The unit to save as metadata.
    */
   public static void recordOutput(String key, double value, Unit unit) {
-    if (running) {
-      outputTable.put(key, value, unit.name());
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value, unit.name());
     }
   }
 
@@ -936,8 +807,9 @@ public class Logger {
    * @param unit The unit to save as metadata.
    */
   public static void recordOutput(String key, double value, String unit) {
-    if (running) {
-      outputTable.put(key, value, unit);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value, unit);
     }
   }
 
@@ -955,8 +827,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, DoubleSupplier value) {
-    if (running) {
-      outputTable.put(key, value.getAsDouble());
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value.getAsDouble());
     }
   }
 
@@ -974,8 +847,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, double[] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -993,8 +867,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, double[][] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -1012,8 +887,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, String value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -1031,8 +907,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, String[] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -1050,8 +927,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, String[][] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -1070,8 +948,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static <E extends Enum<E>> void recordOutput(String key, E value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -1090,8 +969,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static <E extends Enum<E>> void recordOutput(String key, E[] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -1110,8 +990,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static <E extends Enum<E>> void recordOutput(String key, E[][] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -1133,11 +1014,12 @@ public class Logger {
    * @param value The value of the field.
    */
   public static <U extends Unit> void recordOutputMeasure(String key, Measure<U> value) {
-    if (running && value != null) {
+    LoggerContext context = LoggerContext.current();
+    if (context.running && value != null) {
       // The measure overload of LogTable is intended primarily for input logging and
       // always uses the base unit. Calling the double overload ensures that the
       // user-specified unit is preserved.
-      outputTable.put(key, value.magnitude(), value.unit().name());
+      context.outputTable.put(key, value.magnitude(), value.unit().name());
     }
   }
 
@@ -1160,8 +1042,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static <T> void recordOutput(String key, Struct<T> struct, T value) {
-    if (running) {
-      outputTable.put(key, struct, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, struct, value);
     }
   }
 
@@ -1186,8 +1069,9 @@ public class Logger {
    */
   @SuppressWarnings("unchecked")
   public static <T> void recordOutput(String key, Struct<T> struct, T... value) {
-    if (running) {
-      outputTable.put(key, struct, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, struct, value);
     }
   }
 
@@ -1207,8 +1091,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static <T> void recordOutput(String key, Struct<T> struct, T[][] value) {
-    if (running) {
-      outputTable.put(key, struct, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, struct, value);
     }
   }
 
@@ -1234,8 +1119,9 @@ public class Logger {
    */
   public static <T, MessageType extends ProtoMessage<?>> void recordOutput(
       String key, Protobuf<T, MessageType> proto, T value) {
-    if (running) {
-      outputTable.put(key, proto, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, proto, value);
     }
   }
 
@@ -1257,8 +1143,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static <T extends WPISerializable> void recordOutput(String key, T value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -1281,8 +1168,9 @@ public class Logger {
    */
   @SuppressWarnings("unchecked")
   public static <T extends StructSerializable> void recordOutput(String key, T... value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -1304,8 +1192,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static <T extends StructSerializable> void recordOutput(String key, T[][] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -1332,8 +1221,9 @@ public class Logger {
       recordOutputMeasure(key, (Measure<Unit>) measure);
       return;
     }
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -1356,8 +1246,9 @@ public class Logger {
    */
   @SuppressWarnings("unchecked")
   public static <R extends Record> void recordOutput(String key, R... value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -1379,8 +1270,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static <R extends Record> void recordOutput(String key, R[][] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -1401,8 +1293,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, LoggedMechanism2d value) {
-    if (running) {
-      value.logOutput(outputTable.getSubtable(key));
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      value.logOutput(context.outputTable.getSubtable(key));
     }
   }
 
@@ -1420,8 +1313,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, Color value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = LoggerContext.current();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 }
@@ -0,0 +1,498 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package org.littletonrobotics.junction;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.littletonrobotics.conduit.ConduitApi;
+import org.littletonrobotics.junction.LogTable.LogValue;
+import org.littletonrobotics.junction.Logger.QueueOverflowPolicy;
+import org.littletonrobotics.junction.Logger.QueueWaitStrategy;
+import org.littletonrobotics.junction.networktables.LoggedNetworkInput;
+import org.wpilib.driverstation.DriverStationErrors;
+import org.wpilib.framework.RobotBase;
+import org.wpilib.system.RobotController;
+
+/**
+ * The state of a single logging or replay session. The static methods of {@link Logger} operate on
+ * the context bound to the current thread, or the default context if none is bound.
+ *
+ * <p>Additional contexts allow several sessions to run in the same JVM, such as for parallel replay
+ * or unit tests of inputs classes. The driver station, system stats, power distribution, radio,
+ * URCL, console, alerts, and automatic outputs are process-wide, so they are only logged or
+ * replayed by the default context. Example usage shown below.
+ *
+ * <pre>
+ * <code>LoggerContext context = new LoggerContext();
+ * try (var binding = context.bind()) {
+ *   Logger.setReplaySource(new WPILOGReader(logPath));
+ *   Logger.start();
+ *   while (context.isRunning()) { ... }
+ * }</code>
+ * </pre>
+ */
+public final class LoggerContext {
+  private static final LoggerContext defaultContext = new LoggerContext(true);
+  private static final long droppedCyclesReportNanos = 5_000_000_000L; // Min time between reports
+  private static final ThreadLocal<LoggerContext> boundContext = new ThreadLocal<>();
+  private static volatile boolean anyBound = false;
+
+  final boolean isDefault;
+  boolean running = false;
+  long cycleCount = 0;
+  final LogTable entry = new LogTable(0);
+  LogTable outputTable;
+  final Map<String, String> metadata = new HashMap<>();
+  ConsoleSource console = null;
+  final List<LoggedNetworkInput> dashboardInputs = new ArrayList<>();
+  Supplier<ByteBuffer[]> urclSupplier = null;
+  boolean enableConsole;
+  boolean checkRobotBase;
+
+  LogReplaySource replaySource;
+  final List<LogDataReceiver> dataReceivers = new ArrayList<>();
+  final Map<LogDataReceiver, QueueOverflowPolicy> dataReceiverOverflowPolicies = new HashMap<>();
+  int receiverQueueCapacity = 500; // 10s at 50Hz
+  QueueWaitStrategy receiverQueueWaitStrategy = QueueWaitStrategy.Park;
+  QueueOverflowPolicy receiverQueueOverflowPolicy = QueueOverflowPolicy.DropNewest;
+  double receiverQueueBlockTimeoutSecs = 0.01;
+  ReceiverThread[] receiverThreads = new ReceiverThread[0];
+  boolean receiverQueueFault = false;
+  private long lastDroppedCyclesReport;
+
+  /**
+   * Creates a new logging context. Console capture and the robot base check are disabled by default
+   * for additional contexts.
+   */
+  public LoggerContext() {
+    this(false);
+  }
+
+  private LoggerContext(boolean isDefault) {
+    this.isDefault = isDefault;
+    enableConsole = isDefault;
+    checkRobotBase = isDefault;
+  }
+
+  /**
+   * Returns the context used by the static methods of {@link Logger} on the current thread.
+   *
+   * @return The bound context, or the default context if none is bound.
+   */
+  public static LoggerContext current() {
+    if (anyBound) {
+      LoggerContext context = boundContext.get();
+      if (context != null) {
+        return context;
+      }
+    }
+    return defaultContext;
+  }
+
+  /**
+   * Returns the default context, which is used by any thread without a bound context.
+   *
+   * @return The default context.
+   */
+  public static LoggerContext getDefault() {
+    return defaultContext;
+  }
+
+  /**
+   * Binds this context to the current thread until the returned binding is closed, after which the
+   * previously bound context is restored.
+   *
+   * @return The binding.
+   */
+  public Binding bind() {
+    anyBound = true;
+    Binding binding = new Binding(boundContext.get());
+    boundContext.set(this);
+    return binding;
+  }
+
+  /**
+   * Returns whether this context is currently logging or replaying data. When a replay source runs
+   * out of data, an additional context ends itself rather than exiting the program.
+   *
+   * @return True if running, false otherwise.
+   */
+  public boolean isRunning() {
+    return running;
+  }
+
+  /** A binding of a context to a thread, which restores the previous context when closed. */
+  public static final class Binding implements AutoCloseable {
+    private final LoggerContext previous;
+    private final Thread thread = Thread.currentThread();
+
+    private Binding(LoggerContext previous) {
+      this.previous = previous;
+    }
+
+    /** Restores the previously bound context. Must be called from the binding thread. */
+    @Override
+    public void close() {
+      if (Thread.currentThread() != thread) {
+        throw new IllegalStateException("A logger context must be unbound by the same thread.");
+      }
+      if (previous == null) {
+        boundContext.remove();
+      } else {
+        boundContext.set(previous);
+      }
+    }
+  }
+
+  void start() {
+    if (!running) {
+      running = true;
+
+      // Exit if LoggedRobot not present
+      if (checkRobotBase) {
+        var stackTrace = Thread.currentThread().getStackTrace();
+        boolean isValid = false;
+        for (var element : stackTrace) {
+          try {
+            Class<?> elementClass = Class.forName(element.getClassName());
+            if (LoggedRobot.class.isAssignableFrom(elementClass)) {
+              isValid = true;
+              break;
+            }
+          } catch (ClassNotFoundException e) {
+          }
+        }
+        if (!isValid) {
+          DriverStationErrors.reportError(
+              "The main robot class must inherit from LoggedRobot when using AdvantageKit. For more"
+                  + " details, check the AdvantageKit installation documentation:"
+                  + " https://docs.advantagekit.org/getting-started/installation\n\n"
+                  + "*** EXITING DUE TO INVALID ADVANTAGEKIT INSTALLATION, SEE ABOVE. ***",
+              false);
+          System.exit(1);
+        }
+      }
+
+      // In replay, check that HAL sim extensions are not loaded
+      if (replaySource != null && isDefault) {
+        String halSimEnv = System.getenv("HALSIM_EXTENSIONS");
+        if (halSimEnv != null && halSimEnv.length() > 0) {
+          DriverStationErrors.reportError(
+              "All HAL simulation extensions must be disabled when running AdvantageKit replay,"
+                  + " including the simulation GUI and DriverStation connection. Check the"
+                  + " configuration in \"build.gradle\" and ensure that all checkboxes are disabled"
+                  + " in the VSCode simulation popup.\n\n"
+                  + "*** EXITING DUE TO INVALID SIMULATION CONFIGURATION, SEE ABOVE. ***",
+              false);
+          System.exit(1);
+        }
+      }
+
+      // Start console capture
+      if (enableConsole && console == null) {
+        if (RobotBase.isReal()) {
+          console = new ConsoleSource.Systemcore();
+        } else {
+          console = new ConsoleSource.Simulator();
+        }
+      }
+
+      // Start replay source
+      if (replaySource != null) {
+        replaySource.start();
+      }
+
+      // Create output table
+      if (replaySource == null) {
+        outputTable = entry.getSubtable("RealOutputs");
+      } else {
+        outputTable = entry.getSubtable("ReplayOutputs");
+      }
+
+      // Record metadata
+      LogTable metadataTable =
+          entry.getSubtable(replaySource == null ? "RealMetadata" : "ReplayMetadata");
+      for (Map.Entry<String, String> item : metadata.entrySet()) {
+        metadataTable.put(item.getKey(), item.getValue());
+      }
+
+      // Start receiver threads
+      receiverThreads = new ReceiverThread[dataReceivers.size()];
+      Map<String, Integer> receiverNameCounts = new HashMap<>();
+      for (int i = 0; i < receiverThreads.length; i++) {
+        LogDataReceiver dataReceiver = dataReceivers.get(i);
+        String name = dataReceiver.getClass().getSimpleName();
+        if (name.isEmpty()) {
+          name = "Receiver";
+        }
+        int nameCount = receiverNameCounts.merge(name, 1, Integer::sum);
+        if (nameCount > 1) {
+          name = name + "_" + nameCount;
+        }
+        ReceiverQueue queue =
+            new ReceiverQueue(
+                receiverQueueCapacity,
+                receiverQueueWaitStrategy,
+                dataReceiverOverflowPolicies.getOrDefault(
+                    dataReceiver, receiverQueueOverflowPolicy),
+                (long) (receiverQueueBlockTimeoutSecs * 1e9));
+        receiverThreads[i] = new ReceiverThread(name, queue, dataReceiver);
+        receiverThreads[i].start();
+      }
+
+      // Reuse serialized values only if every receiver releases each table
+      boolean recycling = receiverThreads.length > 0;
+      for (LogDataReceiver dataReceiver : dataReceivers) {
+        recycling &= dataReceiver.releasesPreviousTable();
+      }
+      entry.setRecycling(recycling);
+      lastDroppedCyclesReport = System.nanoTime() - droppedCyclesReportNanos;
+
+      // Update RobotController to AdvantageKit timestamp
+      if (isDefault) {
+        RobotController.setTimeSource(Logger::getTimestamp);
+      }
+
+      // Start first periodic cycle
+      periodicBeforeUser();
+    }
+  }
+
+  void end() {
+    if (running) {
+      running = false;
+      if (console != null) {
+        try {
+          console.close();
+        } catch (Exception e) {
+          DriverStationErrors.reportError("[AdvantageKit] Failed to stop console capture.", true);
+        }
+      }
+      if (replaySource != null) {
+        replaySource.end();
+      }
+      for (ReceiverThread receiverThread : receiverThreads) {
+        receiverThread.interrupt();
+      }
+      for (ReceiverThread receiverThread : receiverThreads) {
+        try {
+          receiverThread.join();
+        } catch (InterruptedException e) {
+          e.printStackTrace();
+        }
+      }
+      if (isDefault) {
+        RobotController.setTimeSource(RobotController::getMonotonicTime);
+        RobotController.getTime();
+      }
+    }
+  }
+
+  long getTimestamp() {
+    synchronized (entry) {
+      if (!running) {
+        return RobotController.getMonotonicTime();
+      } else {
+        return entry.getTimestamp();
+      }
+    }
+  }
+
+  void periodicBeforeUser() {
+    cycleCount++;
+    if (running) {
+      // Get next entry
+      long entryUpdateStart = RobotController.getMonotonicTime();
+      if (replaySource == null) {
+        synchronized (entry) {
+          entry.setTimestamp(RobotController.getMonotonicTime());
+        }
+      } else {
+        if (!replaySource.updateTable(entry)) {
+          end();
+          if (isDefault) {
+            System.exit(0);
+          }
+          return;
+        }
+      }
+
+      // Update Driver Station
+      long dsStart = RobotController.getMonotonicTime();
+      if (replaySource != null && isDefault) {
+        LoggedDriverStation.replayFromLog(entry.getSubtable("DriverStation"));
+      }
+
+      // Update dashboard inputs
+      long dashboardInputsStart = RobotController.getMonotonicTime();
+      for (int i = 0; i < dashboardInputs.size(); i++) {
+        dashboardInputs.get(i).periodic();
+      }
+      long dashboardInputsEnd = RobotController.getMonotonicTime();
+
+      // Record timing data
+      outputTable.put("Logger/EntryUpdateMS", (dsStart - entryUpdateStart) / 1000.0);
+      if (replaySource != null) {
+        outputTable.put("Logger/DriverStationMS", (dashboardInputsStart - dsStart) / 1000.0);
+      }
+      outputTable.put(
+          "Logger/DashboardInputsMS", (dashboardInputsEnd - dashboardInputsStart) / 1000.0);
+    }
+  }
+
+  void periodicAfterUser(long userCodeLength, long periodicBeforeLength, String extraConsoleData) {
+    if (running) {
+      // Capture conduit data
+      long conduitCaptureStart = RobotController.getMonotonicTime();
+      if (isDefault) {
+        ConduitApi.getInstance().captureData();
+      }
+
+      // Update Driver Station
+      long dsStart = RobotController.getMonotonicTime();
+      if (replaySource == null && isDefault) {
+        LoggedDriverStation.saveToLog(entry.getSubtable("DriverStation"));
+      }
+
+      // Save other conduit inputs
+      long conduitSaveStart = RobotController.getMonotonicTime();
+      if (replaySource == null && isDefault) {
+        LoggedSystemStats.saveToLog(entry.getSubtable("SystemStats"));
+        LoggedPowerDistribution loggedPowerDistribution = LoggedPowerDistribution.getInstance();
+        if (loggedPowerDistribution != null) {
+          loggedPowerDistribution.saveToLog(entry.getSubtable("PowerDistribution"));
+        }
+        if (urclSupplier != null && RobotBase.isReal()) {
+          ByteBuffer[] buffers = urclSupplier.get();
+          if (buffers.length == 3) {
+            for (int i = 0; i < 3; i++) {
+              buffers[i].rewind();
+              byte[] bytes = new byte[buffers[i].remaining()];
+              buffers[i].get(bytes);
+              switch (i) {
+                case 0:
+                  entry.put("URCL/Raw/Persistent", new LogValue(bytes, "URCLr3_persistent"));
+                  break;
+                case 1:
+                  entry.put("URCL/Raw/Periodic", new LogValue(bytes, "URCLr3_periodic"));
+                  break;
+                case 2:
+                  entry.put("URCL/Raw/Aliases", new LogValue(bytes, "URCLr3_aliases"));
+                  break;
+              }
+            }
+          }
+        }
+      }
+
+      // Update automatic outputs from user code
+      long autoLogStart = RobotController.getMonotonicTime();
+      if (isDefault) {
+        AutoLogOutputManager.periodic();
+      }
+      long alertLogStart = RobotController.getMonotonicTime();
+      if (isDefault) {
+        AlertLogger.periodic();
+      }
+      long radioLogStart = RobotController.getMonotonicTime();
+      if (replaySource == null && isDefault) {
+        RadioLogger.periodic(
+            entry.getSubtable("RadioStatus"), entry.get("SystemStats/TeamNumber", -1));
+      }
+      long consoleCaptureStart = RobotController.getMonotonicTime();
+      if (enableConsole && console != null) {
+        String consoleData = console.getNewData();
+        if (extraConsoleData != null) {
+          consoleData += extraConsoleData;
+        }
+        if (!consoleData.isEmpty()) {
+          outputTable.put("Console", consoleData.trim());
+        }
+      }
+      long consoleCaptureEnd = RobotController.getMonotonicTime();
+
+      // Record timing data
+      outputTable.put("Logger/ConduitCaptureMS", (dsStart - conduitCaptureStart) / 1000.0);
+      if (replaySource == null) {
+        outputTable.put("Logger/DriverStationMS", (conduitSaveStart - dsStart) / 1000.0);
+      }
+      outputTable.put("Logger/ConduitSaveMS", (autoLogStart - conduitSaveStart) / 1000.0);
+      outputTable.put("Logger/AutoLogMS", (alertLogStart - autoLogStart) / 1000.0);
+      outputTable.put("Logger/AlertLogMS", (radioLogStart - alertLogStart) / 1000.0);
+      outputTable.put("Logger/RadioLogMS", (consoleCaptureStart - radioLogStart) / 1000.0);
+      outputTable.put("Logger/ConsoleMS", (consoleCaptureEnd - consoleCaptureStart) / 1000.0);
+      outputTable.put("LoggedRobot/UserCodeMS", userCodeLength / 1000.0);
+      long periodicAfterLength = consoleCaptureEnd - conduitCaptureStart;
+      outputTable.put(
+          "LoggedRobot/LogPeriodicMS", (periodicBeforeLength + periodicAfterLength) / 1000.0);
+      outputTable.put(
+          "LoggedRobot/FullCycleMS",
+          (periodicBeforeLength + userCodeLength + periodicAfterLength) / 1000.0);
+      int maxQueuedCycles = 0;
+      int maxHighWaterMark = 0;
+      long totalDroppedCycles = 0;
+      for (ReceiverThread receiverThread : receiverThreads) {
+        ReceiverQueue queue = receiverThread.getQueue();
+        int queuedCycles = queue.size();
+        outputTable.put(receiverThread.queuedCyclesKey, queuedCycles);
+        outputTable.put(receiverThread.highWaterMarkKey, queue.getHighWaterMark());
+        outputTable.put(receiverThread.droppedCyclesKey, queue.getDroppedCount());
+        maxQueuedCycles = Math.max(maxQueuedCycles, queuedCycles);
+        maxHighWaterMark = Math.max(maxHighWaterMark, queue.getHighWaterMark());
+        totalDroppedCycles += queue.getDroppedCount();
+      }
+      outputTable.put("Logger/QueuedCycles", maxQueuedCycles);
+      outputTable.put("Logger/QueueHighWaterMark", maxHighWaterMark);
+      outputTable.put("Logger/QueueDroppedCycles", totalDroppedCycles);
+
+      // Send a copy of the data to the receivers. The original object will be
+      // kept and updated with the next timestamp (and new data if replaying).
+      // The copy is never modified, so it is shared by all receivers.
+      if (receiverThreads.length > 0) {
+        long releasedCopy = Long.MAX_VALUE;
+        for (ReceiverThread receiverThread : receiverThreads) {
+          releasedCopy = Math.min(releasedCopy, receiverThread.getReleasedCopy());
+        }
+        entry.releaseCopies(releasedCopy);
+        LogTable copy = LogTable.cloneForReceivers(entry);
+        receiverQueueFault = false;
+        for (ReceiverThread receiverThread : receiverThreads) {
+          if (!receiverThread.getQueue().offer(copy)) {
+            receiverQueueFault = true;
+          }
+        }
+
+        // Report dropped cycles, rate limited since a full queue usually stays full for a while
+        long now = System.nanoTime();
+        if (receiverQueueFault && now - lastDroppedCyclesReport >= droppedCyclesReportNanos) {
+          lastDroppedCyclesReport = now;
+          for (ReceiverThread receiverThread : receiverThreads) {
+            long droppedCycles =
+                receiverThread.getQueue().getDroppedCount() - receiverThread.reportedDroppedCycles;
+            if (droppedCycles > 0) {
+              receiverThread.reportedDroppedCycles += droppedCycles;
+              DriverStationErrors.reportError(
+                  "[AdvantageKit] Capacity of receiver queue exceeded for "
+                      + receiverThread.getName()
+                      + ", "
+                      + droppedCycles
+                      + " cycle"
+                      + (droppedCycles == 1 ? " was" : "s were")
+                      + " dropped and will NOT be logged.",
+                  false);
+            }
+          }
+        }
+      }
+    }
+  }
+}
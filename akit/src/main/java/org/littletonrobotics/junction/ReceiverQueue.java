@@ -0,0 +1,204 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package org.littletonrobotics.junction;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import org.littletonrobotics.junction.Logger.QueueOverflowPolicy;
+import org.littletonrobotics.junction.Logger.QueueWaitStrategy;
+
+/**
+ * Lock-free single-producer single-consumer queue for passing log cycles from the main thread to
+ * the receiver thread. All slots are allocated when the queue is created.
+ */
+class ReceiverQueue {
+  private static final int spinIterations = 1000;
+  private static final long maxParkNanos = 1_000_000;
+
+  private final int capacity;
+  private final int mask;
+  private final AtomicReferenceArray<LogTable> slots;
+  private final QueueWaitStrategy waitStrategy;
+  private final QueueOverflowPolicy overflowPolicy;
+  private final long blockTimeoutNanos;
+
+  private final AtomicLong head = new AtomicLong(); // Next position to read
+  private final AtomicLong tail = new AtomicLong(); // Next position to write
+  private volatile Thread waitingConsumer = null;
+  private volatile Thread waitingProducer = null;
+
+  // Only accessed by the producer
+  private int highWaterMark = 0;
+  private long droppedCount = 0;
+
+  ReceiverQueue(
+      int capacity,
+      QueueWaitStrategy waitStrategy,
+      QueueOverflowPolicy overflowPolicy,
+      long blockTimeoutNanos) {
+    this.capacity = capacity;
+    this.waitStrategy = waitStrategy;
+    this.overflowPolicy = overflowPolicy;
+    this.blockTimeoutNanos = blockTimeoutNanos;
+    int slotCount = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+    mask = slotCount - 1;
+    slots = new AtomicReferenceArray<>(slotCount);
+  }
+
+  /**
+   * Adds a table to the queue, applying the overflow policy if the queue is full. Must only be
+   * called by the producer thread.
+   *
+   * @return False if any data was dropped, true otherwise.
+   */
+  boolean offer(LogTable table) {
+    boolean dropped = false;
+    long currentTail = tail.get();
+    if (currentTail - head.get() >= capacity) {
+      switch (overflowPolicy) {
+        case DropNewest:
+          droppedCount++;
+          return false;
+
+        case DropOldest:
+          long currentHead = head.get();
+          if (currentTail - currentHead >= capacity
+              && head.compareAndSet(currentHead, currentHead + 1)) {
+            slots.set(index(currentHead), null);
+            droppedCount++;
+            dropped = true;
+          }
+          break;
+
+        case Block:
+          if (!awaitSpace(currentTail)) {
+            droppedCount++;
+            return false;
+          }
+          break;
+      }
+    }
+
+    // Publish table
+    slots.set(index(currentTail), table);
+    tail.set(currentTail + 1);
+    Thread consumer = waitingConsumer;
+    if (consumer != null) {
+      LockSupport.unpark(consumer);
+    }
+
+    int size = (int) (currentTail + 1 - head.get());
+    if (size > highWaterMark) {
+      highWaterMark = size;
+    }
+    return !dropped;
+  }
+
+  /**
+   * Removes the oldest table from the queue. Must only be called by the consumer thread.
+   *
+   * @return The table, or null if the queue is empty.
+   */
+  LogTable poll() {
+    while (true) {
+      long currentHead = head.get();
+      if (currentHead == tail.get()) {
+        return null;
+      }
+      int index = index(currentHead);
+      LogTable table = slots.get(index);
+
+      // Head may have been advanced by the producer dropping the oldest table
+      if (head.compareAndSet(currentHead, currentHead + 1)) {
+        slots.compareAndSet(index, table, null);
+        Thread producer = waitingProducer;
+        if (producer != null) {
+          LockSupport.unpark(producer);
+        }
+        return table;
+      }
+    }
+  }
+
+  /**
+   * Removes the oldest table from the queue, waiting until one is available. Must only be called by
+   * the consumer thread.
+   */
+  LogTable take() throws InterruptedException {
+    int idleCount = 0;
+    while (true) {
+      LogTable table = poll();
+      if (table != null) {
+        return table;
+      }
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      idle(idleCount++, true);
+    }
+  }
+
+  /** Returns the number of tables currently in the queue. */
+  int size() {
+    long currentHead = head.get();
+    return (int) Math.min(tail.get() - currentHead, capacity);
+  }
+
+  /** Returns the largest number of tables that have been queued at once. */
+  int getHighWaterMark() {
+    return highWaterMark;
+  }
+
+  /** Returns the total number of tables dropped due to overflow. */
+  long getDroppedCount() {
+    return droppedCount;
+  }
+
+  private int index(long position) {
+    return (int) (position & mask);
+  }
+
+  /** Waits for space in the queue until the block timeout expires. */
+  private boolean awaitSpace(long currentTail) {
+    long deadline = System.nanoTime() + blockTimeoutNanos;
+    int idleCount = 0;
+    while (currentTail - head.get() >= capacity) {
+      if (System.nanoTime() - deadline >= 0) {
+        return false;
+      }
+      idle(idleCount++, false);
+    }
+    return true;
+  }
+
+  /** Waits once based on the wait strategy. */
+  private void idle(int idleCount, boolean consumer) {
+    if (waitStrategy == QueueWaitStrategy.BusySpin
+        || (waitStrategy == QueueWaitStrategy.SpinThenPark && idleCount < spinIterations)) {
+      Thread.onSpinWait();
+      return;
+    }
+
+    // Register before checking again so that a concurrent offer or poll will unpark this thread
+    Thread current = Thread.currentThread();
+    if (consumer) {
+      waitingConsumer = current;
+      if (head.get() == tail.get()) {
+        LockSupport.parkNanos(this, maxParkNanos);
+      }
+      waitingConsumer = null;
+    } else {
+      waitingProducer = current;
+      if (tail.get() - head.get() >= capacity) {
+        LockSupport.parkNanos(this, maxParkNanos);
+      }
+      waitingProducer = null;
+    }
+  }
+}
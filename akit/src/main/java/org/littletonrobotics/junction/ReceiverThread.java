@@ -7,55 +7,66 @@
 
 package org.littletonrobotics.junction;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.BlockingQueue;
-
+/**
+ * Sends queued cycles to a single data receiver. Each receiver has its own thread and queue so that
+ * a slow receiver does not delay the others.
+ */
 class ReceiverThread extends Thread {
-  private final BlockingQueue<LogTable> queue;
-  private List<LogDataReceiver> dataReceivers = new ArrayList<>();
+  private final ReceiverQueue queue;
+  private final LogDataReceiver dataReceiver;
+  private volatile long releasedCopy = -1; // Copies up to this index are no longer referenced
+
+  final String queuedCyclesKey;
+  final String highWaterMarkKey;
+  final String droppedCyclesKey;
+  long reportedDroppedCycles = 0; // Only accessed by the main thread
 
-  ReceiverThread(BlockingQueue<LogTable> queue) {
-    super("AdvantageKit_LogReceiver");
+  ReceiverThread(String name, ReceiverQueue queue, LogDataReceiver dataReceiver) {
+    super("AdvantageKit_LogReceiver_" + name);
     this.setDaemon(true);
     this.queue = queue;
+    this.dataReceiver = dataReceiver;
+    queuedCyclesKey = "Logger/Receivers/" + name + "/QueuedCycles";
+    highWaterMarkKey = "Logger/Receivers/" + name + "/QueueHighWaterMark";
+    droppedCyclesKey = "Logger/Receivers/" + name + "/QueueDroppedCycles";
+  }
+
+  ReceiverQueue getQueue() {
+    return queue;
   }
 
-  void addDataReceiver(LogDataReceiver dataReceiver) {
-    dataReceivers.add(dataReceiver);
+  /**
+   * Returns the index of the latest copy which the receiver no longer references. Only meaningful
+   * if the receiver releases each table after the next call to putTable.
+   */
+  long getReleasedCopy() {
+    return releasedCopy;
   }
 
   public void run() {
-    // Start data receivers
-    for (int i = 0; i < dataReceivers.size(); i++) {
-      dataReceivers.get(i).start();
-    }
+    // Start data receiver
+    dataReceiver.start();
 
     try {
       while (true) {
         LogTable entry = queue.take(); // Wait for data
 
-        // Send data to receivers
-        for (int i = 0; i < dataReceivers.size(); i++) {
-          dataReceivers.get(i).putTable(entry);
-        }
+        // Send data to receiver
+        dataReceiver.putTable(entry);
+        releasedCopy = entry.getCopyIndex() - 1;
       }
     } catch (InterruptedException exception) {
       // Empty queue
-      while (!queue.isEmpty()) {
-        LogTable entry = queue.poll();
-        for (int i = 0; i < dataReceivers.size(); i++) {
-          try {
-            dataReceivers.get(i).putTable(entry);
-          } catch (InterruptedException e) {
-          }
+      LogTable entry;
+      while ((entry = queue.poll()) != null) {
+        try {
+          dataReceiver.putTable(entry);
+        } catch (InterruptedException e) {
         }
       }
 
-      // End all data receivers
-      for (int i = 0; i < dataReceivers.size(); i++) {
-        dataReceivers.get(i).end();
-      }
+      // End data receiver
+      dataReceiver.end();
     }
   }
 }
@@ -7,8 +7,10 @@
 
 package org.littletonrobotics.junction;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.RecordComponent;
 import java.nio.ByteBuffer;
@@ -24,7 +26,7 @@ import org.wpilib.util.struct.StructSerializable;
 @SuppressWarnings("rawtypes")
 class RecordStruct implements Struct {
   private final Class<?> recordClass;
-  private Constructor<?> recordConstructor = null;
+  private MethodHandle recordConstructor = null;
   private final String typeName;
   private final int size;
   private final String schema;
@@ -50,8 +52,15 @@ class RecordStruct implements Struct {
       parameterTypes[i] = component.getType();
 
       // Get value accessor
-      Method accessor = component.getAccessor();
-      accessor.setAccessible(true);
+      MethodHandle accessor;
+      try {
+        Method accessorMethod = component.getAccessor();
+        accessorMethod.setAccessible(true);
+        accessor = MethodHandles.lookup().unreflect(accessorMethod);
+      } catch (IllegalAccessException | RuntimeException e) {
+        e.printStackTrace();
+        accessor = null;
+      }
 
       // Add functions based on type
       if (component.getType().equals(boolean.class)) {
@@ -59,13 +68,12 @@ class RecordStruct implements Struct {
         schema.append("bool ");
         schema.append(component.getName());
         schema.append(";");
+        MethodHandle getter = adaptAccessor(accessor, boolean.class);
         packFunctions.add(
             (ByteBuffer bb, Object record) -> {
               try {
-                bb.put(((boolean) accessor.invoke(record)) ? (byte) 1 : (byte) 0);
-              } catch (IllegalAccessException
-                  | IllegalArgumentException
-                  | InvocationTargetException e) {
+                bb.put(((boolean) getter.invokeExact(record)) ? (byte) 1 : (byte) 0);
+              } catch (Throwable e) {
                 e.printStackTrace();
               }
             });
@@ -76,13 +84,12 @@ class RecordStruct implements Struct {
         schema.append("int16 ");
         schema.append(component.getName());
         schema.append(";");
+        MethodHandle getter = adaptAccessor(accessor, short.class);
         packFunctions.add(
             (ByteBuffer bb, Object record) -> {
               try {
-                bb.putShort((short) accessor.invoke(record));
-              } catch (IllegalAccessException
-                  | IllegalArgumentException
-                  | InvocationTargetException e) {
+                bb.putShort((short) getter.invokeExact(record));
+              } catch (Throwable e) {
                 e.printStackTrace();
               }
             });
@@ -93,13 +100,12 @@ class RecordStruct implements Struct {
         schema.append("int32 ");
         schema.append(component.getName());
         schema.append(";");
+        MethodHandle getter = adaptAccessor(accessor, int.class);
         packFunctions.add(
             (ByteBuffer bb, Object record) -> {
               try {
-                bb.putInt((int) accessor.invoke(record));
-              } catch (IllegalAccessException
-                  | IllegalArgumentException
-                  | InvocationTargetException e) {
+                bb.putInt((int) getter.invokeExact(record));
+              } catch (Throwable e) {
                 e.printStackTrace();
               }
             });
@@ -110,13 +116,12 @@ class RecordStruct implements Struct {
         schema.append("int64 ");
         schema.append(component.getName());
         schema.append(";");
+        MethodHandle getter = adaptAccessor(accessor, long.class);
         packFunctions.add(
             (ByteBuffer bb, Object record) -> {
               try {
-                bb.putLong((long) accessor.invoke(record));
-              } catch (IllegalAccessException
-                  | IllegalArgumentException
-                  | InvocationTargetException e) {
+                bb.putLong((long) getter.invokeExact(record));
+              } catch (Throwable e) {
                 e.printStackTrace();
               }
             });
@@ -127,13 +132,12 @@ class RecordStruct implements Struct {
         schema.append("float ");
         schema.append(component.getName());
         schema.append(";");
+        MethodHandle getter = adaptAccessor(accessor, float.class);
         packFunctions.add(
             (ByteBuffer bb, Object record) -> {
               try {
-                bb.putFloat((float) accessor.invoke(record));
-              } catch (IllegalAccessException
-                  | IllegalArgumentException
-                  | InvocationTargetException e) {
+                bb.putFloat((float) getter.invokeExact(record));
+              } catch (Throwable e) {
                 e.printStackTrace();
               }
             });
@@ -144,13 +148,12 @@ class RecordStruct implements Struct {
         schema.append("double ");
         schema.append(component.getName());
         schema.append(";");
+        MethodHandle getter = adaptAccessor(accessor, double.class);
         packFunctions.add(
             (ByteBuffer bb, Object record) -> {
               try {
-                bb.putDouble((double) accessor.invoke(record));
-              } catch (IllegalAccessException
-                  | IllegalArgumentException
-                  | InvocationTargetException e) {
+                bb.putDouble((double) getter.invokeExact(record));
+              } catch (Throwable e) {
                 e.printStackTrace();
               }
             });
@@ -171,13 +174,12 @@ class RecordStruct implements Struct {
         schema.append("} int32 ");
         schema.append(component.getName());
         schema.append(";");
+        MethodHandle getter = adaptAccessor(accessor, Enum.class);
         packFunctions.add(
             (ByteBuffer bb, Object record) -> {
               try {
-                bb.putInt(((Enum) accessor.invoke(record)).ordinal());
-              } catch (IllegalAccessException
-                  | IllegalArgumentException
-                  | InvocationTargetException e) {
+                bb.putInt(((Enum) getter.invokeExact(record)).ordinal());
+              } catch (Throwable e) {
                 e.printStackTrace();
               }
             });
@@ -187,7 +189,7 @@ class RecordStruct implements Struct {
           || StructSerializable.class.isAssignableFrom(component.getType())) {
         Struct<?> struct = null;
         if (component.getType().isRecord()) {
-          struct = new RecordStruct(component.getType());
+          struct = RecordStruct.create(component.getType());
         } else {
           try {
             struct = (Struct) component.getType().getDeclaredField("struct").get(null);
@@ -217,13 +219,12 @@ class RecordStruct implements Struct {
           schema.append(";");
           nestedStructs.add(struct);
           Struct rawStruct = struct;
+          MethodHandle getter = adaptAccessor(accessor, Object.class);
           packFunctions.add(
               (ByteBuffer bb, Object record) -> {
                 try {
-                  rawStruct.pack(bb, accessor.invoke(record));
-                } catch (IllegalAccessException
-                    | IllegalArgumentException
-                    | InvocationTargetException e) {
+                  rawStruct.pack(bb, (Object) getter.invokeExact(record));
+                } catch (Throwable e) {
                   e.printStackTrace();
                 }
               });
@@ -253,15 +254,57 @@ class RecordStruct implements Struct {
       this.nestedStructs[i] = nestedStructs.get(i);
     }
 
-    // Get constructor
+    // Get constructor, taking the components as an array
     try {
-      this.recordConstructor = recordClass.getDeclaredConstructor(parameterTypes);
-      this.recordConstructor.setAccessible(true);
-    } catch (NoSuchMethodException | SecurityException e) {
+      Constructor<?> constructor = recordClass.getDeclaredConstructor(parameterTypes);
+      constructor.setAccessible(true);
+      this.recordConstructor =
+          MethodHandles.lookup()
+              .unreflectConstructor(constructor)
+              .asSpreader(Object[].class, parameterTypes.length)
+              .asType(MethodType.methodType(Object.class, Object[].class));
+    } catch (ReflectiveOperationException | RuntimeException e) {
       e.printStackTrace();
     }
   }
 
+  /**
+   * Returns the struct for a record class. The struct generated by the AutoLog annotation processor
+   * is used if available, otherwise the record is serialized through its accessor handles.
+   *
+   * @param recordClass The record class.
+   * @return The struct for the record class.
+   */
+  public static Struct<?> create(Class<?> recordClass) {
+    String packageName = recordClass.getPackageName();
+    String className =
+        recordClass.getName().substring(packageName.isEmpty() ? 0 : packageName.length() + 1);
+    String structName =
+        (packageName.isEmpty() ? "" : packageName + ".")
+            + className.replace('$', '_')
+            + "AutoLogStruct";
+    try {
+      Class<?> structClass = Class.forName(structName, true, recordClass.getClassLoader());
+      if (Struct.class.isAssignableFrom(structClass)) {
+        Struct<?> struct = (Struct<?>) structClass.getDeclaredConstructor().newInstance();
+        if (struct.getTypeClass() == recordClass) {
+          return struct;
+        }
+      }
+    } catch (ReflectiveOperationException | LinkageError e) {
+      // No generated struct, use accessor handles
+    }
+    return new RecordStruct(recordClass);
+  }
+
+  /** Adapts an accessor to take an Object and return the specified type. */
+  private static MethodHandle adaptAccessor(MethodHandle accessor, Class<?> returnType) {
+    if (accessor == null) {
+      return MethodHandles.dropArguments(MethodHandles.zero(returnType), 0, Object.class);
+    }
+    return accessor.asType(MethodType.methodType(returnType, Object.class));
+  }
+
   @Override
   public Class<?> getTypeClass() {
     return recordClass;
@@ -303,11 +346,8 @@ class RecordStruct implements Struct {
     // Construct record
     Object output = null;
     try {
-      output = recordConstructor.newInstance(elements);
-    } catch (InstantiationException
-        | IllegalAccessException
-        | IllegalArgumentException
-        | InvocationTargetException e) {
+      output = (Object) recordConstructor.invokeExact(elements);
+    } catch (Throwable e) {
       e.printStackTrace();
     }
     return output;
@@ -0,0 +1,221 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package org.littletonrobotics.junction;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Entry-point for batch replay functionality, which replays many logs in parallel. Each log is
+ * replayed by a separate robot process so that the state of the logger is fully isolated. Check the
+ * <a href= "https://docs.advantagekit.org/getting-started/traditional-replay#batch-replay">
+ * documentation</a> for details.
+ */
+public class ReplayBatch {
+  private static final String logExtension = ".wpilog";
+  private static final String replaySuffix = "_sim"; // Added to replayed logs by the templates
+
+  private ReplayBatch() {}
+
+  /** The result of replaying a single log. */
+  private static record Result(String log, int exitCode, double durationSecs) {}
+
+  /**
+   * Launch batch replay. Check the <a href=
+   * "https://docs.advantagekit.org/getting-started/traditional-replay#batch-replay">
+   * documentation</a> for details.
+   *
+   * @param args Command line arguments: the main class of the robot program, followed by any number
+   *     of log files or folders. The option "--jobs N" (number of logs replayed at once) may also
+   *     be provided. Logs with the "_sim" suffix are skipped when searching folders, since they are
+   *     produced by replay.
+   * @throws IOException If an IO error occurs.
+   * @throws InterruptedException If the thread is interrupted.
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    // Parse arguments
+    String mainClass = null;
+    int jobs = Runtime.getRuntime().availableProcessors();
+    List<String> inputs = new ArrayList<>();
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("--jobs") && i + 1 < args.length) {
+        jobs = Math.max(Integer.parseInt(args[++i]), 1);
+      } else if (mainClass == null) {
+        mainClass = args[i];
+      } else {
+        inputs.add(args[i]);
+      }
+    }
+    if (mainClass == null) {
+      System.out.println(
+          "No main class provided for batch replay, please provide the robot main class followed"
+              + " by the logs to replay.");
+      System.exit(1);
+    }
+
+    // Find input logs
+    List<String> logs = new ArrayList<>();
+    for (String input : inputs.isEmpty() ? List.of("logs") : inputs) {
+      findLogs(Path.of(input), logs);
+    }
+    if (logs.isEmpty()) {
+      System.out.println("No input logs found for batch replay.");
+      System.exit(1);
+    }
+    System.out.println(
+        "[AdvantageKit] Replaying "
+            + logs.size()
+            + " log"
+            + (logs.size() == 1 ? "" : "s")
+            + " with "
+            + Math.min(jobs, logs.size())
+            + " parallel job"
+            + (Math.min(jobs, logs.size()) == 1 ? "" : "s")
+            + "...");
+
+    // Launch replay processes
+    long startTime = System.nanoTime();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(jobs, logs.size()));
+    List<Future<Result>> futures = new ArrayList<>();
+    final String finalMainClass = mainClass;
+    for (String log : logs) {
+      futures.add(executor.submit(() -> launchReplay(finalMainClass, log)));
+    }
+    executor.shutdown();
+
+    // Collect results
+    List<Result> results = new ArrayList<>();
+    try {
+      for (Future<Result> future : futures) {
+        results.add(future.get());
+      }
+    } catch (ExecutionException e) {
+      executor.shutdownNow(); // Stop the remaining replays
+      throw new IOException(e.getCause());
+    }
+    double totalSecs = (System.nanoTime() - startTime) / 1e9;
+
+    // Print summary
+    int failed = 0;
+    double replaySecs = 0.0;
+    System.out.println("[AdvantageKit] Batch replay results:");
+    for (Result result : results) {
+      if (result.exitCode() != 0) {
+        failed++;
+      }
+      replaySecs += result.durationSecs();
+      System.out.println(
+          String.format(
+              "  %s  %7.2fs  %s",
+              result.exitCode() == 0 ? "PASS" : "FAIL (" + result.exitCode() + ")",
+              result.durationSecs(),
+              result.log()));
+    }
+    System.out.println(
+        String.format(
+            "[AdvantageKit] %d passed, %d failed in %.2fs (%.2fs of replay time)",
+            results.size() - failed, failed, totalSecs, replaySecs));
+    System.exit(failed == 0 ? 0 : 1);
+  }
+
+  /** Adds the logs in the given file or folder, skipping logs produced by replay. */
+  private static void findLogs(Path input, List<String> logs) throws IOException {
+    if (Files.isDirectory(input)) {
+      try (Stream<Path> stream = Files.walk(input)) {
+        stream
+            .filter(Files::isRegularFile)
+            .map(path -> path.toAbsolutePath().toString())
+            .filter(path -> path.endsWith(logExtension) && !isReplayedLog(path))
+            .sorted()
+            .forEach(logs::add);
+      }
+    } else if (Files.isRegularFile(input)) {
+      logs.add(input.toAbsolutePath().toString());
+    } else {
+      System.out.println("[AdvantageKit] Skipping missing replay input \"" + input + "\"");
+    }
+  }
+
+  /** Returns whether the log was produced by replay, based on the path suffix. */
+  private static boolean isReplayedLog(String path) {
+    String basename = path.substring(0, path.length() - logExtension.length());
+    return basename.endsWith(replaySuffix)
+        || basename.matches(".+" + Pattern.quote(replaySuffix) + "_[0-9]+$");
+  }
+
+  /**
+   * Replays a single log in a new robot process, using the same classpath as this process. Console
+   * output is written next to the original log. The process is destroyed if interrupted.
+   */
+  private static Result launchReplay(String mainClass, String log)
+      throws IOException, InterruptedException {
+    var builder = createReplayProcess(mainClass, System.getProperty("java.class.path"), log);
+    String outputPath = LogFileUtil.addPathSuffix(log, replaySuffix);
+    int dotIndex = outputPath.lastIndexOf(".");
+    File outputFile =
+        new File((dotIndex == -1 ? outputPath : outputPath.substring(0, dotIndex)) + ".txt");
+    builder.redirectErrorStream(true).redirectOutput(outputFile);
+
+    // Run replay
+    long startTime = System.nanoTime();
+    var process = builder.start();
+    int exitCode;
+    try {
+      exitCode = process.waitFor();
+    } catch (InterruptedException e) {
+      process.destroy();
+      throw e;
+    }
+    double durationSecs = (System.nanoTime() - startTime) / 1e9;
+    System.out.println(
+        "[AdvantageKit] "
+            + (exitCode == 0 ? "Finished" : "Failed")
+            + " replay of \""
+            + log
+            + "\", console output saved to \""
+            + outputFile
+            + "\"");
+    return new Result(log, exitCode, durationSecs);
+  }
+
+  /**
+   * Creates a process that replays a log by running the robot program in a new JVM, using the same
+   * Java runtime and library path as this process.
+   *
+   * @param mainClass The main class of the robot program.
+   * @param classpath The classpath of the robot program.
+   * @param log The path to the log to replay.
+   * @return The process builder.
+   */
+  static ProcessBuilder createReplayProcess(String mainClass, String classpath, String log) {
+    String javaPath =
+        ProcessHandle.current()
+            .info()
+            .command()
+            .orElse(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+    var builder =
+        new ProcessBuilder(
+            javaPath,
+            "-Djava.library.path=" + System.getProperty("java.library.path"),
+            "-cp",
+            classpath,
+            mainClass);
+    builder.environment().put(LogFileUtil.environmentVariable, log);
+    return builder;
+  }
+}
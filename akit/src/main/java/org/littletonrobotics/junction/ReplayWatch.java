@@ -21,8 +21,15 @@ import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
 
 /**
  * Entry-point for replay watch functionality. Check the <a href=
@@ -33,13 +40,27 @@ public class ReplayWatch {
   private static Map<WatchKey, Path> keys;
   private static long lastReplayEndTime = 0;
 
+  private static final Path sourcePath = Path.of("src", "main", "java").toAbsolutePath();
+  private static final Path generatedSourcePath =
+      Path.of("build", "generated", "sources", "annotationProcessor", "java", "main")
+          .toAbsolutePath();
+  private static final Path compileOutputPath =
+      Path.of("build", "replayWatch", "classes").toAbsolutePath();
+  private static final Pattern autoLogPattern =
+      Pattern.compile("@AutoLog(Output)?\\b"); // Generated classes require annotation processing
+  private static String robotMainClass = null;
+  private static JavaCompiler compiler = null;
+  private static Map<Path, Long> sourceTimestamps = new HashMap<>();
+
   private ReplayWatch() {}
 
   /**
    * Launch replay watch. Check the <a href=
    * "https://docs.advantagekit.org/getting-started/replay-watch">documentation</a> for details.
    *
-   * @param args Command line arguments, unused.
+   * @param args Command line arguments. If the main class of the robot program is provided, replay
+   *     runs in incremental mode. Changes are compiled without Gradle where possible, and replay
+   *     runs in a new JVM launched directly by this process.
    * @throws IOException If an IO error occurs.
    * @throws InterruptedException If the thread is interrupted.
    */
@@ -62,7 +83,15 @@ public class ReplayWatch {
     boolean hasSpotless = isSpotlessInstalled();
 
     // Run initial replay
-    launchReplay(inputLog, hasSpotless);
+    if (args.length > 0) {
+      robotMainClass = args[0];
+      compiler = ToolProvider.getSystemJavaCompiler();
+      sourceTimestamps = findSources();
+      deleteCompileOutput();
+      launchDirectReplay(inputLog);
+    } else {
+      launchReplay(inputLog, hasSpotless);
+    }
 
     // Create directory watcher
     watcher = FileSystems.getDefault().newWatchService();
@@ -137,7 +166,11 @@ public class ReplayWatch {
 
       // New update, run replay
       if (isNewUpdate) {
-        launchReplay(inputLog, hasSpotless);
+        if (robotMainClass != null) {
+          launchIncrementalReplay(inputLog, hasSpotless);
+        } else {
+          launchReplay(inputLog, hasSpotless);
+        }
       }
     }
   }
@@ -147,29 +180,163 @@ public class ReplayWatch {
     System.out.println("[AdvantageKit] Starting replay...");
 
     // Launch Gradle
-    boolean isWindows = System.getProperty("os.name").startsWith("Windows");
     var gradleBuilder =
-        new ProcessBuilder(
-                hasSpotless
-                    ? new String[] {
-                      isWindows ? "gradlew.bat" : "./gradlew",
-                      "simulateJava",
-                      "-x",
-                      "test",
-                      "-x",
-                      "spotlessApply",
-                      "-x",
-                      "spotlessCheck"
-                    }
-                    : new String[] {
-                      isWindows ? "gradlew.bat" : "./gradlew", "simulateJava", "-x", "test"
-                    })
-            .inheritIO();
+        new ProcessBuilder(getGradleCommand("simulateJava", hasSpotless)).inheritIO();
     gradleBuilder.environment().put(LogFileUtil.environmentVariable, inputLog);
     var gradle = gradleBuilder.start();
 
     // Print result
-    if (gradle.waitFor() == 0) {
+    printResult(gradle.waitFor() == 0);
+  }
+
+  /**
+   * Compiles the changed source files and launches replay. The full source set is compiled by a
+   * compiler that is kept warm between replays. Gradle is only used when the set of files changes
+   * or when an {@code @AutoLog} class is modified, since these require the annotation processor.
+   */
+  private static void launchIncrementalReplay(String inputLog, boolean hasSpotless)
+      throws IOException, InterruptedException {
+    // Find changed files
+    Map<Path, Long> newTimestamps = findSources();
+    boolean useGradle =
+        compiler == null || !newTimestamps.keySet().equals(sourceTimestamps.keySet());
+    boolean hasChanges = useGradle;
+    for (Map.Entry<Path, Long> source : newTimestamps.entrySet()) {
+      if (!source.getValue().equals(sourceTimestamps.get(source.getKey()))) {
+        hasChanges = true;
+        if (autoLogPattern.matcher(Files.readString(source.getKey())).find()) {
+          useGradle = true;
+        }
+      }
+    }
+    sourceTimestamps = newTimestamps;
+    if (!hasChanges) {
+      // Other files were modified, such as tests
+      lastReplayEndTime = System.currentTimeMillis();
+      return;
+    }
+
+    // Compile
+    boolean compiled;
+    long compileStart = System.nanoTime();
+    if (useGradle) {
+      System.out.println("[AdvantageKit] Compiling with Gradle...");
+      deleteCompileOutput();
+      compiled =
+          new ProcessBuilder(getGradleCommand("classes", hasSpotless)).inheritIO().start().waitFor()
+              == 0;
+    } else {
+      System.out.println("[AdvantageKit] Compiling...");
+      compiled = compileSources(newTimestamps.keySet());
+    }
+    if (!compiled) {
+      printResult(false);
+      return;
+    }
+    System.out.println(
+        String.format(
+            "[AdvantageKit] Compiled in %.2fs", (System.nanoTime() - compileStart) / 1e9));
+
+    // Run replay
+    launchDirectReplay(inputLog);
+  }
+
+  /** Runs replay in a new JVM using the classpath of this process and any recompiled classes. */
+  private static void launchDirectReplay(String inputLog) throws IOException, InterruptedException {
+    System.out.println("[AdvantageKit] Starting replay...");
+    String classpath = System.getProperty("java.class.path");
+    if (Files.isDirectory(compileOutputPath)) {
+      classpath = compileOutputPath + System.getProperty("path.separator") + classpath;
+    }
+    var replay =
+        ReplayBatch.createReplayProcess(robotMainClass, classpath, inputLog).inheritIO().start();
+    printResult(replay.waitFor() == 0);
+  }
+
+  /** Compiles the robot program into the replay watch output directory. */
+  private static boolean compileSources(Iterable<Path> sources) throws IOException {
+    deleteCompileOutput();
+    Files.createDirectories(compileOutputPath);
+
+    // Include sources generated by the annotation processor during the last Gradle build
+    List<Path> allSources = new ArrayList<>();
+    sources.forEach(allSources::add);
+    if (Files.isDirectory(generatedSourcePath)) {
+      try (Stream<Path> stream = Files.walk(generatedSourcePath)) {
+        stream.filter(path -> path.toString().endsWith(".java")).forEach(allSources::add);
+      }
+    }
+
+    try (var fileManager = compiler.getStandardFileManager(null, null, null)) {
+      boolean success =
+          compiler
+              .getTask(
+                  null,
+                  fileManager,
+                  null,
+                  List.of(
+                      "-d",
+                      compileOutputPath.toString(),
+                      "-cp",
+                      System.getProperty("java.class.path"),
+                      "-proc:none",
+                      "-encoding",
+                      "UTF-8",
+                      "-XDstringConcat=inline"),
+                  null,
+                  fileManager.getJavaFileObjectsFromPaths(allSources))
+              .call();
+      if (!success) {
+        deleteCompileOutput();
+      }
+      return success;
+    }
+  }
+
+  /** Returns the last modified time of each Java source file. */
+  private static Map<Path, Long> findSources() throws IOException {
+    Map<Path, Long> timestamps = new HashMap<>();
+    if (Files.isDirectory(sourcePath)) {
+      try (Stream<Path> stream = Files.walk(sourcePath)) {
+        for (Path path : (Iterable<Path>) stream::iterator) {
+          if (path.toString().endsWith(".java") && Files.isRegularFile(path)) {
+            timestamps.put(path, Files.getLastModifiedTime(path).toMillis());
+          }
+        }
+      }
+    }
+    return timestamps;
+  }
+
+  /** Deletes the classes compiled by replay watch, so that the Gradle outputs are used. */
+  private static void deleteCompileOutput() throws IOException {
+    if (Files.exists(compileOutputPath)) {
+      try (Stream<Path> stream = Files.walk(compileOutputPath)) {
+        for (Path path : (Iterable<Path>) stream.sorted(Comparator.reverseOrder())::iterator) {
+          Files.delete(path);
+        }
+      }
+    }
+  }
+
+  private static String[] getGradleCommand(String task, boolean hasSpotless) {
+    boolean isWindows = System.getProperty("os.name").startsWith("Windows");
+    return hasSpotless
+        ? new String[] {
+          isWindows ? "gradlew.bat" : "./gradlew",
+          task,
+          "-x",
+          "test",
+          "-x",
+          "spotlessApply",
+          "-x",
+          "spotlessCheck"
+        }
+        : new String[] {isWindows ? "gradlew.bat" : "./gradlew", task, "-x", "test"};
+  }
+
+  private static void printResult(boolean success) {
+    if (success) {
       System.out.println("[AdvantageKit] Replay finished, waiting for changes...");
     } else {
       System.out.println("[AdvantageKit] Replay failed, waiting for changes...");
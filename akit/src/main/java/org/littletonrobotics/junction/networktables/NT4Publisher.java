@@ -7,20 +7,22 @@
 
 package org.littletonrobotics.junction.networktables;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 import org.littletonrobotics.junction.LogDataReceiver;
 import org.littletonrobotics.junction.LogTable;
 import org.littletonrobotics.junction.LogTable.LogValue;
 import org.wpilib.networktables.*;
 
-/** Publishes log data using NT4. */
+/**
+ * Publishes log data using NT4. Publishers are stored by field ID, so only the fields changed since
+ * the last table are visited each cycle.
+ */
 public class NT4Publisher implements LogDataReceiver {
   private final NetworkTable akitTable;
   private LogTable lastTable = new LogTable(0);
   private final IntegerPublisher timestampPublisher;
-  private final Map<String, GenericPublisher> publishers = new HashMap<>();
-  private final Map<String, String> units = new HashMap<>();
+  private GenericPublisher[] publishers = new GenericPublisher[0]; // Indexed by field ID
+  private String[] units = new String[0]; // Indexed by field ID
 
   /** Creates a new NT4Publisher. */
   public NT4Publisher() {
@@ -29,80 +31,74 @@ public class NT4Publisher implements LogDataReceiver {
         akitTable.getIntegerTopic(timestampKey.substring(1)).publish(PubSubOption.SEND_ALL);
   }
 
+  public boolean releasesPreviousTable() {
+    return true; // Values are copied by NetworkTables when published
+  }
+
   public void putTable(LogTable table) {
     // Send timestamp
-    timestampPublisher.set(table.getTimestamp(), table.getTimestamp());
-
-    // Get old and new data
-    Map<String, LogValue> newMap = table.getAll(false);
-    Map<String, LogValue> oldMap = lastTable.getAll(false);
+    long timestamp = table.getTimestamp();
+    timestampPublisher.set(timestamp, timestamp);
 
     // Encode new/changed fields
-    for (Map.Entry<String, LogValue> field : newMap.entrySet()) {
-      // Check if field has changed
-      LogValue newValue = field.getValue();
-      if (newValue.equals(oldMap.get(field.getKey()))) {
-        continue;
-      }
+    for (int fieldId : table.getChangedFields(lastTable)) {
+      LogValue newValue = table.getField(fieldId);
 
       // Create publisher if necessary
-      String key = field.getKey().substring(1);
-      String unit = field.getValue().unitStr;
-      GenericPublisher publisher = publishers.get(key);
+      if (fieldId >= publishers.length) {
+        int length = Math.max(fieldId + 1, publishers.length * 2);
+        publishers = Arrays.copyOf(publishers, length);
+        units = Arrays.copyOf(units, length);
+      }
+      GenericPublisher publisher = publishers[fieldId];
       if (publisher == null) {
+        String key = table.getFieldKey(fieldId).substring(1);
         publisher =
-            akitTable
-                .getTopic(key)
-                .genericPublish(field.getValue().getNT4Type(), PubSubOption.SEND_ALL);
-        publishers.put(key, publisher);
-
-        // Set initial unit
-        if (unit != null) {
-          akitTable.getTopic(key).setProperty("unit", "\"" + unit + "\"");
-          units.put(key, unit);
-        }
+            akitTable.getTopic(key).genericPublish(newValue.getNT4Type(), PubSubOption.SEND_ALL);
+        publishers[fieldId] = publisher;
       }
 
-      // Check if unit changed
-      if (unit != null && !unit.equals(units.get(key))) {
-        akitTable.getTopic(key).setProperty("unit", "\"" + unit + "\"");
-        units.put(key, unit);
+      // Set unit if new or changed
+      String unit = newValue.unitStr;
+      if (unit != null && !unit.equals(units[fieldId])) {
+        publisher.getTopic().setProperty("unit", "\"" + unit + "\"");
+        units[fieldId] = unit;
       }
 
       // Write new data
-      switch (field.getValue().type) {
+      switch (newValue.type) {
         case Raw:
-          publisher.setRaw(field.getValue().getRaw(), table.getTimestamp());
+          publisher.setRaw(newValue.getRaw(), timestamp);
           break;
         case Boolean:
-          publisher.setBoolean(field.getValue().getBoolean(), table.getTimestamp());
+          publisher.setBoolean(newValue.getBoolean(), timestamp);
           break;
         case BooleanArray:
-          publisher.setBooleanArray(field.getValue().getBooleanArray(), table.getTimestamp());
+          publisher.setBooleanArray(newValue.getBooleanArray(), timestamp);
           break;
         case Integer:
-          publisher.setInteger(field.getValue().getInteger(), table.getTimestamp());
+          publisher.setInteger(newValue.getInteger(), timestamp);
           break;
         case IntegerArray:
-          publisher.setIntegerArray(field.getValue().getIntegerArray(), table.getTimestamp());
+          publisher.setIntegerArray(newValue.getIntegerArray(), timestamp);
           break;
         case Float:
-          publisher.setFloat(field.getValue().getFloat(), table.getTimestamp());
+          publisher.setFloat(newValue.getFloat(), timestamp);
           break;
         case FloatArray:
-          publisher.setFloatArray(field.getValue().getFloatArray(), table.getTimestamp());
+          publisher.setFloatArray(newValue.getFloatArray(), timestamp);
           break;
         case Double:
-          publisher.setDouble(field.getValue().getDouble(), table.getTimestamp());
+          publisher.setDouble(newValue.getDouble(), timestamp);
           break;
         case DoubleArray:
-          publisher.setDoubleArray(field.getValue().getDoubleArray(), table.getTimestamp());
+          publisher.setDoubleArray(newValue.getDoubleArray(), timestamp);
           break;
         case String:
-          publisher.setString(field.getValue().getString(), table.getTimestamp());
+          publisher.setString(newValue.getString(), timestamp);
           break;
         case StringArray:
-          publisher.setStringArray(field.getValue().getStringArray(), table.getTimestamp());
+          publisher.setStringArray(newValue.getStringArray(), timestamp);
           break;
       }
     }
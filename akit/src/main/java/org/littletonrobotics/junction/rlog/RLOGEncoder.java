@@ -7,224 +7,351 @@
 
 package org.littletonrobotics.junction.rlog;
 
-import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import org.littletonrobotics.junction.LogTable;
 import org.littletonrobotics.junction.LogTable.LogValue;
 
 /**
  * Converts log tables to the RLOG format. Based on RLOG R2 with support for custom type strings.
+ *
+ * <p>All data is written directly into a single reusable buffer. Each output begins with the length
+ * prefix used by {@link RLOGServer}, so it can be sent without further copies.
+ *
+ * <p>The encoded key definitions are cached as new keys appear, so the data for new receivers can
+ * be created without encoding every key again. A {@link NewcomerState} can also be captured cheaply
+ * and encoded by another thread while this encoder continues to encode tables.
  */
 class RLOGEncoder {
   public static final byte logRevision = (byte) 2;
+  private static final int initialCapacity = 16 * 1024;
+  private static final short excludedKeyID = -2;
 
-  private ByteBuffer nextOutput;
+  private final String[] keyPrefixes;
+  private ByteBuffer buffer = ByteBuffer.allocate(initialCapacity);
   private boolean isFirstTable = true;
   private LogTable lastTable = new LogTable(0);
-  private Map<String, Short> keyIDs = new HashMap<>();
-  private Map<String, String> keyTypes = new HashMap<>();
+  private short[] keyIDs = new short[0]; // Indexed by field ID, -1 if not assigned, -2 if excluded
   private short nextKeyID = 0;
+  private byte[] keyDefinitions = new byte[initialCapacity]; // Encoded keys, in order of ID
+  private int keyDefinitionsLength = 0;
 
-  /** Reads the encoded output of the last encoded table. */
+  /**
+   * The data required to start a new receiver, captured after encoding a table. All fields are
+   * effectively immutable, since the encoder only appends to the key definitions and only assigns
+   * key IDs for fields not included in the table.
+   */
+  public static record NewcomerState(
+      LogTable table, byte[] keyDefinitions, int keyDefinitionsLength, short[] keyIDs) {}
+
+  /** Creates a new RLOGEncoder that includes all fields. */
+  public RLOGEncoder() {
+    this(new String[0]);
+  }
+
+  /**
+   * Creates a new RLOGEncoder that only includes fields matching a set of key prefixes.
+   *
+   * @param keyPrefixes The key prefixes to include, or an empty array to include all fields.
+   */
+  public RLOGEncoder(String[] keyPrefixes) {
+    this.keyPrefixes = keyPrefixes;
+  }
+
+  /**
+   * Reads the encoded output of the last encoded table, including the length prefix. The buffer is
+   * reused, so the output is only valid until the next call to {@link #encodeTable(LogTable,
+   * boolean)} or {@link #getNewcomerData(boolean)}.
+   */
   public ByteBuffer getOutput() {
-    return nextOutput;
+    return buffer;
   }
 
-  /** Returns data required to start a new receiver (full contents of last table + all key IDs). */
-  public ByteBuffer getNewcomerData() {
-    List<ByteBuffer> buffers = new ArrayList<>();
+  /**
+   * Returns data required to start a new receiver (full contents of last table + all key IDs),
+   * including the length prefix. The buffer is reused, so the output is only valid until the next
+   * call to {@link #encodeTable(LogTable, boolean)} or {@link #getNewcomerData(boolean)}.
+   *
+   * @param includeRevision Whether to include the log revision, which is omitted when resending the
+   *     full contents to an existing receiver.
+   */
+  public ByteBuffer getNewcomerData(boolean includeRevision) {
+    return encodeNewcomerData(getNewcomerState(), includeRevision);
+  }
+
+  /** Captures the data required to start a new receiver, without encoding it. */
+  public NewcomerState getNewcomerState() {
+    return new NewcomerState(lastTable, keyDefinitions, keyDefinitionsLength, keyIDs);
+  }
+
+  /**
+   * Encodes data required to start a new receiver (full contents of the table + all key IDs),
+   * including the length prefix. The buffer is reused, so the output is only valid until the next
+   * call to {@link #encodeTable(LogTable, boolean)} or {@link #getNewcomerData(boolean)}.
+   *
+   * <p>This method only uses the buffer of this encoder, so it can be used with a separate encoder
+   * to encode a state captured from another.
+   *
+   * @param state The state to encode.
+   * @param includeRevision Whether to include the log revision, which is omitted when resending the
+   *     full contents to an existing receiver.
+   */
+  public ByteBuffer encodeNewcomerData(NewcomerState state, boolean includeRevision) {
+    startOutput();
 
     // Encode log revision
-    buffers.add(ByteBuffer.allocate(1).put(logRevision));
+    if (includeRevision) {
+      ensureCapacity(1);
+      buffer.put(logRevision);
+    }
 
     // Encode timestamp
-    buffers.add(encodeTimestamp(lastTable.getTimestamp() / 1000000.0));
+    LogTable table = state.table();
+    encodeTimestamp(table.getTimestamp() / 1000000.0);
 
-    // Encode key IDs
-    for (Map.Entry<String, Short> keyID : keyIDs.entrySet()) {
-      buffers.add(encodeKey(keyID.getValue(), keyID.getKey(), keyTypes.get(keyID.getKey())));
-    }
+    // Copy key definitions
+    ensureCapacity(state.keyDefinitionsLength());
+    buffer.put(state.keyDefinitions(), 0, state.keyDefinitionsLength());
 
     // Encode fields
-    for (Map.Entry<String, LogValue> field : lastTable.getAll(false).entrySet()) {
-      buffers.add(encodeValue(keyIDs.get(field.getKey()), field.getValue()));
+    short[] ids = state.keyIDs();
+    for (int fieldId = 0; fieldId < ids.length; fieldId++) {
+      if (ids[fieldId] >= 0) {
+        LogValue value = table.getField(fieldId);
+        if (value != null) {
+          encodeValue(ids[fieldId], value);
+        }
+      }
     }
 
-    // Combine buffers
-    int capacity = 0;
-    for (ByteBuffer buffer : buffers) {
-      capacity += buffer.capacity();
-    }
-    ByteBuffer output = ByteBuffer.allocate(capacity);
-    for (ByteBuffer buffer : buffers) {
-      output.put(buffer.array());
-    }
-    return output;
+    finishOutput();
+    return buffer;
   }
 
   /** Encodes a single table and stores the result. */
   public void encodeTable(LogTable table, boolean includeRevision) {
-    List<ByteBuffer> buffers = new ArrayList<>();
-
-    Map<String, LogValue> newMap = table.getAll(false);
-    Map<String, LogValue> oldMap = lastTable.getAll(false);
+    startOutput();
 
     // Encode log revision
     if (isFirstTable && includeRevision) {
-      buffers.add(ByteBuffer.allocate(1).put(logRevision));
+      ensureCapacity(1);
+      buffer.put(logRevision);
       isFirstTable = false;
     }
 
     // Encode timestamp
-    buffers.add(encodeTimestamp(table.getTimestamp() / 1000000.0));
+    encodeTimestamp(table.getTimestamp() / 1000000.0);
 
     // Encode new/changed fields
-    for (Map.Entry<String, LogValue> field : newMap.entrySet()) {
-      // Check if field has changed
-      LogValue newValue = field.getValue();
-      if (newValue.equals(oldMap.get(field.getKey()))) {
-        continue;
-      }
+    for (int fieldId : table.getChangedFields(lastTable)) {
+      LogValue newValue = table.getField(fieldId);
 
       // Write new data
-      if (!keyIDs.containsKey(field.getKey())) {
-        keyIDs.put(field.getKey(), nextKeyID);
-        keyTypes.put(field.getKey(), field.getValue().getWPILOGType());
-        buffers.add(encodeKey(nextKeyID, field.getKey(), field.getValue().getWPILOGType()));
+      if (fieldId >= keyIDs.length) {
+        int oldLength = keyIDs.length;
+        keyIDs = Arrays.copyOf(keyIDs, Math.max(fieldId + 1, oldLength * 2));
+        Arrays.fill(keyIDs, oldLength, keyIDs.length, (short) -1);
+      }
+      if (keyIDs[fieldId] == -1 && !isIncluded(table.getFieldKey(fieldId))) {
+        keyIDs[fieldId] = excludedKeyID;
+      }
+      if (keyIDs[fieldId] == excludedKeyID) {
+        continue;
+      }
+      if (keyIDs[fieldId] == -1) {
+        keyIDs[fieldId] = nextKeyID;
+        int keyStart = buffer.position();
+        encodeKey(nextKeyID, table.getFieldKey(fieldId), newValue.getWPILOGType());
+        cacheKeyDefinition(keyStart);
         nextKeyID++;
       }
-      buffers.add(encodeValue(keyIDs.get(field.getKey()), newValue));
+      encodeValue(keyIDs[fieldId], newValue);
     }
 
     // Update last table
     lastTable = table;
 
-    // Combine buffers
-    int capacity = 0;
-    for (ByteBuffer buffer : buffers) {
-      capacity += buffer.capacity();
+    finishOutput();
+  }
+
+  /** Appends the key definition written to the buffer since the start position to the cache. */
+  private void cacheKeyDefinition(int start) {
+    int length = buffer.position() - start;
+    if (keyDefinitionsLength + length > keyDefinitions.length) {
+      keyDefinitions =
+          Arrays.copyOf(
+              keyDefinitions, Math.max(keyDefinitionsLength + length, keyDefinitions.length * 2));
+    }
+    System.arraycopy(buffer.array(), start, keyDefinitions, keyDefinitionsLength, length);
+    keyDefinitionsLength += length;
+  }
+
+  /** Returns whether a key matches any of the key prefixes. */
+  private boolean isIncluded(String key) {
+    if (keyPrefixes.length == 0) {
+      return true;
     }
-    nextOutput = ByteBuffer.allocate(capacity);
-    for (ByteBuffer buffer : buffers) {
-      nextOutput.put(buffer.array());
+    for (String prefix : keyPrefixes) {
+      if (key.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Clears the buffer and reserves space for the length prefix. */
+  private void startOutput() {
+    buffer.clear();
+    buffer.position(Integer.BYTES);
+  }
+
+  /** Writes the length prefix and prepares the buffer to be read. */
+  private void finishOutput() {
+    buffer.putInt(0, buffer.position() - Integer.BYTES);
+    buffer.flip();
+  }
+
+  /** Grows the buffer if fewer than the specified number of bytes are remaining. */
+  private void ensureCapacity(int bytes) {
+    if (buffer.remaining() < bytes) {
+      int capacity = buffer.capacity();
+      while (capacity - buffer.position() < bytes) {
+        capacity *= 2;
+      }
+      ByteBuffer newBuffer = ByteBuffer.allocate(capacity);
+      buffer.flip();
+      newBuffer.put(buffer);
+      buffer = newBuffer;
     }
   }
 
-  private static ByteBuffer encodeTimestamp(double timestamp) {
-    ByteBuffer buffer = ByteBuffer.allocate(1 + Double.BYTES);
+  private void encodeTimestamp(double timestamp) {
+    ensureCapacity(1 + Double.BYTES);
     buffer.put((byte) 0);
     buffer.putDouble(timestamp);
-    return buffer;
   }
 
-  private static ByteBuffer encodeKey(short keyID, String key, String type) {
-    try {
-      byte[] keyBytes = key.getBytes("UTF-8");
-      byte[] typeBytes = type.getBytes("UTF-8");
-      ByteBuffer buffer =
-          ByteBuffer.allocate(
-              1 + Short.BYTES + Short.BYTES + keyBytes.length + Short.BYTES + typeBytes.length);
-      buffer.put((byte) 1);
-      buffer.putShort(keyID);
-      buffer.putShort((short) keyBytes.length);
-      buffer.put(keyBytes);
-      buffer.putShort((short) typeBytes.length);
-      buffer.put(typeBytes);
-      return buffer;
-    } catch (UnsupportedEncodingException e) {
-      return ByteBuffer.allocate(0);
+  private void encodeKey(short keyID, String key, String type) {
+    ensureCapacity(1 + Short.BYTES);
+    buffer.put((byte) 1);
+    buffer.putShort(keyID);
+    encodeString(key);
+    encodeString(type);
+  }
+
+  /** Writes a string preceded by its length in bytes (short). */
+  private void encodeString(String value) {
+    int lengthPosition = buffer.position();
+    ensureCapacity(Short.BYTES);
+    buffer.position(lengthPosition + Short.BYTES);
+    int length = putUTF8(value);
+    buffer.putShort(lengthPosition, (short) length);
+  }
+
+  private void encodeValue(short keyID, LogValue value) {
+    // Write key, then reserve space for length
+    ensureCapacity(1 + Short.BYTES + Short.BYTES);
+    buffer.put((byte) 2);
+    buffer.putShort(keyID);
+    int lengthPosition = buffer.position();
+    buffer.position(lengthPosition + Short.BYTES);
+
+    // Write value
+    switch (value.type) {
+      case Raw:
+        byte[] byteArray = value.getRaw();
+        ensureCapacity(byteArray.length);
+        buffer.put(byteArray);
+        break;
+      case Boolean:
+        ensureCapacity(1);
+        buffer.put(value.getBoolean() ? (byte) 1 : (byte) 0);
+        break;
+      case Integer:
+        ensureCapacity(Long.BYTES);
+        buffer.putLong(value.getInteger());
+        break;
+      case Float:
+        ensureCapacity(Float.BYTES);
+        buffer.putFloat(value.getFloat());
+        break;
+      case Double:
+        ensureCapacity(Double.BYTES);
+        buffer.putDouble(value.getDouble());
+        break;
+      case String:
+        putUTF8(value.getString());
+        break;
+      case BooleanArray:
+        boolean[] booleanArray = value.getBooleanArray();
+        ensureCapacity(booleanArray.length);
+        for (boolean i : booleanArray) {
+          buffer.put(i ? (byte) 1 : (byte) 0);
+        }
+        break;
+      case IntegerArray:
+        long[] intArray = value.getIntegerArray();
+        ensureCapacity(intArray.length * Long.BYTES);
+        for (long i : intArray) {
+          buffer.putLong(i);
+        }
+        break;
+      case FloatArray:
+        float[] floatArray = value.getFloatArray();
+        ensureCapacity(floatArray.length * Float.BYTES);
+        for (float i : floatArray) {
+          buffer.putFloat(i);
+        }
+        break;
+      case DoubleArray:
+        double[] doubleArray = value.getDoubleArray();
+        ensureCapacity(doubleArray.length * Double.BYTES);
+        for (double i : doubleArray) {
+          buffer.putDouble(i);
+        }
+        break;
+      case StringArray:
+        String[] stringArray = value.getStringArray();
+        ensureCapacity(Integer.BYTES);
+        buffer.putInt(stringArray.length);
+        for (String i : stringArray) {
+          int stringLengthPosition = buffer.position();
+          ensureCapacity(Integer.BYTES);
+          buffer.position(stringLengthPosition + Integer.BYTES);
+          int stringLength = putUTF8(i); // May replace the buffer
+          buffer.putInt(stringLengthPosition, stringLength);
+        }
+        break;
+      default:
+        break;
     }
+
+    // Fill in length
+    buffer.putShort(lengthPosition, (short) (buffer.position() - lengthPosition - Short.BYTES));
   }
 
-  private static ByteBuffer encodeValue(short keyID, LogValue value) {
-    try {
-      // Generate key and length buffer
-      ByteBuffer keyBuffer = ByteBuffer.allocate(1 + Short.BYTES + Short.BYTES);
-      keyBuffer.put((byte) 2);
-      keyBuffer.putShort(keyID);
-
-      // Generate value buffer (and type for key)
-      ByteBuffer valueBuffer;
-      switch (value.type) {
-        case Raw:
-          byte[] byteArray = value.getRaw();
-          valueBuffer = ByteBuffer.allocate(byteArray.length);
-          valueBuffer.put(byteArray);
-          break;
-        case Boolean:
-          valueBuffer = ByteBuffer.allocate(1).put(value.getBoolean() ? (byte) 1 : (byte) 0);
-          break;
-        case Integer:
-          valueBuffer = ByteBuffer.allocate(Long.BYTES).putLong(value.getInteger());
-          break;
-        case Float:
-          valueBuffer = ByteBuffer.allocate(Float.BYTES).putFloat(value.getFloat());
-          break;
-        case Double:
-          valueBuffer = ByteBuffer.allocate(Double.BYTES).putDouble(value.getDouble());
-          break;
-        case String:
-          String stringValue = value.getString();
-          byte[] stringBytes = stringValue.getBytes("UTF-8");
-          valueBuffer = ByteBuffer.allocate(stringBytes.length);
-          valueBuffer.put(stringBytes);
-          break;
-        case BooleanArray:
-          boolean[] booleanArray = value.getBooleanArray();
-          valueBuffer = ByteBuffer.allocate(booleanArray.length);
-          for (boolean i : booleanArray) {
-            valueBuffer.put(i ? (byte) 1 : (byte) 0);
-          }
-          break;
-        case IntegerArray:
-          long[] intArray = value.getIntegerArray();
-          valueBuffer = ByteBuffer.allocate(intArray.length * Long.BYTES);
-          for (long i : intArray) {
-            valueBuffer.putLong(i);
-          }
-          break;
-        case FloatArray:
-          float[] floatArray = value.getFloatArray();
-          valueBuffer = ByteBuffer.allocate(floatArray.length * Float.BYTES);
-          for (float i : floatArray) {
-            valueBuffer.putFloat(i);
-          }
-          break;
-        case DoubleArray:
-          double[] doubleArray = value.getDoubleArray();
-          valueBuffer = ByteBuffer.allocate(doubleArray.length * Double.BYTES);
-          for (double i : doubleArray) {
-            valueBuffer.putDouble(i);
-          }
-          break;
-        case StringArray:
-          String[] stringArray = value.getStringArray();
-          int capacity = Integer.BYTES;
-          for (String i : stringArray) {
-            capacity += Integer.BYTES + i.getBytes("UTF-8").length;
-          }
-          valueBuffer = ByteBuffer.allocate(capacity);
-          valueBuffer.putInt(stringArray.length);
-          for (String i : stringArray) {
-            byte[] bytes = i.getBytes("UTF-8");
-            valueBuffer.putInt(bytes.length);
-            valueBuffer.put(bytes);
-          }
-          break;
-        default:
-          valueBuffer = ByteBuffer.allocate(0);
+  /**
+   * Writes a string as UTF-8, without allocating when the string only contains ASCII characters.
+   *
+   * @return The number of bytes written.
+   */
+  private int putUTF8(String value) {
+    int length = value.length();
+    ensureCapacity(length);
+    int start = buffer.position();
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c >= 0x80) {
+        // Fall back to standard encoder for non-ASCII strings
+        buffer.position(start);
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(bytes.length);
+        buffer.put(bytes);
+        return bytes.length;
       }
-
-      keyBuffer.putShort((short) valueBuffer.capacity());
-      return ByteBuffer.allocate(keyBuffer.capacity() + valueBuffer.capacity())
-          .put(keyBuffer.array())
-          .put(valueBuffer.array());
-    } catch (UnsupportedEncodingException e) {
-      return ByteBuffer.allocate(0);
+      buffer.put((byte) c);
     }
+    return length;
   }
 }
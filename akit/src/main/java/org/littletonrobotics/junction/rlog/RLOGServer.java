@@ -8,25 +8,49 @@
 package org.littletonrobotics.junction.rlog;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.Deflater;
 import org.littletonrobotics.junction.LogDataReceiver;
 import org.littletonrobotics.junction.LogTable;
 import org.wpilib.system.RobotController;
 
-/** Sends log data over a socket connection using the RLOG format. */
+/**
+ * Sends log data over a socket connection using the RLOG format.
+ *
+ * <p>All clients are served by a single thread using non-blocking sockets. Each client has its own
+ * outgoing queue, so a slow client does not delay the others. If the queue for a client exceeds the
+ * maximum size, the queued data is discarded and the client is sent the full contents of the latest
+ * table instead.
+ *
+ * <p>Clients may subscribe to a subset of fields with a maximum update rate, as described in the
+ * RLOG specification. Clients with the same subscription share the encoded data. Clients may also
+ * request compression, in which case the data sent in each broadcast is combined into a single
+ * Deflate-compressed frame.
+ */
 public class RLOGServer implements LogDataReceiver {
+  private static final int defaultMaxQueuedBytes = 1024 * 1024;
+
   private final int port;
+  private final int maxQueuedBytes;
   private ServerThread thread;
-  private RLOGEncoder encoder = new RLOGEncoder();
-
-  private static Object encoderLock = new Object();
-  private static Object socketsLock = new Object();
+  private final Subscription defaultSubscription = new Subscription(List.of(), 0.0);
+  private final List<Subscription> subscriptions =
+      new CopyOnWriteArrayList<>(List.of(defaultSubscription));
+  private volatile LogTable lastTable = null;
 
   /** Creates a new RLOGServer on the default port (5800). */
   public RLOGServer() {
@@ -39,7 +63,19 @@ public class RLOGServer implements LogDataReceiver {
    * @param port The port number.
    */
   public RLOGServer(int port) {
+    this(port, defaultMaxQueuedBytes);
+  }
+
+  /**
+   * Creates a new RLOGServer.
+   *
+   * @param port The port number.
+   * @param maxQueuedBytes The maximum number of bytes queued for each client before the queued data
+   *     is replaced by the full contents of the latest table. The default is 1 MB.
+   */
+  public RLOGServer(int port, int maxQueuedBytes) {
     this.port = port;
+    this.maxQueuedBytes = maxQueuedBytes;
   }
 
   public void start() {
@@ -56,44 +92,160 @@ public class RLOGServer implements LogDataReceiver {
   }
 
   public void putTable(LogTable table) throws InterruptedException {
-    if (thread != null && thread.broadcastQueue.remainingCapacity() > 0) {
+    if (thread != null && thread.broadcastQueue.remainingCapacity() >= subscriptions.size()) {
       // If broadcast is behind, drop this cycle and encode changes in the next cycle
-      byte[] data;
-      synchronized (encoderLock) {
-        encoder.encodeTable(table, false);
-        data = encodeData(encoder.getOutput().array());
+      lastTable = table;
+      for (Subscription subscription : subscriptions) {
+        Message message = subscription.encode(table);
+        if (message != null) {
+          thread.broadcastQueue.put(message);
+        }
+      }
+    }
+  }
+
+  /** Copies encoded data (including the length prefix) out of the reusable encoder buffer. */
+  private static byte[] copyOutput(ByteBuffer output) {
+    return Arrays.copyOfRange(output.array(), output.position(), output.limit());
+  }
+
+  /**
+   * Encoded data for a subscription, tagged with the number of cycles encoded when it was created.
+   */
+  static record Message(Subscription subscription, long cycle, byte[] data) {}
+
+  /**
+   * A set of key prefixes and a maximum update rate requested by clients. Each subscription has its
+   * own encoder, which only runs while clients are subscribed.
+   */
+  class Subscription {
+    final List<String> keyPrefixes;
+    final double maxRate;
+    private final long minPeriodMicros;
+    private final RLOGEncoder encoder;
+    private long encodedCycles = 0;
+    private long lastEncodedTimestamp = 0;
+    private int clientCount = 0;
+
+    Subscription(List<String> keyPrefixes, double maxRate) {
+      this.keyPrefixes = keyPrefixes;
+      this.maxRate = maxRate;
+      minPeriodMicros = maxRate > 0.0 ? (long) (1e6 / maxRate) : 0;
+      encoder = new RLOGEncoder(keyPrefixes.toArray(new String[0]));
+    }
+
+    /** Encodes a table if any clients are subscribed and the rate limit allows. */
+    synchronized Message encode(LogTable table) {
+      if (clientCount == 0
+          || (encodedCycles > 0 && table.getTimestamp() - lastEncodedTimestamp < minPeriodMicros)) {
+        return null;
+      }
+      encoder.encodeTable(table, false);
+      encodedCycles++;
+      lastEncodedTimestamp = table.getTimestamp();
+      return new Message(this, encodedCycles, copyOutput(encoder.getOutput()));
+    }
+
+    /**
+     * Returns the full contents of the latest table.
+     *
+     * @param includeRevision Whether to include the log revision, which is only sent to new
+     *     clients.
+     */
+    Message getSnapshot(boolean includeRevision) {
+      // Capture the state while locked, then encode without blocking calls to encode
+      RLOGEncoder.NewcomerState state;
+      long cycle;
+      synchronized (this) {
+        state = encoder.getNewcomerState();
+        cycle = encodedCycles;
       }
-      thread.broadcastQueue.put(data);
+      return new Message(
+          this, cycle, copyOutput(new RLOGEncoder().encodeNewcomerData(state, includeRevision)));
+    }
+
+    /**
+     * Adds a client. When the first client is added, the encoder is updated with the latest table
+     * since no tables were encoded while the subscription was unused.
+     */
+    synchronized void addClient() {
+      clientCount++;
+      LogTable table = lastTable;
+      if (clientCount == 1 && table != null) {
+        encode(table);
+      }
+    }
+
+    /** Removes a client, returning the remaining number of clients. */
+    synchronized int removeClient() {
+      clientCount--;
+      return clientCount;
     }
   }
 
-  private byte[] encodeData(byte[] data) {
-    byte[] lengthBytes = ByteBuffer.allocate(Integer.BYTES).putInt(data.length).array();
-    byte[] fullData = new byte[lengthBytes.length + data.length];
-    System.arraycopy(lengthBytes, 0, fullData, 0, lengthBytes.length);
-    System.arraycopy(data, 0, fullData, lengthBytes.length, data.length);
-    return fullData;
+  /** The state of a single connected client. */
+  static class Client {
+    final SocketChannel channel;
+    final String address;
+    final ArrayDeque<ByteBuffer> outgoing = new ArrayDeque<>();
+    ByteBuffer incoming = ByteBuffer.allocate(256);
+    final List<ByteBuffer> batch = new ArrayList<>(); // Data waiting to be compressed
+    Deflater deflater = null; // Null if compression is disabled
+    boolean deflaterReset = false; // Whether the next compressed frame starts a new stream
+    Subscription subscription;
+    long queuedBytes = 0;
+    boolean revisionSent = false; // Whether any data (which starts with the revision) was written
+    long lastCycle; // Cycles up to this one are already included in the sent data
+    double lastHeartbeat;
+
+    Client(
+        SocketChannel channel,
+        String address,
+        Subscription subscription,
+        long lastCycle,
+        double lastHeartbeat) {
+      this.channel = channel;
+      this.address = address;
+      this.subscription = subscription;
+      this.lastCycle = lastCycle;
+      this.lastHeartbeat = lastHeartbeat;
+    }
   }
 
-  private class ServerThread extends Thread {
+  class ServerThread extends Thread {
     private static final double heartbeatTimeoutSecs =
         3.0; // Close connection if heartbeat not received for this
     // length
+    private static final long broadcastPeriodMs = 20;
+    private static final ByteBuffer[] emptyBuffers = new ByteBuffer[0];
+    private static final byte controlMessageMarker = (byte) 0xFF;
+    private static final byte subscribeMessageType = (byte) 0x01;
+    private static final byte compressionMessageType = (byte) 0x02;
+    private static final byte compressionNone = (byte) 0x00;
+    private static final byte compressionDeflate = (byte) 0x01;
+    private static final int compressedFrameFlag = 0x80000000;
+    private static final int compressedResetFlag = 0x40000000;
+    private static final int controlHeaderLength = 1 + 1 + Short.BYTES;
 
-    ServerSocket server;
-    Thread broadcastThread;
+    Selector selector;
+    ServerSocketChannel server;
 
-    ArrayBlockingQueue<byte[]> broadcastQueue = new ArrayBlockingQueue<>(500);
-    List<Socket> sockets = new ArrayList<>();
-    List<Double> lastHeartbeats = new ArrayList<>();
+    ArrayBlockingQueue<Message> broadcastQueue = new ArrayBlockingQueue<>(500);
+    List<Client> clients = new ArrayList<>();
+    ByteBuffer compressBuffer = ByteBuffer.allocate(64 * 1024);
 
     public ServerThread(int port) {
       super("AdvantageKit_RLOGServer");
       this.setDaemon(true);
       try {
-        server = new ServerSocket(port);
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
       } catch (IOException e) {
         e.printStackTrace();
+        server = null;
       }
     }
 
@@ -102,100 +254,386 @@ public class RLOGServer implements LogDataReceiver {
         return;
       }
 
-      // Start broadcast thread
-      broadcastThread = new Thread(this::runBroadcast);
-      broadcastThread.setName("AdvantageKit_RLOGServerBroadcast");
-      broadcastThread.setDaemon(true);
-      broadcastThread.start();
+      long nextBroadcast = System.currentTimeMillis() + broadcastPeriodMs;
+      try {
+        while (!isInterrupted()) {
+          // Wait for socket events or the next broadcast
+          long waitMs = nextBroadcast - System.currentTimeMillis();
+          if (waitMs > 0) {
+            selector.select(waitMs);
+          } else {
+            selector.selectNow();
+          }
 
-      // Wait for clients
-      while (true) {
-        try {
-          Socket socket = server.accept();
-          byte[] data;
-          synchronized (encoderLock) {
-            data = encodeData(encoder.getNewcomerData().array());
+          // Process socket events
+          for (SelectionKey key : selector.selectedKeys()) {
+            if (!key.isValid()) {
+              continue;
+            }
+            if (key.isAcceptable()) {
+              accept();
+            } else {
+              Client client = (Client) key.attachment();
+              if (key.isReadable()) {
+                read(client);
+              }
+              if (key.isValid() && key.isWritable()) {
+                flush(client);
+              }
+            }
           }
-          socket.getOutputStream().write(data);
-          synchronized (socketsLock) {
-            sockets.add(socket);
-            lastHeartbeats.add(RobotController.getMonotonicTime() / 1000000.0);
+          selector.selectedKeys().clear();
+
+          // Broadcast queued data
+          if (System.currentTimeMillis() >= nextBroadcast) {
+            nextBroadcast = System.currentTimeMillis() + broadcastPeriodMs;
+            broadcast();
           }
-          System.out.println(
-              "[AdvantageKit] Connected to RLOG client - "
-                  + socket.getInetAddress().getHostAddress());
-        } catch (IOException e) {
-          e.printStackTrace();
         }
+      } catch (IOException | ClosedSelectorException e) {
+        // Server closed
+      } finally {
+        for (Client client : clients) {
+          if (client.deflater != null) {
+            client.deflater.end();
+          }
+          closeQuietly(client.channel);
+        }
+        clients.clear();
       }
     }
 
-    public void runBroadcast() {
-      while (true) {
-        try {
-          Thread.sleep(20);
-        } catch (InterruptedException e) {
+    private void accept() {
+      try {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
           return;
         }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        defaultSubscription.addClient();
+        Message snapshot = defaultSubscription.getSnapshot(true);
+        Client client =
+            new Client(
+                channel,
+                channel.socket().getInetAddress().getHostAddress(),
+                defaultSubscription,
+                snapshot.cycle(),
+                RobotController.getMonotonicTime() / 1000000.0);
+        channel.register(selector, SelectionKey.OP_READ, client);
+        clients.add(client);
+        enqueue(client, ByteBuffer.wrap(snapshot.data()));
+        flush(client);
+        System.out.println("[AdvantageKit] Connected to RLOG client - " + client.address);
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+    }
 
-        // Get queue data
-        List<byte[]> broadcastData = new ArrayList<>();
-        broadcastQueue.drainTo(broadcastData);
+    /** Reads heartbeats and control messages from a client. */
+    private void read(Client client) {
+      try {
+        int bytesRead;
+        do {
+          bytesRead = client.channel.read(client.incoming);
+          if (bytesRead > 0) {
+            client.lastHeartbeat = RobotController.getMonotonicTime() / 1000000.0;
+            processIncoming(client);
+          }
+        } while (bytesRead > 0);
+        if (bytesRead < 0) {
+          disconnect(client, "closed");
+        }
+      } catch (IOException e) {
+        disconnect(client, "IOException");
+      }
+    }
 
-        // Broadcast to each client
-        synchronized (socketsLock) {
-          for (int i = 0; i < sockets.size(); i++) {
-            Socket socket = sockets.get(i);
-            if (socket.isClosed()) {
-              continue;
-            }
+    /**
+     * Processes the data received from a client. Control messages begin with a marker byte, and all
+     * other bytes are heartbeats.
+     */
+    private void processIncoming(Client client) {
+      ByteBuffer incoming = client.incoming;
+      incoming.flip();
+      while (incoming.hasRemaining()) {
+        int start = incoming.position();
+        if (incoming.get(start) != controlMessageMarker) {
+          incoming.get(); // Skip heartbeat
+          continue;
+        }
+        if (incoming.remaining() < controlHeaderLength) {
+          break;
+        }
+        byte type = incoming.get(start + 1);
+        int length = Short.toUnsignedInt(incoming.getShort(start + 2));
+        if (incoming.remaining() < controlHeaderLength + length) {
+          break;
+        }
+        ByteBuffer payload = incoming.slice(start + controlHeaderLength, length);
+        incoming.position(start + controlHeaderLength + length);
+        try {
+          if (type == subscribeMessageType) {
+            processSubscribe(client, payload);
+          } else if (type == compressionMessageType) {
+            processCompression(client, payload);
+          }
+        } catch (BufferUnderflowException e) {
+          System.out.println("[AdvantageKit] Invalid RLOG control message - " + client.address);
+        }
+      }
+      incoming.compact();
 
-            try {
-              // Read heartbeat
-              InputStream inputStream = socket.getInputStream();
-              if (inputStream.available() > 0) {
-                inputStream.skip(inputStream.available());
-                lastHeartbeats.set(i, RobotController.getMonotonicTime() / 1000000.0);
-              }
+      // Grow buffer to fit a partial control message
+      if (!incoming.hasRemaining()) {
+        ByteBuffer newIncoming = ByteBuffer.allocate(controlHeaderLength + 0xFFFF);
+        incoming.flip();
+        newIncoming.put(incoming);
+        client.incoming = newIncoming;
+      }
+    }
 
-              // Close connection if socket timed out
-              if (RobotController.getMonotonicTime() / 1000000.0 - lastHeartbeats.get(i)
-                  > heartbeatTimeoutSecs) {
-                socket.close();
-                printDisconnectMessage(socket, "timeout");
-                continue;
-              }
+    /** Changes the subscription of a client based on a subscribe message. */
+    private void processSubscribe(Client client, ByteBuffer payload) {
+      // Read message
+      double maxRate = payload.getDouble();
+      int prefixCount = Short.toUnsignedInt(payload.getShort());
+      List<String> keyPrefixes = new ArrayList<>();
+      for (int i = 0; i < prefixCount; i++) {
+        byte[] prefixBytes = new byte[Short.toUnsignedInt(payload.getShort())];
+        payload.get(prefixBytes);
+        String prefix = new String(prefixBytes, StandardCharsets.UTF_8);
+        keyPrefixes.add(prefix.startsWith("/") ? prefix : "/" + prefix);
+      }
+      keyPrefixes.sort(null);
+      if (!(maxRate > 0.0)) {
+        maxRate = 0.0;
+      }
 
-              // Send message to stay alive
-              var outputStream = socket.getOutputStream();
-              outputStream.write(new byte[4]);
+      // Find or create subscription
+      Subscription subscription = null;
+      for (Subscription existing : subscriptions) {
+        if (existing.keyPrefixes.equals(keyPrefixes) && existing.maxRate == maxRate) {
+          subscription = existing;
+          break;
+        }
+      }
+      if (subscription == null) {
+        subscription = new Subscription(keyPrefixes, maxRate);
+        subscriptions.add(subscription);
+      }
 
-              // Send broadcast data
-              for (byte[] data : broadcastData) {
-                outputStream.write(data);
-              }
-            } catch (IOException e) {
-              try {
-                socket.close();
-                printDisconnectMessage(socket, "IOException");
-              } catch (IOException a) {
-                a.printStackTrace();
-              }
-            }
+      // Switch client to new subscription, then resend even if unchanged (as required by the spec)
+      if (subscription != client.subscription) {
+        subscription.addClient();
+        removeSubscriptionClient(client.subscription);
+        client.subscription = subscription;
+      }
+      resendSnapshot(client);
+      flush(client);
+    }
+
+    /** Enables or disables compression for a client based on a compression message. */
+    void processCompression(Client client, ByteBuffer payload) {
+      byte compression = payload.get();
+      if (compression == compressionDeflate && client.deflater == null) {
+        client.deflater = new Deflater();
+        client.deflaterReset = true;
+      } else if (compression == compressionNone && client.deflater != null) {
+        compressBatch(client);
+        client.deflater.end();
+        client.deflater = null;
+      }
+    }
+
+    /** Removes a client from a subscription, deleting the subscription if it is unused. */
+    private void removeSubscriptionClient(Subscription subscription) {
+      if (subscription.removeClient() == 0 && subscription != defaultSubscription) {
+        subscriptions.remove(subscription);
+      }
+    }
+
+    /**
+     * Replaces the queued data for a client with the full contents of the latest table. The log
+     * revision is included if no data has been written yet, since it was part of the discarded
+     * initial snapshot.
+     */
+    void resendSnapshot(Client client) {
+      ByteBuffer partial = client.outgoing.peekFirst();
+      boolean keepPartial = partial != null && partial.position() > 0;
+      client.outgoing.clear();
+      client.batch.clear();
+      client.queuedBytes = 0;
+      if (keepPartial) {
+        client.outgoing.addLast(partial);
+        client.queuedBytes += partial.remaining();
+      }
+      if (client.deflater != null) {
+        // Discarded frames may be needed to decompress later frames, so start a new stream
+        client.deflater.reset();
+        client.deflaterReset = true;
+      }
+      Message snapshot = client.subscription.getSnapshot(!client.revisionSent);
+      enqueue(client, ByteBuffer.wrap(snapshot.data()));
+      client.lastCycle = snapshot.cycle();
+    }
+
+    private void broadcast() {
+      // Get queue data
+      List<Message> broadcastData = new ArrayList<>();
+      broadcastQueue.drainTo(broadcastData);
+      double now = RobotController.getMonotonicTime() / 1000000.0;
+
+      // Send to each client
+      for (Client client : new ArrayList<>(clients)) {
+        // Close connection if socket timed out
+        if (now - client.lastHeartbeat > heartbeatTimeoutSecs) {
+          disconnect(client, "timeout");
+          continue;
+        }
+
+        send(client, broadcastData);
+      }
+    }
+
+    /**
+     * Sends a heartbeat and the new broadcast data for the subscription of a client. If the queued
+     * data exceeds the limit, it is replaced with the full contents of the latest table.
+     */
+    void send(Client client, List<Message> broadcastData) {
+      // Send message to stay alive
+      enqueue(client, ByteBuffer.allocate(Integer.BYTES));
+
+      // Send broadcast data
+      for (Message message : broadcastData) {
+        if (message.subscription() == client.subscription && message.cycle() > client.lastCycle) {
+          enqueue(client, ByteBuffer.wrap(message.data()));
+          client.lastCycle = message.cycle();
+        }
+      }
+
+      // Replace queued data with the latest table if the client is too slow
+      compressBatch(client);
+      if (client.queuedBytes > maxQueuedBytes) {
+        resendSnapshot(client);
+      }
+
+      flush(client);
+    }
+
+    /**
+     * Adds data to the outgoing queue for a client. If compression is enabled, the data is held
+     * until the batch is compressed.
+     */
+    void enqueue(Client client, ByteBuffer buffer) {
+      if (client.deflater != null) {
+        client.batch.add(buffer);
+      } else {
+        client.outgoing.addLast(buffer);
+        client.queuedBytes += buffer.remaining();
+      }
+    }
+
+    /**
+     * Compresses the pending batch for a client into a single frame and adds it to the outgoing
+     * queue. The deflate stream is flushed after each frame but continues across frames, so the
+     * client must decompress every frame in order.
+     */
+    void compressBatch(Client client) {
+      if (client.batch.isEmpty()) {
+        return;
+      }
+      compressBuffer.clear();
+      compressBuffer.position(Integer.BYTES); // Reserve space for header
+      Deflater deflater = client.deflater;
+      for (int i = 0; i < client.batch.size(); i++) {
+        deflater.setInput(client.batch.get(i));
+        boolean isLast = i == client.batch.size() - 1;
+        while (true) {
+          deflater.deflate(compressBuffer, isLast ? Deflater.SYNC_FLUSH : Deflater.NO_FLUSH);
+          if (compressBuffer.hasRemaining() && deflater.needsInput()) {
+            break;
+          }
+          if (!compressBuffer.hasRemaining()) {
+            ByteBuffer newBuffer = ByteBuffer.allocate(compressBuffer.capacity() * 2);
+            compressBuffer.flip();
+            newBuffer.put(compressBuffer);
+            compressBuffer = newBuffer;
           }
         }
       }
+      client.batch.clear();
+
+      // Write header and copy frame
+      int length = compressBuffer.position() - Integer.BYTES;
+      compressBuffer.putInt(
+          0, compressedFrameFlag | (client.deflaterReset ? compressedResetFlag : 0) | length);
+      client.deflaterReset = false;
+      byte[] frame = Arrays.copyOf(compressBuffer.array(), compressBuffer.position());
+      client.outgoing.addLast(ByteBuffer.wrap(frame));
+      client.queuedBytes += frame.length;
     }
 
-    private void printDisconnectMessage(Socket socket, String reason) {
-      System.out.println(
-          "Disconnected from RLOG client ("
-              + reason
-              + ") - "
-              + socket.getInetAddress().getHostAddress());
+    /** Writes as much queued data as possible without blocking. */
+    void flush(Client client) {
+      compressBatch(client);
+      try {
+        while (!client.outgoing.isEmpty()) {
+          ByteBuffer[] buffers = client.outgoing.toArray(emptyBuffers);
+          long written = client.channel.write(buffers);
+          client.queuedBytes -= written;
+          if (written > 0) {
+            client.revisionSent = true;
+          }
+          while (!client.outgoing.isEmpty() && !client.outgoing.peekFirst().hasRemaining()) {
+            client.outgoing.removeFirst();
+          }
+          if (written == 0) {
+            break;
+          }
+        }
+
+        // Wait for the socket to be writable if data remains
+        SelectionKey key = client.channel.keyFor(selector);
+        if (key != null && key.isValid()) {
+          key.interestOps(
+              client.outgoing.isEmpty()
+                  ? SelectionKey.OP_READ
+                  : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+      } catch (IOException e) {
+        disconnect(client, "IOException");
+      }
+    }
+
+    private void disconnect(Client client, String reason) {
+      if (clients.remove(client)) {
+        removeSubscriptionClient(client.subscription);
+        if (client.deflater != null) {
+          client.deflater.end();
+        }
+        closeQuietly(client.channel);
+        System.out.println("Disconnected from RLOG client (" + reason + ") - " + client.address);
+      }
+    }
+
+    private void closeQuietly(SocketChannel channel) {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
     }
 
     public void close() {
+      this.interrupt();
+      if (selector != null) {
+        try {
+          selector.close();
+        } catch (IOException e) {
+          e.printStackTrace();
+        }
+      }
       if (server != null) {
         try {
           server.close();
@@ -204,10 +642,6 @@ public class RLOGServer implements LogDataReceiver {
           e.printStackTrace();
         }
       }
-      if (broadcastThread != null) {
-        broadcastThread.interrupt();
-      }
-      this.interrupt();
     }
   }
 }
@@ -0,0 +1,554 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package org.littletonrobotics.junction.wpilog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import org.littletonrobotics.junction.LogDataReceiver;
+
+/**
+ * WPILOG file with a record cursor. Records are decoded directly from a buffer holding the whole
+ * file, and the offsets of all cycles (timestamp records) are indexed when the file is opened.
+ *
+ * <p>Files up to 128 MB are read into memory. Larger files are memory-mapped, and the mapping is
+ * only released when the buffer is garbage collected (there is no API to unmap it sooner). Until
+ * then, the file can't be deleted or replaced on Windows.
+ *
+ * <p>The index also includes the offsets of all control records and periodic keyframes, which hold
+ * the offset of the latest replayed record for each entry at the start of a cycle. The index is
+ * cached in the temporary directory so that it is only built once, without adding files to the log
+ * folder.
+ */
+class WPILOGFile {
+  private static final int controlStart = 0;
+  private static final int controlSetMetadata = 2;
+  private static final int keyframeInterval = 250; // 5s at 50Hz
+  private static final long maxReadSize = 128 * 1024 * 1024; // Larger files are mapped
+  private static final String indexFolder = "advantagekit-index";
+  private static final String indexSuffix = ".index";
+  private static final int indexMagic = 0x414b4958; // "AKIX"
+  private static final int indexVersion = 1;
+
+  private final ByteBuffer buffer;
+  private final String extraHeader;
+  private final int dataStart;
+
+  // Cycle index
+  private int cycleCount = 0;
+  private int[] cycleOffsets = new int[1024];
+  private long[] cycleTimestamps = new long[1024];
+  private int controlCount = 0;
+  private int[] controlOffsets = new int[256];
+  private int keyframeCount = 0;
+  private int[][] keyframeEntries = new int[16][]; // Entry IDs with a value, by keyframe
+  private int[][] keyframeOffsets = new int[16][]; // Latest record offsets, by keyframe
+
+  // Current record
+  private int nextOffset;
+  private int recordOffset;
+  private int recordEntry;
+  private int recordSize;
+  private long recordTimestamp;
+  private int payloadOffset;
+  private boolean readError = false;
+
+  /**
+   * Opens and indexes a WPILOG file.
+   *
+   * @throws IOException If the file cannot be read or is not a valid WPILOG file.
+   */
+  WPILOGFile(String filename) throws IOException {
+    long fileSize;
+    try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+      fileSize = channel.size();
+      if (fileSize > Integer.MAX_VALUE) {
+        throw new IOException("Log files larger than 2 GB are not supported");
+      }
+      if (fileSize <= maxReadSize) {
+        ByteBuffer contents = ByteBuffer.allocate((int) fileSize);
+        while (contents.hasRemaining() && channel.read(contents) >= 0) {}
+        buffer = contents.flip().order(ByteOrder.LITTLE_ENDIAN);
+      } else {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+        buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+      }
+    }
+
+    // Read header
+    if (buffer.limit() < 12
+        || buffer.get(0) != 'W'
+        || buffer.get(1) != 'P'
+        || buffer.get(2) != 'I'
+        || buffer.get(3) != 'L'
+        || buffer.get(4) != 'O'
+        || buffer.get(5) != 'G'
+        || buffer.getShort(6) < 0x0100) {
+      throw new IOException("Not a valid WPILOG file");
+    }
+    int extraHeaderLength = buffer.getInt(8);
+    if (extraHeaderLength < 0 || 12 + extraHeaderLength > buffer.limit()) {
+      throw new IOException("Not a valid WPILOG file");
+    }
+    extraHeader = readString(12, extraHeaderLength);
+    dataStart = 12 + extraHeaderLength;
+
+    // Read cached index, or build and cache a new one
+    File indexFile = getIndexFile(filename);
+    long lastModified = new File(filename).lastModified();
+    if (!readIndex(indexFile, fileSize, lastModified)) {
+      buildIndex();
+      writeIndex(indexFile, fileSize, lastModified);
+    }
+    seek(dataStart);
+  }
+
+  /**
+   * Returns the cached index file for a log. The name includes a hash of the absolute path, so that
+   * logs with the same name in different folders have separate indices.
+   */
+  static File getIndexFile(String filename) {
+    Path path = Path.of(filename).toAbsolutePath().normalize();
+    String name =
+        path.getFileName() + "_" + Integer.toHexString(path.toString().hashCode()) + indexSuffix;
+    return Path.of(System.getProperty("java.io.tmpdir"), indexFolder, name).toFile();
+  }
+
+  /** Indexes all cycles and control records in one pass, saving a keyframe periodically. */
+  private void buildIndex() {
+    int timestampEntry = -1;
+    boolean hasTimestamp = false;
+    long timestamp = 0;
+    int[] latestOffsets = new int[256]; // Indexed by entry ID, zero if none
+    cycleCount = 0;
+    controlCount = 0;
+    keyframeCount = 0;
+    seek(dataStart);
+    while (next()) {
+      if (recordEntry == 0) {
+        if (controlCount == controlOffsets.length) {
+          controlOffsets = Arrays.copyOf(controlOffsets, controlCount * 2);
+        }
+        controlOffsets[controlCount++] = recordOffset;
+        if (isStart() && getStartName().equals(LogDataReceiver.timestampKey)) {
+          timestampEntry = getControlEntry();
+        }
+      } else if (recordEntry == timestampEntry) {
+        if (cycleCount % keyframeInterval == 0) {
+          addKeyframe(latestOffsets);
+        }
+        if (cycleCount == cycleOffsets.length) {
+          cycleOffsets = Arrays.copyOf(cycleOffsets, cycleCount * 2);
+          cycleTimestamps = Arrays.copyOf(cycleTimestamps, cycleCount * 2);
+        }
+        timestamp = getInteger();
+        hasTimestamp = true;
+        cycleOffsets[cycleCount] = recordOffset;
+        cycleTimestamps[cycleCount] = timestamp;
+        cycleCount++;
+      } else if (hasTimestamp && recordTimestamp == timestamp) {
+        if (recordEntry >= latestOffsets.length) {
+          latestOffsets =
+              Arrays.copyOf(latestOffsets, Math.max(recordEntry + 1, latestOffsets.length * 2));
+        }
+        latestOffsets[recordEntry] = recordOffset;
+      }
+    }
+    readError = false;
+  }
+
+  private void addKeyframe(int[] latestOffsets) {
+    int count = 0;
+    for (int offset : latestOffsets) {
+      if (offset != 0) count++;
+    }
+    int[] entries = new int[count];
+    int[] offsets = new int[count];
+    int index = 0;
+    for (int entry = 0; entry < latestOffsets.length; entry++) {
+      if (latestOffsets[entry] != 0) {
+        entries[index] = entry;
+        offsets[index] = latestOffsets[entry];
+        index++;
+      }
+    }
+    if (keyframeCount == keyframeEntries.length) {
+      keyframeEntries = Arrays.copyOf(keyframeEntries, keyframeCount * 2);
+      keyframeOffsets = Arrays.copyOf(keyframeOffsets, keyframeCount * 2);
+    }
+    keyframeEntries[keyframeCount] = entries;
+    keyframeOffsets[keyframeCount] = offsets;
+    keyframeCount++;
+  }
+
+  /** Reads the cached index if it exists and matches the log file. */
+  private boolean readIndex(File indexFile, long fileSize, long lastModified) {
+    if (!indexFile.exists()) {
+      return false;
+    }
+    try (DataInputStream input =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+      if (input.readInt() != indexMagic
+          || input.readInt() != indexVersion
+          || input.readLong() != fileSize
+          || input.readLong() != lastModified
+          || input.readInt() != keyframeInterval) {
+        return false;
+      }
+      cycleCount = input.readInt();
+      cycleOffsets = new int[Math.max(cycleCount, 1)];
+      cycleTimestamps = new long[Math.max(cycleCount, 1)];
+      for (int i = 0; i < cycleCount; i++) {
+        cycleOffsets[i] = input.readInt();
+        cycleTimestamps[i] = input.readLong();
+      }
+      controlCount = input.readInt();
+      controlOffsets = new int[Math.max(controlCount, 1)];
+      for (int i = 0; i < controlCount; i++) {
+        controlOffsets[i] = input.readInt();
+      }
+      keyframeCount = input.readInt();
+      keyframeEntries = new int[Math.max(keyframeCount, 1)][];
+      keyframeOffsets = new int[Math.max(keyframeCount, 1)][];
+      for (int i = 0; i < keyframeCount; i++) {
+        int count = input.readInt();
+        keyframeEntries[i] = new int[count];
+        keyframeOffsets[i] = new int[count];
+        for (int j = 0; j < count; j++) {
+          keyframeEntries[i][j] = input.readInt();
+          keyframeOffsets[i][j] = input.readInt();
+        }
+      }
+      return true;
+    } catch (IOException | RuntimeException e) {
+      return false;
+    }
+  }
+
+  /** Caches the index. Failures are ignored since the cache is optional. */
+  private void writeIndex(File indexFile, long fileSize, long lastModified) {
+    indexFile.getParentFile().mkdirs();
+    try (DataOutputStream output =
+        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+      output.writeInt(indexMagic);
+      output.writeInt(indexVersion);
+      output.writeLong(fileSize);
+      output.writeLong(lastModified);
+      output.writeInt(keyframeInterval);
+      output.writeInt(cycleCount);
+      for (int i = 0; i < cycleCount; i++) {
+        output.writeInt(cycleOffsets[i]);
+        output.writeLong(cycleTimestamps[i]);
+      }
+      output.writeInt(controlCount);
+      for (int i = 0; i < controlCount; i++) {
+        output.writeInt(controlOffsets[i]);
+      }
+      output.writeInt(keyframeCount);
+      for (int i = 0; i < keyframeCount; i++) {
+        output.writeInt(keyframeEntries[i].length);
+        for (int j = 0; j < keyframeEntries[i].length; j++) {
+          output.writeInt(keyframeEntries[i][j]);
+          output.writeInt(keyframeOffsets[i][j]);
+        }
+      }
+    } catch (IOException e) {
+      indexFile.delete();
+    }
+  }
+
+  String getExtraHeader() {
+    return extraHeader;
+  }
+
+  /** Returns the offset of the first record. */
+  int getDataStart() {
+    return dataStart;
+  }
+
+  /** Returns the number of cycles (timestamp records) in the log. */
+  int getCycleCount() {
+    return cycleCount;
+  }
+
+  /** Returns the offset of the timestamp record that begins a cycle. */
+  int getCycleOffset(int cycle) {
+    return cycleOffsets[cycle];
+  }
+
+  /** Returns the timestamp of a cycle in microseconds. */
+  long getCycleTimestamp(int cycle) {
+    return cycleTimestamps[cycle];
+  }
+
+  /** Returns the index of the first cycle with a timestamp at or after the given timestamp. */
+  int findCycle(long timestamp) {
+    int low = 0;
+    int high = cycleCount;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (cycleTimestamps[mid] < timestamp) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /** Returns the number of control records in the log. */
+  int getControlCount() {
+    return controlCount;
+  }
+
+  /** Returns the offset of a control record. */
+  int getControlOffset(int index) {
+    return controlOffsets[index];
+  }
+
+  /** Returns the first cycle of the latest keyframe at or before a cycle. */
+  int getKeyframeCycle(int cycle) {
+    return Math.min(cycle / keyframeInterval, keyframeCount - 1) * keyframeInterval;
+  }
+
+  /** Returns the entry IDs stored in the keyframe at the start of a cycle. */
+  int[] getKeyframeEntries(int keyframeCycle) {
+    return keyframeEntries[keyframeCycle / keyframeInterval];
+  }
+
+  /** Returns the latest record offsets stored in the keyframe at the start of a cycle. */
+  int[] getKeyframeOffsets(int keyframeCycle) {
+    return keyframeOffsets[keyframeCycle / keyframeInterval];
+  }
+
+  /** Moves the cursor so that the next call to {@link #next()} reads the record at an offset. */
+  void seek(int offset) {
+    nextOffset = offset;
+  }
+
+  /** Returns whether there are more records after the current record. */
+  boolean hasNext() {
+    return !readError && nextOffset < buffer.limit();
+  }
+
+  /** Returns whether a malformed record was found. */
+  boolean hasReadError() {
+    return readError;
+  }
+
+  /**
+   * Advances to the next record.
+   *
+   * @return False if there are no more records or the record is malformed.
+   */
+  boolean next() {
+    if (!hasNext()) {
+      return false;
+    }
+    int offset = nextOffset;
+    int lengths = buffer.get(offset) & 0xff;
+    int entryLength = (lengths & 0x3) + 1;
+    int sizeLength = ((lengths >> 2) & 0x3) + 1;
+    int timestampLength = ((lengths >> 4) & 0x7) + 1;
+    int headerLength = 1 + entryLength + sizeLength + timestampLength;
+    if (offset + headerLength > buffer.limit()) {
+      readError = true;
+      return false;
+    }
+    int entry = (int) readVarInt(offset + 1, entryLength);
+    long size = readVarInt(offset + 1 + entryLength, sizeLength);
+    long timestamp = readVarInt(offset + 1 + entryLength + sizeLength, timestampLength);
+    if (offset + headerLength + size > buffer.limit()) {
+      readError = true;
+      return false;
+    }
+    recordOffset = offset;
+    recordEntry = entry;
+    recordSize = (int) size;
+    recordTimestamp = timestamp;
+    payloadOffset = offset + headerLength;
+    nextOffset = payloadOffset + recordSize;
+    return true;
+  }
+
+  private long readVarInt(int offset, int length) {
+    long value = 0;
+    for (int i = 0; i < length; i++) {
+      value |= (long) (buffer.get(offset + i) & 0xff) << (i * 8);
+    }
+    return value;
+  }
+
+  private String readString(int offset, int length) {
+    byte[] bytes = new byte[length];
+    buffer.get(offset, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** Returns the offset of the current record. */
+  int getRecordOffset() {
+    return recordOffset;
+  }
+
+  /** Returns the entry ID of the current record, zero for control records. */
+  int getEntry() {
+    return recordEntry;
+  }
+
+  /** Returns the timestamp of the current record in microseconds. */
+  long getTimestamp() {
+    return recordTimestamp;
+  }
+
+  // Control records
+
+  boolean isStart() {
+    return recordEntry == 0 && recordSize >= 17 && buffer.get(payloadOffset) == controlStart;
+  }
+
+  boolean isSetMetadata() {
+    return recordEntry == 0 && recordSize >= 9 && buffer.get(payloadOffset) == controlSetMetadata;
+  }
+
+  /** Returns the entry ID referenced by a control record. */
+  int getControlEntry() {
+    return buffer.getInt(payloadOffset + 1);
+  }
+
+  /** Returns the name of a start record. */
+  String getStartName() {
+    return readControlString(0);
+  }
+
+  /** Returns the type string of a start record. */
+  String getStartType() {
+    return readControlString(1);
+  }
+
+  /** Returns the metadata of a start or set metadata record. */
+  String getMetadata() {
+    return isStart() ? readControlString(2) : readControlString(0);
+  }
+
+  /** Reads the nth length-prefixed string after the entry ID of a control record. */
+  private String readControlString(int index) {
+    int offset = payloadOffset + 5;
+    int end = payloadOffset + recordSize;
+    for (int i = 0; ; i++) {
+      if (offset + 4 > end) {
+        return "";
+      }
+      int length = buffer.getInt(offset);
+      if (length < 0 || offset + 4 + length > end) {
+        return "";
+      }
+      if (i == index) {
+        return readString(offset + 4, length);
+      }
+      offset += 4 + length;
+    }
+  }
+
+  // Data records
+
+  byte[] getRaw() {
+    byte[] value = new byte[recordSize];
+    buffer.get(payloadOffset, value);
+    return value;
+  }
+
+  boolean getBoolean() {
+    return recordSize >= 1 && buffer.get(payloadOffset) != 0;
+  }
+
+  long getInteger() {
+    return recordSize >= 8 ? buffer.getLong(payloadOffset) : 0;
+  }
+
+  float getFloat() {
+    return recordSize >= 4 ? buffer.getFloat(payloadOffset) : 0.0f;
+  }
+
+  double getDouble() {
+    return recordSize >= 8 ? buffer.getDouble(payloadOffset) : 0.0;
+  }
+
+  String getString() {
+    return readString(payloadOffset, recordSize);
+  }
+
+  boolean[] getBooleanArray() {
+    boolean[] value = new boolean[recordSize];
+    for (int i = 0; i < value.length; i++) {
+      value[i] = buffer.get(payloadOffset + i) != 0;
+    }
+    return value;
+  }
+
+  long[] getIntegerArray() {
+    long[] value = new long[recordSize / 8];
+    for (int i = 0; i < value.length; i++) {
+      value[i] = buffer.getLong(payloadOffset + i * 8);
+    }
+    return value;
+  }
+
+  float[] getFloatArray() {
+    float[] value = new float[recordSize / 4];
+    for (int i = 0; i < value.length; i++) {
+      value[i] = buffer.getFloat(payloadOffset + i * 4);
+    }
+    return value;
+  }
+
+  double[] getDoubleArray() {
+    double[] value = new double[recordSize / 8];
+    for (int i = 0; i < value.length; i++) {
+      value[i] = buffer.getDouble(payloadOffset + i * 8);
+    }
+    return value;
+  }
+
+  String[] getStringArray() {
+    int end = payloadOffset + recordSize;
+    if (recordSize < 4) {
+      return new String[] {};
+    }
+    int count = buffer.getInt(payloadOffset);
+    if (count < 0 || count > (recordSize - 4) / 4) {
+      return new String[] {};
+    }
+    String[] value = new String[count];
+    int offset = payloadOffset + 4;
+    for (int i = 0; i < count; i++) {
+      if (offset + 4 > end) {
+        return new String[] {};
+      }
+      int length = buffer.getInt(offset);
+      if (length < 0 || offset + 4 + length > end) {
+        return new String[] {};
+      }
+      value[i] = readString(offset + 4, length);
+      offset += 4 + length;
+    }
+    return value;
+  }
+}
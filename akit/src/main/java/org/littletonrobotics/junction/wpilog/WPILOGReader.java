@@ -8,16 +8,12 @@
 package org.littletonrobotics.junction.wpilog;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 import org.littletonrobotics.junction.LogDataReceiver;
 import org.littletonrobotics.junction.LogReplaySource;
 import org.littletonrobotics.junction.LogTable;
 import org.littletonrobotics.junction.LogTable.LogValue;
 import org.littletonrobotics.junction.LogTable.LoggableType;
-import org.wpilib.datalog.DataLogIterator;
-import org.wpilib.datalog.DataLogReader;
-import org.wpilib.datalog.DataLogRecord;
 import org.wpilib.driverstation.DriverStationErrors;
 
 /** Replays log values from a WPILOG file. */
@@ -25,14 +21,21 @@ public class WPILOGReader implements LogReplaySource {
   private final String filename;
   private boolean isValid;
 
-  private DataLogReader reader;
-  private DataLogIterator iterator;
+  private WPILOGFile file;
+  private int rangeStartCycle = 0;
+  private int rangeEndCycle = Integer.MAX_VALUE;
+  private long rangeStartTimestamp = -1;
+  private long rangeEndTimestamp = -1;
+  private int startCycle;
+  private int endOffset; // Offset of the first timestamp record after the replay range
+  private boolean seekPending;
 
   private Long timestamp;
-  private Map<Integer, String> entryIDs;
-  private Map<Integer, LoggableType> entryTypes;
-  private Map<Integer, String> entryCustomTypes;
-  private Map<Integer, String> entryUnits;
+  private int timestampEntry;
+  private String[] entryKeys; // Indexed by entry ID, null if not started or not replayed
+  private LoggableType[] entryTypes; // Indexed by entry ID
+  private String[] entryCustomTypes; // Indexed by entry ID
+  private String[] entryUnits; // Indexed by entry ID
 
   /**
    * Creates a new WPILOGReader.
@@ -43,20 +46,49 @@ public class WPILOGReader implements LogReplaySource {
     this.filename = filename;
   }
 
+  /**
+   * Sets the range of cycles to replay. By default, all cycles in the log are replayed. The data
+   * from all earlier cycles is restored when replay begins. This method should be called before
+   * starting to log.
+   *
+   * @param startCycle The index of the first cycle to replay.
+   * @param endCycle The index of the cycle after the last cycle to replay (exclusive).
+   */
+  public void setCycleRange(int startCycle, int endCycle) {
+    rangeStartCycle = Math.max(startCycle, 0);
+    rangeEndCycle = endCycle;
+    rangeStartTimestamp = -1;
+    rangeEndTimestamp = -1;
+  }
+
+  /**
+   * Sets the range of timestamps to replay. By default, all cycles in the log are replayed. The
+   * data from all earlier cycles is restored when replay begins. This method should be called
+   * before starting to log.
+   *
+   * @param startTimeSecs The timestamp of the first cycle to replay, in seconds.
+   * @param endTimeSecs The timestamp of the last cycle to replay (inclusive), in seconds.
+   */
+  public void setTimeRange(double startTimeSecs, double endTimeSecs) {
+    rangeStartTimestamp = Math.max((long) (startTimeSecs * 1e6), 0);
+    rangeEndTimestamp = (long) (endTimeSecs * 1e6);
+  }
+
   public void start() {
     // Open log file
+    file = null;
     try {
-      reader = new DataLogReader(filename);
+      file = new WPILOGFile(filename);
     } catch (IOException e) {
       DriverStationErrors.reportError("[AdvantageKit] Failed to open replay log file.", true);
     }
 
     // Check validity
-    if (!reader.isValid()) {
+    if (file == null) {
       DriverStationErrors.reportError(
           "[AdvantageKit] The replay log is not a valid WPILOG file.", false);
       isValid = false;
-    } else if (!reader.getExtraHeader().equals(WPILOGConstants.extraHeader)) {
+    } else if (!file.getExtraHeader().equals(WPILOGConstants.extraHeader)) {
       DriverStationErrors.reportError(
           "[AdvantageKit] The replay log was not produced by AdvantageKit.", true);
       isValid = false;
@@ -64,13 +96,35 @@ public class WPILOGReader implements LogReplaySource {
       isValid = true;
     }
 
-    // Create iterator and reset
-    iterator = reader.iterator();
+    // Reset
     timestamp = null;
-    entryIDs = new HashMap<>();
-    entryTypes = new HashMap<>();
-    entryCustomTypes = new HashMap<>();
-    entryUnits = new HashMap<>();
+    timestampEntry = -1;
+    entryKeys = new String[256];
+    entryTypes = new LoggableType[256];
+    entryCustomTypes = new String[256];
+    entryUnits = new String[256];
+
+    // Find replay range
+    if (isValid) {
+      int endCycle;
+      if (rangeStartTimestamp >= 0) {
+        startCycle = file.findCycle(rangeStartTimestamp);
+        endCycle =
+            file.findCycle(
+                rangeEndTimestamp < Long.MAX_VALUE ? rangeEndTimestamp + 1 : rangeEndTimestamp);
+      } else {
+        startCycle = Math.min(rangeStartCycle, file.getCycleCount());
+        endCycle = Math.min(rangeEndCycle, file.getCycleCount());
+      }
+      if (endCycle <= startCycle) {
+        DriverStationErrors.reportError(
+            "[AdvantageKit] The replay range does not include any cycles in the log.", false);
+        isValid = false;
+      }
+      endOffset =
+          endCycle < file.getCycleCount() ? file.getCycleOffset(endCycle) : Integer.MAX_VALUE;
+      seekPending = startCycle > 0;
+    }
   }
 
   private String parseUnit(String metadata) {
@@ -85,122 +139,179 @@ public class WPILOGReader implements LogReplaySource {
     return null;
   }
 
+  /** Updates the entry information based on the current control record. */
+  private void readControlRecord() {
+    int entry = file.getControlEntry();
+    if (entry < 0) {
+      return;
+    }
+    if (file.isStart()) {
+      if (entry >= entryKeys.length) {
+        int length = Math.max(entry + 1, entryKeys.length * 2);
+        entryKeys = Arrays.copyOf(entryKeys, length);
+        entryTypes = Arrays.copyOf(entryTypes, length);
+        entryCustomTypes = Arrays.copyOf(entryCustomTypes, length);
+        entryUnits = Arrays.copyOf(entryUnits, length);
+      }
+      String name = file.getStartName();
+      String typeStr = file.getStartType();
+      var loggableType = LoggableType.fromWPILOGType(typeStr);
+      if (name.equals(LogDataReceiver.timestampKey)) {
+        timestampEntry = entry;
+        entryKeys[entry] = null;
+      } else if (name.startsWith("/ReplayOutputs")) {
+        // Don't retrieve old replay outputs
+        entryKeys[entry] = null;
+      } else {
+        entryKeys[entry] = name.substring(1); // Remove leading slash
+      }
+      entryTypes[entry] = loggableType;
+      entryCustomTypes[entry] =
+          (loggableType == LoggableType.Raw && !typeStr.equals("raw")) || typeStr.equals("json")
+              ? typeStr
+              : null;
+
+      // Parse and store the unit from the start record
+      entryUnits[entry] = parseUnit(file.getMetadata());
+    } else if (file.isSetMetadata() && entry < entryUnits.length) {
+      // Handle metadata updates dynamically
+      entryUnits[entry] = parseUnit(file.getMetadata());
+    }
+  }
+
   public boolean updateTable(LogTable table) {
     if (!isValid) {
       return false;
     }
 
+    // Restore data from before the replay range
+    if (seekPending) {
+      seekToCycle(table, startCycle);
+      seekPending = false;
+    }
+
     // Update timestamp (except the first cycle b/c it isn't known yet)
     if (timestamp != null) {
       table.setTimestamp(timestamp);
     }
 
     // Iterate over log
-    boolean readError = false;
-    while (iterator.hasNext()) {
-      DataLogRecord record;
-      try {
-        record = iterator.next();
-      } catch (Exception e) {
-        readError = true;
-        break;
-      }
-
-      if (record.isControl()) {
-        if (record.isStart()) {
-          entryIDs.put(record.getStartData().entry, record.getStartData().name);
-          String typeStr = record.getStartData().type;
-          var loggableType = LoggableType.fromWPILOGType(typeStr);
-          entryTypes.put(record.getStartData().entry, loggableType);
-          if ((loggableType == LoggableType.Raw && !typeStr.equals("raw"))
-              || typeStr.equals("json")) {
-            entryCustomTypes.put(record.getStartData().entry, typeStr);
-          }
-
-          // Parse and store the unit from the start record
-          String unit = parseUnit(record.getStartData().metadata);
-          if (unit != null) {
-            entryUnits.put(record.getStartData().entry, unit);
-          }
-        } else if (record.isSetMetadata()) {
-          // Handle metadata updates dynamically
-          String unit = parseUnit(record.getSetMetadataData().metadata);
-          if (unit != null) {
-            entryUnits.put(record.getSetMetadataData().entry, unit);
-          } else {
-            entryUnits.remove(record.getSetMetadataData().entry);
-          }
+    while (file.next()) {
+      int entry = file.getEntry();
+      if (entry == 0) {
+        readControlRecord();
+      } else if (entry == timestampEntry) {
+        if (file.getRecordOffset() >= endOffset) {
+          return false; // End of replay range
         }
-      } else {
-        String entry = entryIDs.get(record.getEntry());
-        if (entry != null) {
-          if (entry.equals(LogDataReceiver.timestampKey)) {
-            boolean firstTimestamp = timestamp == null;
-            timestamp = record.getInteger();
-            if (firstTimestamp) {
-              table.setTimestamp(timestamp);
-            } else {
-              break; // End of cycle
-            }
-
-          } else if (timestamp != null && record.getTimestamp() == timestamp) {
-            entry = entry.substring(1); // Remove leading slash
-            if (entry.startsWith("ReplayOutputs")) {
-              // Don't retrieve old replay outputs
-              continue;
-            }
-            String customType = entryCustomTypes.get(record.getEntry());
-            String unit = entryUnits.get(record.getEntry()); // NEW: Get the unit
-
-            switch (entryTypes.get(record.getEntry())) {
-              case Raw:
-                table.put(entry, new LogValue(record.getRaw(), customType));
-                break;
-              case Boolean:
-                table.put(entry, new LogValue(record.getBoolean(), customType));
-                break;
-              case Integer:
-                table.put(entry, new LogValue(record.getInteger(), customType));
-                break;
-              case Float:
-                if (unit != null) {
-                  table.put(entry, new LogValue(record.getFloat(), customType, unit));
-                } else {
-                  table.put(entry, new LogValue(record.getFloat(), customType));
-                }
-                break;
-              case Double:
-                if (unit != null) {
-                  table.put(entry, new LogValue(record.getDouble(), customType, unit));
-                } else {
-                  table.put(entry, new LogValue(record.getDouble(), customType));
-                }
-                break;
-              case String:
-                table.put(entry, new LogValue(record.getString(), customType));
-                break;
-              case BooleanArray:
-                table.put(entry, new LogValue(record.getBooleanArray(), customType));
-                break;
-              case IntegerArray:
-                table.put(entry, new LogValue(record.getIntegerArray(), customType));
-                break;
-              case FloatArray:
-                table.put(entry, new LogValue(record.getFloatArray(), customType));
-                break;
-              case DoubleArray:
-                table.put(entry, new LogValue(record.getDoubleArray(), customType));
-                break;
-              case StringArray:
-                table.put(entry, new LogValue(record.getStringArray(), customType));
-                break;
-            }
-          }
+        boolean firstTimestamp = timestamp == null;
+        timestamp = file.getInteger();
+        if (firstTimestamp) {
+          table.setTimestamp(timestamp);
+        } else {
+          break; // End of cycle
         }
+
+      } else if (timestamp != null
+          && file.getTimestamp() == timestamp
+          && entry < entryKeys.length
+          && entryKeys[entry] != null) {
+        readDataRecord(table, entry);
       }
     }
 
     // Continue if there is more data
-    return iterator.hasNext() && !readError;
+    return file.hasNext();
+  }
+
+  /**
+   * Restores the table to its state before a cycle, then moves to the start of that cycle. Starts
+   * from the nearest keyframe, which holds the latest value of every field.
+   */
+  private void seekToCycle(LogTable table, int cycle) {
+    int keyframeCycle = file.getKeyframeCycle(cycle);
+    int keyframeOffset = file.getCycleOffset(keyframeCycle);
+
+    // Read entry information from before the keyframe
+    for (int i = 0; i < file.getControlCount(); i++) {
+      if (file.getControlOffset(i) >= keyframeOffset) break;
+      file.seek(file.getControlOffset(i));
+      file.next();
+      readControlRecord();
+    }
+
+    // Restore values from keyframe
+    int[] entries = file.getKeyframeEntries(keyframeCycle);
+    int[] offsets = file.getKeyframeOffsets(keyframeCycle);
+    for (int i = 0; i < entries.length; i++) {
+      int entry = entries[i];
+      if (entry < entryKeys.length && entryKeys[entry] != null) {
+        file.seek(offsets[i]);
+        file.next();
+        readDataRecord(table, entry);
+      }
+    }
+
+    // Read remaining cycles before the target cycle
+    int cycleOffset = file.getCycleOffset(cycle);
+    file.seek(keyframeOffset);
+    timestamp = null;
+    while (file.next() && file.getRecordOffset() < cycleOffset) {
+      int entry = file.getEntry();
+      if (entry == 0) {
+        readControlRecord();
+      } else if (entry == timestampEntry) {
+        timestamp = file.getInteger();
+      } else if (timestamp != null
+          && file.getTimestamp() == timestamp
+          && entry < entryKeys.length
+          && entryKeys[entry] != null) {
+        readDataRecord(table, entry);
+      }
+    }
+    timestamp = null;
+    file.seek(cycleOffset);
+  }
+
+  /** Writes the value of the current data record to the table. */
+  private void readDataRecord(LogTable table, int entry) {
+    String key = entryKeys[entry];
+    String customType = entryCustomTypes[entry];
+    String unit = entryUnits[entry];
+    switch (entryTypes[entry]) {
+      case Raw:
+        table.put(key, new LogValue(file.getRaw(), customType));
+        break;
+      case Boolean:
+        table.put(key, new LogValue(file.getBoolean(), customType));
+        break;
+      case Integer:
+        table.put(key, new LogValue(file.getInteger(), customType));
+        break;
+      case Float:
+        table.put(key, new LogValue(file.getFloat(), customType, unit));
+        break;
+      case Double:
+        table.put(key, new LogValue(file.getDouble(), customType, unit));
+        break;
+      case String:
+        table.put(key, new LogValue(file.getString(), customType));
+        break;
+      case BooleanArray:
+        table.put(key, new LogValue(file.getBooleanArray(), customType));
+        break;
+      case IntegerArray:
+        table.put(key, new LogValue(file.getIntegerArray(), customType));
+        break;
+      case FloatArray:
+        table.put(key, new LogValue(file.getFloatArray(), customType));
+        break;
+      case DoubleArray:
+        table.put(key, new LogValue(file.getDoubleArray(), customType));
+        break;
+      case StringArray:
+        table.put(key, new LogValue(file.getStringArray(), customType));
+        break;
+    }
   }
 }
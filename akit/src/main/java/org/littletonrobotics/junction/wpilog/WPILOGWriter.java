@@ -15,8 +15,8 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.Objects;
 import java.util.Random;
 import org.littletonrobotics.junction.LogDataReceiver;
 import org.littletonrobotics.junction.LogTable;
@@ -38,6 +38,9 @@ public class WPILOGWriter implements LogDataReceiver {
   private static final DateTimeFormatter timeFormatter =
       DateTimeFormatter.ofPattern("yy-MM-dd_HH-mm-ss");
   private static final String advantageScopeFileName = "ascope-log-path.txt";
+  private static final int defaultMaxBufferedBytes = 128 * 1024;
+  private static final double defaultMaxFlushLatency = 0.1;
+  private static final int recordHeaderSize = 16; // Upper bound on header + timestamp
 
   private String folder;
   private String filename;
@@ -53,9 +56,15 @@ public class WPILOGWriter implements LogDataReceiver {
   private final AdvantageScopeOpenBehavior openBehavior;
   private LogTable lastTable;
   private int timestampID;
-  private Map<String, Integer> entryIDs;
-  private Map<String, LoggableType> entryTypes;
-  private Map<String, String> entryUnits;
+  private int[] entryIDs; // Indexed by field ID, zero if not started
+  private String[] entryUnits; // Indexed by field ID
+
+  private int maxBufferedBytes = defaultMaxBufferedBytes;
+  private long maxFlushLatencyMicros = (long) (defaultMaxFlushLatency * 1e6);
+  private int bufferedBytes; // Estimated size of data appended since the last flush
+  private long lastFlushTime;
+  private LogValue lastEnabled;
+  private LogValue lastRobotMode;
 
   /**
    * Create a new WPILOGWriter for writing to a ".wpilog" file.
@@ -126,6 +135,20 @@ public class WPILOGWriter implements LogDataReceiver {
         AdvantageScopeOpenBehavior.AUTO);
   }
 
+  /**
+   * Sets how often buffered data is flushed to the log file. Data is flushed once either limit is
+   * exceeded, when the robot is enabled/disabled or changes modes, and when logging ends. The
+   * default limits are 128 KiB and 100ms. This method should be called before starting to log.
+   *
+   * @param maxBufferedBytes The approximate number of bytes to buffer before flushing, or zero to
+   *     flush every cycle.
+   * @param maxLatencySecs The maximum time to wait before flushing, in seconds.
+   */
+  public void setFlushPolicy(int maxBufferedBytes, double maxLatencySecs) {
+    this.maxBufferedBytes = Math.max(maxBufferedBytes, 0);
+    this.maxFlushLatencyMicros = (long) (Math.max(maxLatencySecs, 0.0) * 1e6);
+  }
+
   public void start() {
     // Create folder if necessary
     File logFolder = new File(folder);
@@ -155,14 +178,20 @@ public class WPILOGWriter implements LogDataReceiver {
     lastTable = new LogTable(0);
 
     // Reset data
-    entryIDs = new HashMap<>();
-    entryTypes = new HashMap<>();
-    entryUnits = new HashMap<>();
+    entryIDs = new int[256];
+    entryUnits = new String[256];
     logDate = null;
     logMatchText = null;
+    bufferedBytes = 0;
+    lastFlushTime = RobotController.getMonotonicTime();
+    lastEnabled = null;
+    lastRobotMode = null;
   }
 
   public void end() {
+    if (isOpen) {
+      log.flush();
+    }
     log.close();
 
     // Send log path to AdvantageScope
@@ -193,6 +222,10 @@ public class WPILOGWriter implements LogDataReceiver {
     }
   }
 
+  public boolean releasesPreviousTable() {
+    return true; // Values are copied into the log when appended
+  }
+
   public void putTable(LogTable table) {
     // Exit if log not open
     if (!isOpen) return;
@@ -283,95 +316,129 @@ public class WPILOGWriter implements LogDataReceiver {
 
     // Save timestamp
     log.appendInteger(timestampID, table.getTimestamp(), table.getTimestamp());
+    bufferedBytes += recordHeaderSize + 8;
 
-    // Get new and old data
-    Map<String, LogValue> newMap = table.getAll(false);
-    Map<String, LogValue> oldMap = lastTable.getAll(false);
+    // Encode new/changed fields
+    for (int fieldId : table.getChangedFields(lastTable)) {
+      LogValue value = table.getField(fieldId);
+      String unit = value.unitStr;
 
-    // Encode fields
-    for (Map.Entry<String, LogValue> field : newMap.entrySet()) {
-
-      // Check if field should be updated
-      LoggableType type = field.getValue().type;
-      String unit = field.getValue().unitStr;
-      boolean appendData = false;
-      if (!entryIDs.containsKey(field.getKey())) { // New field
+      // Start entry if new field
+      if (fieldId >= entryIDs.length) {
+        entryIDs = Arrays.copyOf(entryIDs, Math.max(fieldId + 1, entryIDs.length * 2));
+        entryUnits = Arrays.copyOf(entryUnits, entryIDs.length);
+      }
+      if (entryIDs[fieldId] == 0) { // New field
         String metadata =
             unit == null
                 ? WPILOGConstants.entryMetadata
                 : WPILOGConstants.entryMetadataUnits.replace("$UNITSTR", unit);
-        entryIDs.put(
-            field.getKey(),
+        entryIDs[fieldId] =
             log.start(
-                field.getKey(), field.getValue().getWPILOGType(), metadata, table.getTimestamp()));
-        entryTypes.put(field.getKey(), type);
-        if (unit != null) {
-          entryUnits.put(field.getKey(), unit);
-        }
-        appendData = true;
-      } else if (!field.getValue().equals(oldMap.get(field.getKey()))) { // Updated field
-        appendData = true;
+                table.getFieldKey(fieldId), value.getWPILOGType(), metadata, table.getTimestamp());
+        entryUnits[fieldId] = unit;
       }
+      int id = entryIDs[fieldId];
 
-      // Append data
-      if (appendData) {
-        int id = entryIDs.get(field.getKey());
-
-        // Check if unit changed
-        if (unit != null && !unit.equals(entryUnits.get(field.getKey()))) {
-          log.setMetadata(
-              id,
-              WPILOGConstants.entryMetadataUnits.replace("$UNITSTR", unit),
-              table.getTimestamp());
-          entryUnits.put(field.getKey(), unit);
-        }
+      // Check if unit changed
+      if (unit != null && !unit.equals(entryUnits[fieldId])) {
+        log.setMetadata(
+            id, WPILOGConstants.entryMetadataUnits.replace("$UNITSTR", unit), table.getTimestamp());
+        entryUnits[fieldId] = unit;
+      }
 
-        // Add field value
-        switch (field.getValue().type) {
-          case Raw:
-            log.appendRaw(id, field.getValue().getRaw(), table.getTimestamp());
-            break;
-          case Boolean:
-            log.appendBoolean(id, field.getValue().getBoolean(), table.getTimestamp());
-            break;
-          case Integer:
-            log.appendInteger(id, field.getValue().getInteger(), table.getTimestamp());
-            break;
-          case Float:
-            log.appendFloat(id, field.getValue().getFloat(), table.getTimestamp());
-            break;
-          case Double:
-            log.appendDouble(id, field.getValue().getDouble(), table.getTimestamp());
-            break;
-          case String:
-            log.appendString(id, field.getValue().getString(), table.getTimestamp());
-            break;
-          case BooleanArray:
-            log.appendBooleanArray(id, field.getValue().getBooleanArray(), table.getTimestamp());
-            break;
-          case IntegerArray:
-            log.appendIntegerArray(id, field.getValue().getIntegerArray(), table.getTimestamp());
-            break;
-          case FloatArray:
-            log.appendFloatArray(id, field.getValue().getFloatArray(), table.getTimestamp());
-            break;
-          case DoubleArray:
-            log.appendDoubleArray(id, field.getValue().getDoubleArray(), table.getTimestamp());
-            break;
-          case StringArray:
-            log.appendStringArray(id, field.getValue().getStringArray(), table.getTimestamp());
-            break;
-        }
+      // Add field value
+      switch (value.type) {
+        case Raw:
+          log.appendRaw(id, value.getRaw(), table.getTimestamp());
+          break;
+        case Boolean:
+          log.appendBoolean(id, value.getBoolean(), table.getTimestamp());
+          break;
+        case Integer:
+          log.appendInteger(id, value.getInteger(), table.getTimestamp());
+          break;
+        case Float:
+          log.appendFloat(id, value.getFloat(), table.getTimestamp());
+          break;
+        case Double:
+          log.appendDouble(id, value.getDouble(), table.getTimestamp());
+          break;
+        case String:
+          log.appendString(id, value.getString(), table.getTimestamp());
+          break;
+        case BooleanArray:
+          log.appendBooleanArray(id, value.getBooleanArray(), table.getTimestamp());
+          break;
+        case IntegerArray:
+          log.appendIntegerArray(id, value.getIntegerArray(), table.getTimestamp());
+          break;
+        case FloatArray:
+          log.appendFloatArray(id, value.getFloatArray(), table.getTimestamp());
+          break;
+        case DoubleArray:
+          log.appendDoubleArray(id, value.getDoubleArray(), table.getTimestamp());
+          break;
+        case StringArray:
+          log.appendStringArray(id, value.getStringArray(), table.getTimestamp());
+          break;
       }
+      bufferedBytes += recordHeaderSize + getEncodedSize(value);
     }
 
-    // Flush to disk
-    log.flush();
+    // Flush to disk if buffer is full, data is stale, or mode changed
+    LogValue enabled = table.get("DriverStation/Enabled");
+    LogValue robotMode = table.get("DriverStation/RobotMode");
+    boolean modeChanged =
+        !Objects.equals(enabled, lastEnabled) || !Objects.equals(robotMode, lastRobotMode);
+    lastEnabled = enabled;
+    lastRobotMode = robotMode;
+    long now = RobotController.getMonotonicTime();
+    if (bufferedBytes >= maxBufferedBytes
+        || now - lastFlushTime >= maxFlushLatencyMicros
+        || modeChanged) {
+      log.flush();
+      bufferedBytes = 0;
+      lastFlushTime = now;
+    }
 
     // Update last table
     lastTable = table;
   }
 
+  /** Returns the approximate number of bytes used to encode a value in the log. */
+  private static int getEncodedSize(LogValue value) {
+    switch (value.type) {
+      case Raw:
+        return value.getRaw(null).length;
+      case Boolean:
+        return 1;
+      case Float:
+        return 4;
+      case Integer:
+      case Double:
+        return 8;
+      case String:
+        return value.getString(null).length();
+      case BooleanArray:
+        return value.getBooleanArray(null).length;
+      case IntegerArray:
+        return value.getIntegerArray(null).length * 8;
+      case FloatArray:
+        return value.getFloatArray(null).length * 4;
+      case DoubleArray:
+        return value.getDoubleArray(null).length * 8;
+      case StringArray:
+        int size = 4;
+        for (String item : value.getStringArray(null)) {
+          size += 4 + item.length();
+        }
+        return size;
+      default:
+        return 0;
+    }
+  }
+
   /**
    * The behavior to use when sending the log file to AdvantageScope after the robot program exits
    * in simulation.
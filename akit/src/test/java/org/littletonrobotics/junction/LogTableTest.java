@@ -7,11 +7,15 @@
 
 package org.littletonrobotics.junction;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.wpilib.units.Units.Rotations;
 
 import org.junit.jupiter.api.Test;
+import org.littletonrobotics.junction.LogTable.LogValue;
 import org.wpilib.units.measure.Angle;
 
 /*
@@ -71,4 +75,177 @@ public class LogTableTest {
     // Verify that it is stored as a struct
     assertTrue(table.get("NormalRecord").customTypeStr.startsWith("struct:"));
   }
+
+  @Test
+  public void TestSubtableAndClone() {
+    LogTable table = new LogTable(0);
+
+    // 4. Test that subtables and copies resolve to the same fields
+    table.getSubtable("Drive").put("Speed", 1.5);
+    assertEquals(1.5, table.get("Drive/Speed", 0.0));
+    assertEquals(1.5, table.getAll(false).get("/Drive/Speed").getDouble());
+
+    LogTable copy = LogTable.clone(table);
+    table.getSubtable("Drive").put("Speed", 2.5);
+    assertEquals(1.5, copy.get("Drive/Speed", 0.0));
+    assertEquals(2.5, table.get("Drive/Speed", 0.0));
+    assertEquals(1, copy.getAll(false).size());
+  }
+
+  @Test
+  public void TestChangedFields() {
+    LogTable table = new LogTable(0);
+
+    // 5. Test that only fields written with new values are reported
+    table.put("A", 1.0);
+    table.put("B", 2.0);
+    LogTable first = LogTable.clone(table);
+    assertEquals(2, first.getChangedFields(null).length);
+
+    table.put("A", 1.0);
+    table.put("B", 3.0);
+    LogTable second = LogTable.clone(table);
+    int[] changed = second.getChangedFields(first);
+    assertEquals(1, changed.length);
+    assertEquals("/B", second.getFieldKey(changed[0]));
+
+    table.put("A", 4.0);
+    LogTable third = LogTable.clone(table);
+    assertEquals(2, third.getChangedFields(first).length);
+  }
+
+  @Test
+  public void TestScalarValues() {
+    LogTable table = new LogTable(0);
+
+    // 6. Test that scalars round-trip and unchanged writes keep the stored value
+    table.put("Double", Double.NaN);
+    table.put("Float", -0.0f);
+    table.put("Integer", Long.MIN_VALUE);
+    table.put("Boolean", true);
+    assertTrue(Double.isNaN(table.get("Double", 0.0)));
+    assertEquals(-0.0f, table.get("Float", 1.0f));
+    assertEquals(Long.MIN_VALUE, table.get("Integer", 0L));
+    assertTrue(table.get("Boolean", false));
+
+    LogValue stored = table.get("Double");
+    table.put("Double", Double.NaN);
+    assertSame(stored, table.get("Double"));
+    table.put("Float", 0.0f);
+    assertEquals(0.0f, table.get("Float", 1.0f));
+    assertEquals(new LogValue(1.5, null).hashCode(), new LogValue(1.5, null).hashCode());
+  }
+
+  @Test
+  public void TestUnchangedStructs() {
+    LogTable table = new LogTable(0);
+
+    // 7. Test that rewriting an identical struct keeps the stored value
+    table.put("Record", new TestRecord(1, 2.0));
+    LogValue stored = table.get("Record");
+    table.put("Record", new TestRecord(1, 2.0));
+    assertSame(stored, table.get("Record"));
+
+    table.put("Record", new TestRecord(1, 3.0));
+    assertEquals(new TestRecord(1, 3.0), table.get("Record", new TestRecord(0, 0.0)));
+  }
+
+  @Test
+  public void TestFieldIds() {
+    LogTable table = new LogTable(0);
+    LogTable subtable = table.getSubtable("Inputs");
+
+    // 8. Test that values written by field ID match values written by key
+    int[] ids = subtable.getFieldIds("Position", "Connected");
+    subtable.putField(ids[0], 1.5);
+    subtable.putField(ids[1], true);
+    assertEquals(1.5, table.get("Inputs/Position", 0.0));
+    assertTrue(subtable.get("Connected", false));
+
+    subtable.put("Position", 2.5);
+    LogTable copy = LogTable.clone(table);
+    assertEquals(2.5, copy.getField(ids[0], 0.0));
+    assertEquals(0, copy.getField(copy.getFieldIds("Missing")[0], 0));
+  }
+
+  @Test
+  public void TestScalarReuse() {
+    LogTable table = new LogTable(0);
+
+    // 9. Test that values read from the table are not modified by later writes
+    table.put("Speed", 1.0);
+    LogValue stored = table.get("Speed");
+    table.put("Speed", 2.0);
+    assertEquals(1.0, stored.getDouble());
+    assertEquals(2.0, table.get("Speed").getDouble());
+    assertEquals(2.0, table.get("Speed", 0.0));
+
+    LogTable copy = LogTable.clone(table);
+    table.put("Speed", 3.0);
+    table.put("Speed", 4.0);
+    assertEquals(2.0, copy.get("Speed", 0.0));
+    assertEquals(2.0, copy.get("Speed").getDouble());
+    assertEquals(4.0, table.get("Speed", 0.0));
+    assertEquals(1, LogTable.clone(table).getChangedFields(copy).length);
+
+    // 10. Test that writing a value read earlier restores it
+    table.put("Speed", stored);
+    assertEquals(stored, table.get("Speed"));
+    assertEquals(1.0, table.get("Speed", 0.0));
+  }
+
+  @Test
+  public void TestStructReuse() {
+    LogTable table = new LogTable(0);
+
+    // 11. Test that serialized values read from the table are not modified by later writes
+    table.put("Record", new TestRecord(1, 2.0));
+    LogValue stored = table.get("Record");
+    byte[] storedBytes = stored.getRaw().clone();
+    table.put("Record", new TestRecord(2, 3.0));
+    assertArrayEquals(storedBytes, stored.getRaw());
+
+    LogTable copy = LogTable.clone(table);
+    table.put("Record", new TestRecord(3, 4.0));
+    assertEquals(new TestRecord(2, 3.0), copy.get("Record", new TestRecord(0, 0.0)));
+    assertEquals(new TestRecord(3, 4.0), table.get("Record", new TestRecord(0, 0.0)));
+  }
+
+  @Test
+  public void TestRecycling() {
+    LogTable table = new LogTable(0);
+    table.setRecycling(true);
+    table.put("Record", new TestRecord(1, 2.0));
+    LogTable first = LogTable.cloneForReceivers(table);
+    byte[] firstArray = first.get("Record").getRaw();
+    table.put("Record", new TestRecord(2, 3.0));
+    LogTable second = LogTable.cloneForReceivers(table);
+
+    // 12. Test that replaced values are not reused while a copy may reference them
+    table.put("Record", new TestRecord(3, 4.0));
+    assertNotSame(firstArray, table.get("Record").getRaw());
+    assertEquals(new TestRecord(1, 2.0), first.get("Record", new TestRecord(0, 0.0)));
+    assertEquals(new TestRecord(2, 3.0), second.get("Record", new TestRecord(0, 0.0)));
+
+    // 13. Test that a replaced value is reused once the copies which reference it are released
+    table.releaseCopies(first.getCopyIndex());
+    table.put("Record", new TestRecord(4, 5.0));
+    assertSame(firstArray, table.get("Record").getRaw());
+    assertEquals(new TestRecord(4, 5.0), table.get("Record", new TestRecord(0, 0.0)));
+    assertEquals(new TestRecord(2, 3.0), second.get("Record", new TestRecord(0, 0.0)));
+    table.put("Record", new TestRecord(5, 6.0));
+    assertNotSame(second.get("Record").getRaw(), table.get("Record").getRaw());
+    assertEquals(new TestRecord(2, 3.0), second.get("Record", new TestRecord(0, 0.0)));
+
+    // 14. Test that pooled values are copied when written to another field
+    table.put("Other", table.get("Record"));
+    assertNotSame(table.get("Record").getRaw(), table.get("Other").getRaw());
+
+    // 15. Test that values are not reused after an untracked copy
+    LogTable copy = LogTable.clone(table);
+    table.releaseCopies(Long.MAX_VALUE);
+    table.put("Record", new TestRecord(6, 7.0));
+    table.put("Record", new TestRecord(7, 8.0));
+    assertEquals(new TestRecord(5, 6.0), copy.get("Record", new TestRecord(0, 0.0)));
+  }
 }
@@ -0,0 +1,230 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package org.littletonrobotics.junction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.littletonrobotics.junction.inputs.LoggableInputs;
+
+/*
+ * Unit tests for binding logger contexts to threads. Logger.start() reads the HAL clock, which
+ * isn't loaded in unit tests, so contexts are marked as running by setting up the same state that
+ * start() does before the first cycle.
+ */
+public class LoggerContextTest {
+  /** Inputs with a single value, logged under "Value". */
+  private static class TestInputs implements LoggableInputs {
+    double value = 0.0;
+
+    @Override
+    public void toLog(LogTable table) {
+      table.put("Value", value);
+    }
+
+    @Override
+    public void fromLog(LogTable table) {
+      value = table.get("Value", value);
+    }
+  }
+
+  private static void startWithoutRobot(LoggerContext context, boolean replay) {
+    context.outputTable = context.entry.getSubtable(replay ? "ReplayOutputs" : "RealOutputs");
+    context.running = true;
+  }
+
+  /** Runs each task on its own thread, rethrowing the first failure. */
+  private static void runOnThreads(Runnable... tasks) throws Throwable {
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread[] threads = new Thread[tasks.length];
+    for (int i = 0; i < tasks.length; i++) {
+      Runnable task = tasks[i];
+      threads[i] =
+          new Thread(
+              () -> {
+                try {
+                  task.run();
+                } catch (Throwable e) {
+                  failure.compareAndSet(null, e);
+                }
+              });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    if (failure.get() != null) {
+      throw failure.get();
+    }
+  }
+
+  private static void await(CyclicBarrier barrier) {
+    try {
+      barrier.await();
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Test
+  public void TestDefaultFallback() throws Throwable {
+    // 1. Test that an unbound thread uses the default context
+    runOnThreads(
+        () -> {
+          assertSame(LoggerContext.getDefault(), LoggerContext.current());
+          assertTrue(LoggerContext.getDefault().isDefault);
+        });
+
+    // 2. Test that closing a binding restores the previous context, then the default context
+    LoggerContext outer = new LoggerContext();
+    LoggerContext inner = new LoggerContext();
+    runOnThreads(
+        () -> {
+          try (var outerBinding = outer.bind()) {
+            assertSame(outer, LoggerContext.current());
+            try (var innerBinding = inner.bind()) {
+              assertSame(inner, LoggerContext.current());
+            }
+            assertSame(outer, LoggerContext.current());
+          }
+          assertSame(LoggerContext.getDefault(), LoggerContext.current());
+        });
+
+    // 3. Test that a binding on one thread is not visible on another
+    CyclicBarrier barrier = new CyclicBarrier(2);
+    runOnThreads(
+        () -> {
+          try (var binding = outer.bind()) {
+            await(barrier);
+            await(barrier);
+          }
+        },
+        () -> {
+          await(barrier);
+          assertSame(LoggerContext.getDefault(), LoggerContext.current());
+          await(barrier);
+        });
+
+    // 4. Test that a binding must be closed on its own thread
+    AtomicReference<LoggerContext.Binding> binding = new AtomicReference<>();
+    runOnThreads(() -> binding.set(outer.bind()));
+    assertThrows(IllegalStateException.class, () -> binding.get().close());
+  }
+
+  @Test
+  public void TestIsolation() throws Throwable {
+    LoggerContext contextA = new LoggerContext();
+    LoggerContext contextB = new LoggerContext();
+    LogDataReceiver receiverA = table -> {};
+    LogDataReceiver receiverB = table -> {};
+    CyclicBarrier barrier = new CyclicBarrier(2);
+
+    // 5. Test that inputs, outputs, and receivers only affect the context bound to each thread
+    runOnThreads(
+        () -> {
+          try (var binding = contextA.bind()) {
+            Logger.addDataReceiver(receiverA);
+            Logger.recordMetadata("Name", "A");
+            startWithoutRobot(contextA, false);
+            contextA.entry.setTimestamp(1000);
+            await(barrier);
+            TestInputs inputs = new TestInputs();
+            for (int i = 0; i < 1000; i++) {
+              inputs.value = i;
+              Logger.processInputs("Inputs", inputs);
+              Logger.recordOutput("Output", i);
+              Logger.recordOutput("OnlyA", true);
+            }
+            assertEquals(1000, Logger.getTimestamp());
+            assertFalse(Logger.hasReplaySource());
+          }
+        },
+        () -> {
+          try (var binding = contextB.bind()) {
+            Logger.addDataReceiver(receiverB);
+            Logger.recordMetadata("Name", "B");
+            startWithoutRobot(contextB, false);
+            contextB.entry.setTimestamp(2000);
+            await(barrier);
+            TestInputs inputs = new TestInputs();
+            for (int i = 0; i < 1000; i++) {
+              inputs.value = -i;
+              Logger.processInputs("Inputs", inputs);
+              Logger.recordOutput("Output", -i);
+              Logger.recordOutput("OnlyB", true);
+            }
+            assertEquals(2000, Logger.getTimestamp());
+          }
+        });
+
+    assertEquals(List.of(receiverA), contextA.dataReceivers);
+    assertEquals(List.of(receiverB), contextB.dataReceivers);
+    assertEquals("A", contextA.metadata.get("Name"));
+    assertEquals("B", contextB.metadata.get("Name"));
+    assertEquals(999.0, contextA.entry.get("Inputs/Value", 0.0));
+    assertEquals(-999.0, contextB.entry.get("Inputs/Value", 0.0));
+    assertEquals(999, contextA.entry.get("RealOutputs/Output", 0L));
+    assertEquals(-999, contextB.entry.get("RealOutputs/Output", 0L));
+    assertTrue(contextA.entry.get("RealOutputs/OnlyA", false));
+    assertNull(contextA.entry.get("RealOutputs/OnlyB"));
+    assertTrue(contextB.entry.get("RealOutputs/OnlyB", false));
+    assertNull(contextB.entry.get("RealOutputs/OnlyA"));
+
+    // 6. Test that nothing was written to the default context
+    assertFalse(LoggerContext.getDefault().dataReceivers.contains(receiverA));
+    assertFalse(LoggerContext.getDefault().dataReceivers.contains(receiverB));
+    assertNull(LoggerContext.getDefault().entry.get("Inputs/Value"));
+  }
+
+  @Test
+  public void TestReplayIsolation() throws Throwable {
+    LoggerContext contextA = new LoggerContext();
+    LoggerContext contextB = new LoggerContext();
+    contextA.replaySource = table -> true;
+    contextB.replaySource = table -> true;
+    contextA.entry.put("Inputs/Value", 1.0);
+    contextB.entry.put("Inputs/Value", 2.0);
+    startWithoutRobot(contextA, true);
+    startWithoutRobot(contextB, true);
+    CyclicBarrier barrier = new CyclicBarrier(2);
+
+    // 7. Test that replayed inputs are read from the context bound to each thread
+    double[] values = new double[2];
+    runOnThreads(
+        () -> {
+          try (var binding = contextA.bind()) {
+            await(barrier);
+            TestInputs inputs = new TestInputs();
+            Logger.processInputs("Inputs", inputs);
+            Logger.recordOutput("Output", inputs.value);
+            values[0] = inputs.value;
+          }
+        },
+        () -> {
+          try (var binding = contextB.bind()) {
+            await(barrier);
+            TestInputs inputs = new TestInputs();
+            Logger.processInputs("Inputs", inputs);
+            Logger.recordOutput("Output", inputs.value);
+            values[1] = inputs.value;
+          }
+        });
+    assertEquals(1.0, values[0]);
+    assertEquals(2.0, values[1]);
+    assertEquals(1.0, contextA.entry.get("ReplayOutputs/Output", 0.0));
+    assertEquals(2.0, contextB.entry.get("ReplayOutputs/Output", 0.0));
+  }
+}
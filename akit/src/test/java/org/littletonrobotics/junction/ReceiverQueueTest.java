@@ -0,0 +1,169 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package org.littletonrobotics.junction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.littletonrobotics.junction.Logger.QueueOverflowPolicy;
+import org.littletonrobotics.junction.Logger.QueueWaitStrategy;
+
+/*
+ * Unit tests for the lock-free receiver queue. Each table is tagged with its sequence number as the
+ * timestamp, so the consumer can check ordering and duplicates.
+ */
+public class ReceiverQueueTest {
+  private static final int concurrentCount = 200_000;
+
+  private static ReceiverQueue createQueue(int capacity, QueueOverflowPolicy overflowPolicy) {
+    return new ReceiverQueue(
+        capacity, QueueWaitStrategy.SpinThenPark, overflowPolicy, 1_000_000_000L);
+  }
+
+  @Test
+  public void TestWraparound() {
+    ReceiverQueue queue = createQueue(4, QueueOverflowPolicy.DropNewest);
+
+    // 1. Test FIFO order as positions wrap around the slot array many times
+    long next = 0;
+    for (int i = 0; i < 100; i++) {
+      assertTrue(queue.offer(new LogTable(i * 3)));
+      assertTrue(queue.offer(new LogTable(i * 3 + 1)));
+      assertTrue(queue.offer(new LogTable(i * 3 + 2)));
+      for (int j = 0; j < 3; j++) {
+        assertEquals(next++, queue.poll().getTimestamp());
+      }
+      assertNull(queue.poll());
+    }
+    assertEquals(0, queue.size());
+    assertEquals(3, queue.getHighWaterMark());
+    assertEquals(0, queue.getDroppedCount());
+  }
+
+  @Test
+  public void TestDropNewest() {
+    ReceiverQueue queue = createQueue(4, QueueOverflowPolicy.DropNewest);
+
+    // 2. Test that new tables are dropped when full
+    for (int i = 0; i < 4; i++) {
+      assertTrue(queue.offer(new LogTable(i)));
+    }
+    for (int i = 4; i < 10; i++) {
+      assertFalse(queue.offer(new LogTable(i)));
+    }
+    assertEquals(4, queue.size());
+    assertEquals(4, queue.getHighWaterMark());
+    assertEquals(6, queue.getDroppedCount());
+    for (int i = 0; i < 4; i++) {
+      assertEquals(i, queue.poll().getTimestamp());
+    }
+    assertNull(queue.poll());
+  }
+
+  @Test
+  public void TestDropOldest() {
+    ReceiverQueue queue = createQueue(4, QueueOverflowPolicy.DropOldest);
+
+    // 3. Test that the oldest tables are dropped when full
+    for (int i = 0; i < 4; i++) {
+      assertTrue(queue.offer(new LogTable(i)));
+    }
+    for (int i = 4; i < 10; i++) {
+      assertFalse(queue.offer(new LogTable(i)));
+    }
+    assertEquals(4, queue.size());
+    assertEquals(4, queue.getHighWaterMark());
+    assertEquals(6, queue.getDroppedCount());
+    for (int i = 6; i < 10; i++) {
+      assertEquals(i, queue.poll().getTimestamp());
+    }
+    assertNull(queue.poll());
+  }
+
+  @Test
+  public void TestBlockTimeout() {
+    ReceiverQueue queue =
+        new ReceiverQueue(2, QueueWaitStrategy.Park, QueueOverflowPolicy.Block, 1_000_000L);
+
+    // 4. Test that a blocked offer is dropped after the timeout
+    assertTrue(queue.offer(new LogTable(0)));
+    assertTrue(queue.offer(new LogTable(1)));
+    assertFalse(queue.offer(new LogTable(2)));
+    assertEquals(1, queue.getDroppedCount());
+    assertEquals(0, queue.poll().getTimestamp());
+    assertEquals(1, queue.poll().getTimestamp());
+    assertNull(queue.poll());
+  }
+
+  @Test
+  public void TestConcurrentDropNewest() throws InterruptedException {
+    // 5. Test that every table is delivered once or dropped once
+    runConcurrent(createQueue(8, QueueOverflowPolicy.DropNewest), false);
+  }
+
+  @Test
+  public void TestConcurrentDropOldest() throws InterruptedException {
+    // 6. Test that dropping from the producer never races with the consumer
+    runConcurrent(createQueue(8, QueueOverflowPolicy.DropOldest), false);
+  }
+
+  @Test
+  public void TestConcurrentBlock() throws InterruptedException {
+    // 7. Test that blocking delivers every table in order
+    runConcurrent(createQueue(8, QueueOverflowPolicy.Block), true);
+  }
+
+  /**
+   * Sends tables from a producer thread while the consumer polls on this thread, then checks that
+   * the tables were received in order with no duplicates and that every missing table was counted
+   * as dropped.
+   */
+  private static void runConcurrent(ReceiverQueue queue, boolean expectAll)
+      throws InterruptedException {
+    int[] rejectedCount = new int[1];
+    Thread producer =
+        new Thread(
+            () -> {
+              for (int i = 0; i < concurrentCount; i++) {
+                if (!queue.offer(new LogTable(i))) {
+                  rejectedCount[0]++;
+                }
+              }
+            });
+    producer.start();
+
+    long lastTimestamp = -1;
+    int receivedCount = 0;
+    while (true) {
+      boolean producerDone = !producer.isAlive();
+      LogTable table = queue.poll();
+      if (table == null) {
+        if (producerDone) {
+          break;
+        }
+        Thread.onSpinWait();
+        continue;
+      }
+      assertTrue(table.getTimestamp() > lastTimestamp, "Table delivered out of order or twice");
+      lastTimestamp = table.getTimestamp();
+      receivedCount++;
+    }
+    producer.join();
+
+    assertEquals(concurrentCount, receivedCount + queue.getDroppedCount());
+    assertEquals(queue.getDroppedCount(), rejectedCount[0]);
+    assertTrue(queue.getHighWaterMark() <= 8);
+    if (expectAll) {
+      assertEquals(concurrentCount, receivedCount);
+      assertEquals(concurrentCount - 1, lastTimestamp);
+    }
+  }
+}
@@ -0,0 +1,318 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package org.littletonrobotics.junction.rlog;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.littletonrobotics.junction.LogTable;
+import org.littletonrobotics.junction.LogTable.LogValue;
+
+/*
+ * Unit tests for the RLOG encoder. The expected output is built independently with a
+ * DataOutputStream (big-endian, like the encoder) following the RLOG R2 record layout.
+ */
+public class RLOGEncoderTest {
+  private interface DataWriter {
+    void write(DataOutputStream data) throws IOException;
+  }
+
+  /** Returns the bytes written by a DataOutputStream. */
+  private static byte[] bytes(DataWriter writer) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      writer.write(new DataOutputStream(bytes));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static byte[] utf8(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  /** Builds the expected output of the encoder, including the length prefix. */
+  private static class Expected {
+    private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+    Expected revision() {
+      content.write(RLOGEncoder.logRevision);
+      return this;
+    }
+
+    Expected timestamp(double timestamp) {
+      content.writeBytes(
+          bytes(
+              data -> {
+                data.writeByte(0);
+                data.writeDouble(timestamp);
+              }));
+      return this;
+    }
+
+    Expected key(int keyID, String key, String type) {
+      content.writeBytes(
+          bytes(
+              data -> {
+                data.writeByte(1);
+                data.writeShort(keyID);
+                data.writeShort(utf8(key).length);
+                data.write(utf8(key));
+                data.writeShort(utf8(type).length);
+                data.write(utf8(type));
+              }));
+      return this;
+    }
+
+    Expected value(int keyID, byte[] payload) {
+      content.writeBytes(
+          bytes(
+              data -> {
+                data.writeByte(2);
+                data.writeShort(keyID);
+                data.writeShort(payload.length);
+                data.write(payload);
+              }));
+      return this;
+    }
+
+    byte[] toByteArray() {
+      return bytes(
+          data -> {
+            data.writeInt(content.size());
+            data.write(content.toByteArray());
+          });
+    }
+  }
+
+  private static byte[] toByteArray(ByteBuffer output) {
+    byte[] bytes = new byte[output.remaining()];
+    output.duplicate().get(bytes);
+    return bytes;
+  }
+
+  @Test
+  public void TestKnownOutput() {
+    RLOGEncoder encoder = new RLOGEncoder();
+    LogTable table = new LogTable(1_500_000);
+    table.put("A", true);
+    encoder.encodeTable(table, true);
+
+    // 1. Test a complete output byte for byte
+    byte[] expected = {
+      0, 0, 0, 32, // Length
+      2, // Revision
+      0, 0x3f, (byte) 0xf8, 0, 0, 0, 0, 0, 0, // Timestamp (1.5)
+      1, 0, 0, 0, 2, '/', 'A', 0, 7, 'b', 'o', 'o', 'l', 'e', 'a', 'n', // Key
+      2, 0, 0, 0, 1, 1 // Value
+    };
+    assertArrayEquals(expected, toByteArray(encoder.getOutput()));
+  }
+
+  @Test
+  public void TestAllTypes() {
+    LogTable source = new LogTable(2_000_000);
+    source.put("Raw", new byte[] {1, 2, (byte) 0xff});
+    source.put("Struct", new LogValue(new byte[] {4, 5}, "struct:Test"));
+    source.put("Boolean", true);
+    source.put("Integer", -2L);
+    source.put("Float", 1.25f);
+    source.put("Double", -0.5);
+    source.put("String", "Hello");
+    source.put("Unicode", "Élan ✓ 🤖");
+    source.put("BooleanArray", new boolean[] {true, false, true});
+    source.put("IntegerArray", new long[] {1, Long.MIN_VALUE});
+    source.put("FloatArray", new float[] {0.5f, Float.NaN});
+    source.put("DoubleArray", new double[] {Math.PI, Double.NEGATIVE_INFINITY});
+    source.put("StringArray", new String[] {"a", "", "π ✓"});
+    LogTable first = LogTable.clone(source);
+
+    byte[][] payloads = {
+      {1, 2, (byte) 0xff},
+      {4, 5},
+      {1},
+      bytes(data -> data.writeLong(-2)),
+      bytes(data -> data.writeFloat(1.25f)),
+      bytes(data -> data.writeDouble(-0.5)),
+      utf8("Hello"),
+      utf8("Élan ✓ 🤖"),
+      {1, 0, 1},
+      bytes(
+          data -> {
+            data.writeLong(1);
+            data.writeLong(Long.MIN_VALUE);
+          }),
+      bytes(
+          data -> {
+            data.writeFloat(0.5f);
+            data.writeFloat(Float.NaN);
+          }),
+      bytes(
+          data -> {
+            data.writeDouble(Math.PI);
+            data.writeDouble(Double.NEGATIVE_INFINITY);
+          }),
+      bytes(
+          data -> {
+            data.writeInt(3);
+            for (String item : new String[] {"a", "", "π ✓"}) {
+              data.writeInt(utf8(item).length);
+              data.write(utf8(item));
+            }
+          })
+    };
+    String[] keys = {
+      "/Raw",
+      "/Struct",
+      "/Boolean",
+      "/Integer",
+      "/Float",
+      "/Double",
+      "/String",
+      "/Unicode",
+      "/BooleanArray",
+      "/IntegerArray",
+      "/FloatArray",
+      "/DoubleArray",
+      "/StringArray"
+    };
+    String[] types = {
+      "raw",
+      "struct:Test",
+      "boolean",
+      "int64",
+      "float",
+      "double",
+      "string",
+      "string",
+      "boolean[]",
+      "int64[]",
+      "float[]",
+      "double[]",
+      "string[]"
+    };
+
+    // 2. Test that the first table includes the revision and a definition for each key
+    RLOGEncoder encoder = new RLOGEncoder();
+    encoder.encodeTable(first, true);
+    Expected expected = new Expected().revision().timestamp(2.0);
+    for (int i = 0; i < keys.length; i++) {
+      expected.key(i, keys[i], types[i]).value(i, payloads[i]);
+    }
+    assertArrayEquals(expected.toByteArray(), toByteArray(encoder.getOutput()));
+
+    // 3. Test that the next table only includes the changed values
+    source.setTimestamp(2_020_000);
+    source.put("Unicode", "日本");
+    source.put("Integer", -2L); // Unchanged
+    source.put("StringArray", new String[] {"ü"});
+    LogTable second = LogTable.clone(source);
+    encoder.encodeTable(second, true);
+    expected =
+        new Expected()
+            .timestamp(2.02)
+            .value(7, utf8("日本"))
+            .value(
+                12,
+                bytes(
+                    data -> {
+                      data.writeInt(1);
+                      data.writeInt(utf8("ü").length);
+                      data.write(utf8("ü"));
+                    }));
+    assertArrayEquals(expected.toByteArray(), toByteArray(encoder.getOutput()));
+
+    // 4. Test that newcomer data includes every key definition, then every current value
+    payloads[7] = utf8("日本");
+    payloads[12] =
+        bytes(
+            data -> {
+              data.writeInt(1);
+              data.writeInt(utf8("ü").length);
+              data.write(utf8("ü"));
+            });
+    for (boolean includeRevision : new boolean[] {true, false}) {
+      expected = new Expected();
+      if (includeRevision) {
+        expected.revision();
+      }
+      expected.timestamp(2.02);
+      for (int i = 0; i < keys.length; i++) {
+        expected.key(i, keys[i], types[i]);
+      }
+      for (int i = 0; i < keys.length; i++) {
+        expected.value(i, payloads[i]);
+      }
+      assertArrayEquals(
+          expected.toByteArray(), toByteArray(encoder.getNewcomerData(includeRevision)));
+    }
+  }
+
+  @Test
+  public void TestBufferGrowth() {
+    byte[] raw = new byte[11_000];
+    Arrays.fill(raw, (byte) 7);
+    String mixed = "a".repeat(2_000) + "é".repeat(2_000);
+    String[] strings = new String[110];
+    Arrays.fill(strings, "ü".repeat(50) + "z".repeat(50));
+    double[] doubles = new double[1_000];
+    Arrays.fill(doubles, 1.5);
+
+    LogTable table = new LogTable(0);
+    table.put("Raw", raw);
+    table.put("Mixed", mixed);
+    table.put("Strings", strings);
+    table.put("Doubles", doubles);
+
+    // 5. Test that values are unchanged when the buffer grows partway through a value (the mixed
+    // string crosses the initial capacity after its ASCII prefix, and the string array crosses the
+    // next capacity between items)
+    RLOGEncoder encoder = new RLOGEncoder();
+    encoder.encodeTable(table, false);
+    ByteBuffer output = encoder.getOutput();
+    assertTrue(output.capacity() > 16 * 1024);
+    byte[] expected =
+        new Expected()
+            .timestamp(0.0)
+            .key(0, "/Raw", "raw")
+            .value(0, raw)
+            .key(1, "/Mixed", "string")
+            .value(1, utf8(mixed))
+            .key(2, "/Strings", "string[]")
+            .value(
+                2,
+                bytes(
+                    data -> {
+                      data.writeInt(strings.length);
+                      for (String item : strings) {
+                        data.writeInt(utf8(item).length);
+                        data.write(utf8(item));
+                      }
+                    }))
+            .key(3, "/Doubles", "double[]")
+            .value(
+                3,
+                bytes(
+                    data -> {
+                      for (double item : doubles) {
+                        data.writeDouble(item);
+                      }
+                    }))
+            .toByteArray();
+    assertArrayEquals(expected, toByteArray(output));
+  }
+}
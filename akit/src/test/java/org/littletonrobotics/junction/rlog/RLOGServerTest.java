@@ -0,0 +1,277 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package org.littletonrobotics.junction.rlog;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import org.junit.jupiter.api.Test;
+import org.littletonrobotics.junction.LogTable;
+
+/*
+ * Unit tests for RLOG server subscriptions and clients. The subscriptions and clients are driven
+ * directly (without starting the server thread), since the server thread reads the HAL clock for
+ * heartbeats.
+ */
+public class RLOGServerTest {
+  /** Builds an encoded cycle with a timestamp and double values, including the length prefix. */
+  private static byte[] cycle(double timestamp, int[] keyIDs, double[] values) {
+    ByteBuffer buffer = ByteBuffer.allocate(4 + 9 + keyIDs.length * 13);
+    buffer.putInt(buffer.capacity() - 4);
+    buffer.put((byte) 0);
+    buffer.putDouble(timestamp);
+    for (int i = 0; i < keyIDs.length; i++) {
+      buffer.put((byte) 2);
+      buffer.putShort((short) keyIDs[i]);
+      buffer.putShort((short) Double.BYTES);
+      buffer.putDouble(values[i]);
+    }
+    return buffer.array();
+  }
+
+  /** Concatenates byte arrays. */
+  private static byte[] concat(byte[]... arrays) {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    for (byte[] array : arrays) {
+      output.writeBytes(array);
+    }
+    return output.toByteArray();
+  }
+
+  /**
+   * Removes the next compressed frame queued for a client, checks its header, and returns the
+   * inflated contents.
+   */
+  private static byte[] inflateFrame(RLOGServer.Client client, Inflater inflater, boolean reset) {
+    assertEquals(1, client.outgoing.size());
+    ByteBuffer frame = client.outgoing.removeFirst();
+    client.queuedBytes -= frame.remaining();
+    int header = frame.getInt();
+    assertTrue((header & 0x80000000) != 0, "Compressed flag not set");
+    assertEquals(reset, (header & 0x40000000) != 0, "Unexpected reset flag");
+    assertEquals(frame.remaining(), header & 0x3fffffff);
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    byte[] chunk = new byte[1024];
+    inflater.setInput(frame);
+    try {
+      while (true) {
+        int length = inflater.inflate(chunk);
+        if (length == 0) {
+          assertTrue(inflater.needsInput(), "Frame ends with incomplete data");
+          break;
+        }
+        output.write(chunk, 0, length);
+      }
+    } catch (DataFormatException e) {
+      throw new AssertionError(e);
+    }
+    return output.toByteArray();
+  }
+
+  @Test
+  public void TestRateLimitedSubscription() {
+    RLOGServer server = new RLOGServer();
+    RLOGServer.Subscription subscription = server.new Subscription(List.of("/Drive"), 10.0);
+    LogTable source = new LogTable(0);
+    source.put("Drive/A", 0.0);
+    source.put("Drive/B", 0.0);
+    source.put("Other/X", 0.0);
+
+    // 1. Test that nothing is encoded without clients
+    assertNull(subscription.encode(LogTable.clone(source)));
+    subscription.addClient();
+
+    // 2. Test that the first cycle is encoded with the matching keys only
+    RLOGServer.Message first = subscription.encode(LogTable.clone(source));
+    assertNotNull(first);
+    assertEquals(1, first.cycle());
+
+    // 3. Test that cycles within the rate limit are skipped
+    for (int i = 1; i <= 4; i++) {
+      source.setTimestamp(i * 20_000);
+      switch (i) {
+        case 1 -> source.put("Drive/A", 2.0);
+        case 2 -> source.put("Drive/B", 3.0);
+        case 3 -> source.put("Drive/B", 4.0);
+        default -> {}
+      }
+      source.put("Other/X", (double) i);
+      assertNull(subscription.encode(LogTable.clone(source)), "Cycle " + i + " not skipped");
+    }
+
+    // 4. Test that the skipped changes are folded into the next delta, using the latest values
+    source.setTimestamp(100_000);
+    RLOGServer.Message delta = subscription.encode(LogTable.clone(source));
+    assertNotNull(delta);
+    assertEquals(2, delta.cycle());
+    assertArrayEquals(cycle(0.1, new int[] {0, 1}, new double[] {2.0, 4.0}), delta.data());
+
+    // 5. Test that unchanged and excluded fields are not sent
+    source.setTimestamp(200_000);
+    source.put("Other/X", -1.0);
+    RLOGServer.Message unchanged = subscription.encode(LogTable.clone(source));
+    assertNotNull(unchanged);
+    assertArrayEquals(cycle(0.2, new int[] {}, new double[] {}), unchanged.data());
+
+    // 6. Test that the snapshot includes the latest values of the matching keys
+    RLOGServer.Message snapshot = subscription.getSnapshot(false);
+    assertEquals(3, snapshot.cycle());
+    ByteBuffer snapshotData = ByteBuffer.wrap(snapshot.data());
+    assertEquals(snapshotData.capacity() - 4, snapshotData.getInt());
+    assertEquals(0, snapshotData.get());
+    assertEquals(0.2, snapshotData.getDouble());
+  }
+
+  @Test
+  public void TestCompression() {
+    RLOGServer server = new RLOGServer(0, 1024 * 1024);
+    RLOGServer.ServerThread thread = server.new ServerThread(0);
+    RLOGServer.Subscription subscription = server.new Subscription(List.of(), 0.0);
+    subscription.addClient();
+    LogTable source = new LogTable(0);
+    source.put("A", 1.0);
+    byte[] first = subscription.encode(LogTable.clone(source)).data();
+    source.put("A", 2.0);
+    byte[] second = subscription.encode(LogTable.clone(source)).data();
+    RLOGServer.Client client = new RLOGServer.Client(null, "Test", subscription, 2, 0.0);
+    thread.processCompression(client, ByteBuffer.wrap(new byte[] {0x01}));
+
+    // 7. Test that a batch is compressed into one frame, which starts a new stream
+    Inflater inflater = new Inflater();
+    thread.enqueue(client, ByteBuffer.wrap(first));
+    thread.enqueue(client, ByteBuffer.wrap(second));
+    assertEquals(0, client.queuedBytes);
+    thread.compressBatch(client);
+    assertArrayEquals(concat(first, second), inflateFrame(client, inflater, true));
+    assertEquals(0, client.queuedBytes);
+
+    // 8. Test that the next frame continues the same stream
+    source.put("A", 3.0);
+    byte[] third = subscription.encode(LogTable.clone(source)).data();
+    thread.enqueue(client, ByteBuffer.wrap(third));
+    thread.compressBatch(client);
+    assertArrayEquals(third, inflateFrame(client, inflater, false));
+
+    // 9. Test that a resent snapshot discards the pending batch and starts a new stream
+    source.put("A", 4.0);
+    thread.enqueue(client, ByteBuffer.wrap(subscription.encode(LogTable.clone(source)).data()));
+    thread.resendSnapshot(client);
+    thread.compressBatch(client);
+    inflater = new Inflater();
+    assertArrayEquals(subscription.getSnapshot(true).data(), inflateFrame(client, inflater, true));
+    source.put("A", 5.0);
+    byte[] fifth = subscription.encode(LogTable.clone(source)).data();
+    thread.enqueue(client, ByteBuffer.wrap(fifth));
+    thread.compressBatch(client);
+    assertArrayEquals(fifth, inflateFrame(client, inflater, false));
+
+    // 10. Test that a frame larger than the initial compression buffer is complete, and that the
+    // stream continues after the buffer grows
+    byte[] random = new byte[200_000];
+    new Random(0).nextBytes(random);
+    thread.enqueue(client, ByteBuffer.wrap(random));
+    thread.enqueue(client, ByteBuffer.wrap(first));
+    thread.compressBatch(client);
+    assertTrue(client.outgoing.peekFirst().remaining() > 64 * 1024);
+    assertArrayEquals(concat(random, first), inflateFrame(client, inflater, false));
+    thread.enqueue(client, ByteBuffer.wrap(second));
+    thread.compressBatch(client);
+    assertArrayEquals(second, inflateFrame(client, inflater, false));
+
+    // 11. Test that disabling compression sends the pending batch before later uncompressed data
+    thread.enqueue(client, ByteBuffer.wrap(third));
+    thread.processCompression(client, ByteBuffer.wrap(new byte[] {0x00}));
+    assertArrayEquals(third, inflateFrame(client, inflater, false));
+    thread.enqueue(client, ByteBuffer.wrap(fifth));
+    assertEquals(fifth.length, client.queuedBytes);
+    assertArrayEquals(fifth, client.outgoing.removeFirst().array());
+
+    inflater.end();
+    thread.close();
+  }
+
+  @Test
+  public void TestSlowClient() throws IOException {
+    RLOGServer server = new RLOGServer(0, 4096);
+    RLOGServer.ServerThread thread = server.new ServerThread(0);
+    RLOGServer.Subscription subscription = server.new Subscription(List.of(), 0.0);
+    subscription.addClient();
+    LogTable source = new LogTable(0);
+    source.put("A", 1.0);
+    long firstCycle = subscription.encode(LogTable.clone(source)).cycle();
+
+    // Connect over loopback with small socket buffers, and don't read until the end
+    try (ServerSocketChannel listener = ServerSocketChannel.open();
+        SocketChannel reader = SocketChannel.open()) {
+      listener.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+      reader.setOption(StandardSocketOptions.SO_RCVBUF, 4096);
+      reader.connect(listener.getLocalAddress());
+      try (SocketChannel channel = listener.accept()) {
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.SO_SNDBUF, 4096);
+        RLOGServer.Client client =
+            new RLOGServer.Client(channel, "Test", subscription, firstCycle, 0.0);
+
+        // 12. Test that data which doesn't fit in the socket buffers is partially written
+        byte[] large = new byte[1024 * 1024];
+        new Random(0).nextBytes(large);
+        thread.enqueue(client, ByteBuffer.wrap(large));
+        thread.flush(client);
+        ByteBuffer partial = client.outgoing.peekFirst();
+        assertTrue(partial.position() > 0 && partial.hasRemaining());
+
+        // 13. Test that a client over the queue limit gets a snapshot instead of the new cycle,
+        // after the rest of the partially written buffer
+        source.put("A", 2.0);
+        RLOGServer.Message second = subscription.encode(LogTable.clone(source));
+        thread.send(client, List.of(second));
+        byte[] snapshot = subscription.getSnapshot(false).data();
+        assertEquals(2, client.outgoing.size());
+        assertSame(partial, client.outgoing.peekFirst());
+        assertArrayEquals(snapshot, client.outgoing.peekLast().array());
+        assertEquals(partial.remaining() + snapshot.length, client.queuedBytes);
+        assertEquals(second.cycle(), client.lastCycle);
+
+        // 14. Test that the client receives the complete buffer followed by the snapshot
+        byte[] expected = concat(large, snapshot);
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        ByteBuffer readBuffer = ByteBuffer.allocate(64 * 1024);
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (received.size() < expected.length) {
+          assertTrue(System.nanoTime() < deadline, "Timed out reading from the server");
+          thread.flush(client);
+          readBuffer.clear();
+          reader.read(readBuffer);
+          received.write(readBuffer.array(), 0, readBuffer.position());
+        }
+        assertArrayEquals(expected, received.toByteArray());
+        assertTrue(client.outgoing.isEmpty());
+        assertEquals(0, client.queuedBytes);
+      }
+    } finally {
+      thread.close();
+    }
+  }
+}
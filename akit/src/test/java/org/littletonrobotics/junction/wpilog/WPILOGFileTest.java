@@ -0,0 +1,201 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package org.littletonrobotics.junction.wpilog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.littletonrobotics.junction.LogTable;
+
+/*
+ * Unit tests for the WPILOG parser and its cached index. Logs are written with the same records as
+ * WPILOGWriter, then read back and compared with the tables that were written.
+ */
+public class WPILOGFileTest {
+  @TempDir Path tempDir;
+
+  /** Creates a sequence of tables with fields of each type, changing at different rates. */
+  static List<LogTable> createTables(int count, long startTimestamp) {
+    LogTable source = new LogTable(0);
+    List<LogTable> tables = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      source.setTimestamp(startTimestamp + i * 20_000L);
+      source.put("Counter", i);
+      if (i % 100 == 0) source.put("Slow", i / 100.0);
+      if (i == 0) source.put("Name", "Élan ✓");
+      if (i % 7 == 0) source.put("Array", new double[] {i, -i});
+      if (i % 13 == 0) source.put("Flags", new boolean[] {i % 2 == 0, true});
+      if (i % 50 == 3) source.put("Strings", new String[] {"a" + i, "π"});
+      if (i % 11 == 0) source.put("Raw", new byte[] {(byte) i, 1});
+      if (i >= 5) source.put("Sub/Value", i * 0.5f);
+      tables.add(LogTable.clone(source));
+    }
+    return tables;
+  }
+
+  /** Writes a log containing the tables. */
+  static void writeLog(Path path, List<LogTable> tables) throws IOException {
+    WPILOGTestWriter writer = new WPILOGTestWriter();
+    for (LogTable table : tables) {
+      writer.putTable(table);
+    }
+    writer.write(path);
+  }
+
+  /** Replays a log and checks that each cycle matches the table that was written. */
+  static void assertReplayMatches(String filename, List<LogTable> tables) {
+    WPILOGReader reader = new WPILOGReader(filename);
+    reader.start();
+    LogTable table = new LogTable(0);
+    for (int cycle = 0; cycle < tables.size(); cycle++) {
+      boolean hasNext = reader.updateTable(table);
+      assertEquals(cycle < tables.size() - 1, hasNext, "Unexpected end at cycle " + cycle);
+      assertEquals(tables.get(cycle).getTimestamp(), table.getTimestamp());
+      assertEquals(
+          new HashMap<>(tables.get(cycle).getAll(false)),
+          new HashMap<>(table.getAll(false)),
+          "Mismatch at cycle " + cycle);
+    }
+  }
+
+  @Test
+  public void TestRoundTrip() throws IOException {
+    List<LogTable> tables = createTables(600, 1_000_000);
+    Path path = tempDir.resolve("roundtrip.wpilog");
+    writeLog(path, tables);
+
+    // 1. Test that every cycle is indexed with its timestamp
+    WPILOGFile file = new WPILOGFile(path.toString());
+    assertEquals(WPILOGConstants.extraHeader, file.getExtraHeader());
+    assertEquals(tables.size(), file.getCycleCount());
+    for (int i = 0; i < tables.size(); i++) {
+      assertEquals(tables.get(i).getTimestamp(), file.getCycleTimestamp(i));
+    }
+    assertEquals(300, file.findCycle(tables.get(300).getTimestamp()));
+    assertEquals(301, file.findCycle(tables.get(300).getTimestamp() + 1));
+    assertEquals(250, file.getKeyframeCycle(499));
+    assertEquals(500, file.getKeyframeCycle(599));
+
+    // 2. Test that the replayed tables match the written tables
+    assertReplayMatches(path.toString(), tables);
+
+    // 3. Test that the same data is read back from the cached index
+    assertTrue(WPILOGFile.getIndexFile(path.toString()).exists());
+    WPILOGFile cachedFile = new WPILOGFile(path.toString());
+    assertEquals(tables.size(), cachedFile.getCycleCount());
+    for (int i = 0; i < tables.size(); i++) {
+      assertEquals(file.getCycleOffset(i), cachedFile.getCycleOffset(i));
+    }
+    assertReplayMatches(path.toString(), tables);
+  }
+
+  /**
+   * Writes two logs, then replaces the cached index of the second log with the index of the first
+   * so that the second log has a stale index.
+   */
+  private Path writeWithStaleIndex(String name, List<LogTable> oldTables, List<LogTable> tables)
+      throws IOException {
+    Path oldPath = tempDir.resolve(name + "_old.wpilog");
+    Path path = tempDir.resolve(name + ".wpilog");
+    writeLog(oldPath, oldTables);
+    writeLog(path, tables);
+    assertEquals(oldTables.size(), new WPILOGFile(oldPath.toString()).getCycleCount());
+    Files.copy(
+        WPILOGFile.getIndexFile(oldPath.toString()).toPath(),
+        WPILOGFile.getIndexFile(path.toString()).toPath(),
+        StandardCopyOption.REPLACE_EXISTING);
+    return path;
+  }
+
+  @Test
+  public void TestStaleIndexSize() throws IOException {
+    // 4. Test that the index is rebuilt when the log size changes
+    List<LogTable> tables = createTables(300, 1_000_000);
+    Path path = writeWithStaleIndex("size", createTables(100, 1_000_000), tables);
+    assertEquals(300, new WPILOGFile(path.toString()).getCycleCount());
+    assertReplayMatches(path.toString(), tables);
+  }
+
+  @Test
+  public void TestStaleIndexModified() throws IOException {
+    // 5. Test that the index is rebuilt when only the modification time changes
+    List<LogTable> tables = createTables(100, 1_000_001);
+    Path path = writeWithStaleIndex("modified", createTables(100, 1_000_000), tables);
+    Path oldPath = tempDir.resolve("modified_old.wpilog");
+    assertEquals(Files.size(oldPath), Files.size(path));
+    assertTrue(path.toFile().setLastModified(oldPath.toFile().lastModified() + 10_000));
+    WPILOGFile file = new WPILOGFile(path.toString());
+    for (int i = 0; i < tables.size(); i++) {
+      assertEquals(tables.get(i).getTimestamp(), file.getCycleTimestamp(i));
+    }
+    assertReplayMatches(path.toString(), tables);
+  }
+
+  @Test
+  public void TestTruncatedRecord() throws IOException {
+    List<LogTable> tables = createTables(10, 1_000_000);
+    WPILOGTestWriter writer = new WPILOGTestWriter();
+    for (LogTable table : tables) {
+      writer.putTable(table);
+    }
+    byte[] data = writer.toByteArray();
+    Path completePath = tempDir.resolve("complete.wpilog");
+    Files.write(completePath, data);
+
+    // Find the final record, which is a field in the last cycle
+    WPILOGFile completeFile = new WPILOGFile(completePath.toString());
+    int lastOffset = 0;
+    while (completeFile.next()) {
+      lastOffset = completeFile.getRecordOffset();
+    }
+    assertFalse(completeFile.hasReadError());
+    assertTrue(lastOffset > completeFile.getCycleOffset(9));
+
+    // 6. Test that a record truncated in its header or payload ends the log without an error
+    for (int length : new int[] {lastOffset + 2, data.length - 1}) {
+      Path path = tempDir.resolve("truncated" + length + ".wpilog");
+      Files.write(path, Arrays.copyOf(data, length));
+      WPILOGFile file = new WPILOGFile(path.toString());
+      assertEquals(10, file.getCycleCount());
+      assertFalse(file.hasReadError());
+      int recordCount = 0;
+      while (file.next()) {
+        recordCount++;
+      }
+      assertTrue(recordCount > 0);
+      assertTrue(file.hasReadError());
+      assertFalse(file.hasNext());
+
+      // Earlier cycles replay normally, and the truncated field (written last) keeps its previous
+      // value
+      WPILOGReader reader = new WPILOGReader(path.toString());
+      reader.start();
+      LogTable table = new LogTable(0);
+      for (int cycle = 0; cycle < 9; cycle++) {
+        assertTrue(reader.updateTable(table));
+        assertEquals(
+            new HashMap<>(tables.get(cycle).getAll(false)), new HashMap<>(table.getAll(false)));
+      }
+      assertFalse(reader.updateTable(table));
+      assertEquals(tables.get(9).getTimestamp(), table.getTimestamp());
+      assertEquals(9, table.get("Counter", 0L));
+      assertEquals(8 * 0.5f, table.get("Sub/Value", 0.0f));
+    }
+  }
+}
@@ -0,0 +1,124 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package org.littletonrobotics.junction.wpilog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.littletonrobotics.junction.LogTable;
+
+/*
+ * Unit tests for replaying part of a WPILOG file. Each replay range is compared with the same
+ * cycles from a linear read of the whole log, so the keyframe restore must produce exactly the
+ * state that reading every earlier cycle would.
+ */
+public class WPILOGReaderTest {
+  private static final int cycleCount = 600;
+  private static final int[] targetCycles = {1, 100, 249, 250, 251, 499, 500, 501, 599};
+
+  @TempDir static Path tempDir;
+  private static String filename;
+  private static List<LogTable> tables;
+  private static List<LogTable> linearTables;
+
+  @BeforeAll
+  public static void writeLog() throws IOException {
+    tables = WPILOGFileTest.createTables(cycleCount, 1_000_000);
+    filename = tempDir.resolve("range.wpilog").toString();
+    WPILOGFileTest.writeLog(Path.of(filename), tables);
+
+    // Read the whole log once as the reference
+    WPILOGReader reader = new WPILOGReader(filename);
+    reader.start();
+    LogTable table = new LogTable(0);
+    linearTables = new ArrayList<>();
+    for (int cycle = 0; cycle < cycleCount; cycle++) {
+      reader.updateTable(table);
+      linearTables.add(LogTable.clone(table));
+    }
+  }
+
+  private static void assertCycleMatches(int cycle, LogTable table) {
+    LogTable expected = linearTables.get(cycle);
+    assertEquals(expected.getTimestamp(), table.getTimestamp(), "Timestamp at cycle " + cycle);
+    assertEquals(
+        new HashMap<>(expected.getAll(false)),
+        new HashMap<>(table.getAll(false)),
+        "Mismatch at cycle " + cycle);
+  }
+
+  @Test
+  public void TestLinearRead() {
+    // 1. Test that the reference read matches the written tables
+    for (int cycle = 0; cycle < cycleCount; cycle++) {
+      assertEquals(
+          new HashMap<>(tables.get(cycle).getAll(false)),
+          new HashMap<>(linearTables.get(cycle).getAll(false)));
+    }
+  }
+
+  @Test
+  public void TestCycleRange() {
+    // 2. Test that each range starts from the same state as a linear read, around each keyframe
+    for (int start : targetCycles) {
+      int end = Math.min(start + 3, cycleCount);
+      WPILOGReader reader = new WPILOGReader(filename);
+      reader.setCycleRange(start, end);
+      reader.start();
+      LogTable table = new LogTable(0);
+      for (int cycle = start; cycle < end; cycle++) {
+        boolean hasNext = reader.updateTable(table);
+        assertEquals(cycle < end - 1, hasNext, "Unexpected end at cycle " + cycle);
+        assertCycleMatches(cycle, table);
+      }
+    }
+  }
+
+  @Test
+  public void TestTimeRange() {
+    // 3. Test that time ranges select the same cycles as the equivalent cycle range (bounds are
+    // halfway between cycles so that rounding to microseconds doesn't matter)
+    for (int start : targetCycles) {
+      int end = Math.min(start + 3, cycleCount);
+      WPILOGReader reader = new WPILOGReader(filename);
+      reader.setTimeRange(
+          (tables.get(start).getTimestamp() - 10_000) / 1e6,
+          (tables.get(end - 1).getTimestamp() + 10_000) / 1e6);
+      reader.start();
+      LogTable table = new LogTable(0);
+      for (int cycle = start; cycle < end; cycle++) {
+        boolean hasNext = reader.updateTable(table);
+        assertEquals(cycle < end - 1, hasNext, "Unexpected end at cycle " + cycle);
+        assertCycleMatches(cycle, table);
+      }
+    }
+  }
+
+  @Test
+  public void TestOpenRange() {
+    // 4. Test that a range without an end replays every remaining cycle
+    WPILOGReader reader = new WPILOGReader(filename);
+    reader.setCycleRange(251, Integer.MAX_VALUE);
+    reader.start();
+    LogTable table = new LogTable(0);
+    for (int cycle = 251; cycle < cycleCount; cycle++) {
+      assertTrue(reader.updateTable(table) || cycle == cycleCount - 1);
+      assertCycleMatches(cycle, table);
+    }
+    assertFalse(reader.updateTable(table));
+  }
+}
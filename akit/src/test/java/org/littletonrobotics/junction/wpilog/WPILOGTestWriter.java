@@ -0,0 +1,207 @@
+// Copyright (c) 2021-2026 Littleton Robotics
+// http://github.com/Mechanical-Advantage
+//
+// Use of this source code is governed by a BSD
+// license that can be found in the LICENSE file
+// at the root directory of this project.
+
+package org.littletonrobotics.junction.wpilog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.littletonrobotics.junction.LogDataReceiver;
+import org.littletonrobotics.junction.LogTable;
+import org.littletonrobotics.junction.LogTable.LogValue;
+import org.littletonrobotics.junction.LogTable.LoggableType;
+
+/*
+ * Writes WPILOG data with the same records as WPILOGWriter.putTable, so that the reader can be
+ * tested without the HAL and datalog native libraries. Each table is written as a timestamp record
+ * followed by the changed fields, and entries are started when first written.
+ */
+class WPILOGTestWriter {
+  private static final int controlStart = 0;
+  private static final int controlSetMetadata = 2;
+
+  private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+  private final int timestampEntry;
+  private int nextEntry = 1;
+  private int[] entryIds = new int[256]; // Indexed by field ID, zero if not started
+  private String[] entryUnits = new String[256]; // Indexed by field ID
+  private LogTable lastTable = null;
+
+  WPILOGTestWriter() {
+    byte[] extraHeader = WPILOGConstants.extraHeader.getBytes(StandardCharsets.UTF_8);
+    output.writeBytes("WPILOG".getBytes(StandardCharsets.US_ASCII));
+    output.writeBytes(allocate(6).putShort((short) 0x0100).putInt(extraHeader.length).array());
+    output.writeBytes(extraHeader);
+    timestampEntry =
+        start(
+            LogDataReceiver.timestampKey,
+            LoggableType.Integer.getWPILOGType(),
+            WPILOGConstants.entryMetadata,
+            0);
+  }
+
+  /** Writes the timestamp and all fields that changed since the previous table. */
+  void putTable(LogTable table) {
+    long timestamp = table.getTimestamp();
+    appendRecord(timestampEntry, timestamp, allocate(8).putLong(timestamp).array());
+    for (int fieldId : table.getChangedFields(lastTable)) {
+      LogValue value = table.getField(fieldId);
+      String unit = value.unitStr;
+      if (fieldId >= entryIds.length) {
+        entryIds = Arrays.copyOf(entryIds, Math.max(fieldId + 1, entryIds.length * 2));
+        entryUnits = Arrays.copyOf(entryUnits, entryIds.length);
+      }
+      if (entryIds[fieldId] == 0) {
+        entryIds[fieldId] =
+            start(table.getFieldKey(fieldId), value.getWPILOGType(), getMetadata(unit), timestamp);
+        entryUnits[fieldId] = unit;
+      }
+      if (unit != null && !unit.equals(entryUnits[fieldId])) {
+        appendControl(controlSetMetadata, entryIds[fieldId], timestamp, getMetadata(unit));
+        entryUnits[fieldId] = unit;
+      }
+      appendRecord(entryIds[fieldId], timestamp, encode(value));
+    }
+    lastTable = table;
+  }
+
+  /** Returns the log data written so far. */
+  byte[] toByteArray() {
+    return output.toByteArray();
+  }
+
+  /** Writes the log data to a file, replacing any existing file. */
+  void write(Path path) throws IOException {
+    Files.write(path, toByteArray());
+  }
+
+  private static String getMetadata(String unit) {
+    return unit == null
+        ? WPILOGConstants.entryMetadata
+        : WPILOGConstants.entryMetadataUnits.replace("$UNITSTR", unit);
+  }
+
+  private int start(String name, String type, String metadata, long timestamp) {
+    int entry = nextEntry++;
+    appendControl(controlStart, entry, timestamp, name, type, metadata);
+    return entry;
+  }
+
+  private void appendControl(int controlType, int entry, long timestamp, String... strings) {
+    ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    payload.write(controlType);
+    payload.writeBytes(allocate(4).putInt(entry).array());
+    for (String string : strings) {
+      payload.writeBytes(lengthPrefixed(string));
+    }
+    appendRecord(0, timestamp, payload.toByteArray());
+  }
+
+  private void appendRecord(int entry, long timestamp, byte[] payload) {
+    int entryLength = getVarIntLength(entry);
+    int sizeLength = getVarIntLength(payload.length);
+    int timestampLength = getVarIntLength(timestamp);
+    output.write((entryLength - 1) | ((sizeLength - 1) << 2) | ((timestampLength - 1) << 4));
+    writeVarInt(entry, entryLength);
+    writeVarInt(payload.length, sizeLength);
+    writeVarInt(timestamp, timestampLength);
+    output.writeBytes(payload);
+  }
+
+  private static int getVarIntLength(long value) {
+    int length = 1;
+    while (length < 8 && (value >>> (length * 8)) != 0) {
+      length++;
+    }
+    return length;
+  }
+
+  private void writeVarInt(long value, int length) {
+    for (int i = 0; i < length; i++) {
+      output.write((int) (value >>> (i * 8)) & 0xff);
+    }
+  }
+
+  private static byte[] lengthPrefixed(String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    return allocate(4 + bytes.length).putInt(bytes.length).put(bytes).array();
+  }
+
+  private static ByteBuffer allocate(int size) {
+    return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  private static byte[] encode(LogValue value) {
+    switch (value.type) {
+      case Raw:
+        return value.getRaw();
+      case Boolean:
+        return new byte[] {(byte) (value.getBoolean() ? 1 : 0)};
+      case Integer:
+        return allocate(8).putLong(value.getInteger()).array();
+      case Float:
+        return allocate(4).putFloat(value.getFloat()).array();
+      case Double:
+        return allocate(8).putDouble(value.getDouble()).array();
+      case String:
+        return value.getString().getBytes(StandardCharsets.UTF_8);
+      case BooleanArray:
+        {
+          boolean[] array = value.getBooleanArray();
+          byte[] bytes = new byte[array.length];
+          for (int i = 0; i < array.length; i++) {
+            bytes[i] = (byte) (array[i] ? 1 : 0);
+          }
+          return bytes;
+        }
+      case IntegerArray:
+        {
+          long[] array = value.getIntegerArray();
+          ByteBuffer buffer = allocate(array.length * 8);
+          for (long item : array) {
+            buffer.putLong(item);
+          }
+          return buffer.array();
+        }
+      case FloatArray:
+        {
+          float[] array = value.getFloatArray();
+          ByteBuffer buffer = allocate(array.length * 4);
+          for (float item : array) {
+            buffer.putFloat(item);
+          }
+          return buffer.array();
+        }
+      case DoubleArray:
+        {
+          double[] array = value.getDoubleArray();
+          ByteBuffer buffer = allocate(array.length * 8);
+          for (double item : array) {
+            buffer.putDouble(item);
+          }
+          return buffer.array();
+        }
+      case StringArray:
+        {
+          ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+          String[] array = value.getStringArray();
+          bytes.writeBytes(allocate(4).putInt(array.length).array());
+          for (String item : array) {
+            bytes.writeBytes(lengthPrefixed(item));
+          }
+          return bytes.toByteArray();
+        }
+      default:
+        return new byte[] {};
+    }
+  }
+}
@@ -22,9 +22,11 @@ public interface VisionIO {
   }
 
   /** Represents the angle to a simple target, not used for pose estimation. */
+  @AutoLog
   public static record TargetObservation(Rotation2d tx, Rotation2d ty) {}
 
   /** Represents a robot pose sample used for pose estimation. */
+  @AutoLog
   public static record PoseObservation(
       double timestamp,
       Pose3d pose,